@@ -0,0 +1,109 @@
+package com.example.customermanagement;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rows per second through POST /api/import/{entity} for customers or
+ * vendors. Each round posts a body of new rows with emails and phones no
+ * earlier run has used, so every row is an insert; every run adds real rows,
+ * so point it at a scratch database. The body is built in memory before the
+ * clock starts, and both the client's wall-clock rate and the server's own
+ * elapsedMillis are reported. It needs nothing beyond the JDK:
+ *
+ *   mvn -P benchmarks test-compile
+ *   java -cp target/test-classes com.example.customermanagement.BulkImportLoadTest http://localhost:8080
+ *
+ * Optional further arguments: entity (customers or vendors), rows per round,
+ * format (ndjson or csv) and the number of rounds.
+ */
+public final class BulkImportLoadTest {
+
+    private static final Pattern FIELD = Pattern.compile("\"(inserted|updated|failed|elapsedMillis)\":(\\d+)");
+
+    private BulkImportLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        String entity = args.length > 1 ? args[1] : "customers";
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+        String format = args.length > 3 ? args[3] : "ndjson";
+        int rounds = args.length > 4 ? Integer.parseInt(args[4]) : 3;
+
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        // A 3-digit prefix per run keeps phones unique across runs; the remaining 7 digits number the rows
+        long phoneBase = (100 + System.currentTimeMillis() / 1000 % 900) * 10_000_000L;
+        String run = Long.toString(System.currentTimeMillis(), 36);
+
+        System.out.printf("%-10s %-7s %5s %9s %9s %7s %9s %12s %12s%n", "entity", "format", "round", "rows",
+            "inserted", "failed", "seconds", "rows/s", "server rows/s");
+        // Round 0 is an untimed warm-up
+        for (int round = 0; round <= rounds; round++) {
+            byte[] body = body(entity, format, run + "r" + round, phoneBase + (long) round * rows, rows);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/import/" + entity))
+                .timeout(Duration.ofMinutes(10))
+                .header("Content-Type", format.equals("csv") ? "text/csv" : "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+
+            long start = System.nanoTime();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            double seconds = (System.nanoTime() - start) / 1e9;
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Import round " + round + " returned HTTP " + response.statusCode()
+                    + ": " + response.body());
+            }
+            long inserted = field(response.body(), "inserted");
+            long failed = field(response.body(), "failed");
+            long serverMillis = field(response.body(), "elapsedMillis");
+            if (round > 0) {
+                System.out.printf("%-10s %-7s %5d %9d %9d %7d %9.2f %12.0f %12.0f%n", entity, format, round, rows,
+                    inserted, failed, seconds, rows / seconds, rows * 1000.0 / Math.max(1, serverMillis));
+            }
+        }
+    }
+
+    private static byte[] body(String entity, String format, String run, long phoneBase, int rows) {
+        boolean csv = format.equals("csv");
+        boolean vendors = entity.equals("vendors");
+        StringBuilder body = new StringBuilder(rows * 120);
+        if (csv) {
+            body.append(vendors ? "name,email,phone,address,description\n" : "name,email,phone,address\n");
+        }
+        for (int i = 0; i < rows; i++) {
+            String name = (vendors ? "Load Vendor " : "Load Customer ") + i;
+            String email = "load-" + run + "-" + i + "@example.com";
+            String phone = Long.toString(phoneBase + i);
+            String address = (i % 500) + " Market Road, Bengaluru";
+            if (csv) {
+                body.append(name).append(',').append(email).append(',').append(phone).append(",\"").append(address);
+                body.append(vendors ? "\",Wholesale supplier\n" : "\"\n");
+            } else {
+                body.append("{\"name\":\"").append(name).append("\",\"email\":\"").append(email)
+                    .append("\",\"phone\":\"").append(phone).append("\",\"address\":\"").append(address);
+                body.append(vendors ? "\",\"description\":\"Wholesale supplier\"}\n" : "\"}\n");
+            }
+        }
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long field(String json, String name) {
+        Matcher matcher = FIELD.matcher(json);
+        while (matcher.find()) {
+            if (matcher.group(1).equals(name)) {
+                return Long.parseLong(matcher.group(2));
+            }
+        }
+        return -1;
+    }
+}
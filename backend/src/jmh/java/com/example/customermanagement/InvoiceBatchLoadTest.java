@@ -0,0 +1,108 @@
+package com.example.customermanagement;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.StringJoiner;
+
+/**
+ * Invoices per second through POST /api/invoices/batch, next to the same
+ * kind of invoices posted one at a time to POST /api/invoices. Every run
+ * inserts real rows, so point it at a scratch database. Batch invoices are
+ * sent without a number, so the server allocates them; single ones carry a
+ * unique number because that endpoint requires one. It needs nothing beyond
+ * the JDK:
+ *
+ *   mvn -P benchmarks test-compile
+ *   java -cp target/test-classes com.example.customermanagement.InvoiceBatchLoadTest http://localhost:8080
+ *
+ * Optional further arguments: invoices per batch, items per invoice,
+ * invoices posted one at a time, and the number of rounds.
+ */
+public final class InvoiceBatchLoadTest {
+
+    private InvoiceBatchLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int itemsPerInvoice = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        int singles = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+        int rounds = args.length > 4 ? Integer.parseInt(args[4]) : 3;
+
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        String run = Long.toString(System.currentTimeMillis(), 36).toUpperCase();
+
+        System.out.printf("%-8s %5s %9s %9s %11s%n", "mode", "round", "invoices", "seconds", "invoices/s");
+        // Round 0 is an untimed warm-up of both paths
+        for (int round = 0; round <= rounds; round++) {
+            StringJoiner batch = new StringJoiner(",", "[", "]");
+            for (int i = 0; i < batchSize; i++) {
+                batch.add(invoiceJson(null, i, itemsPerInvoice));
+            }
+            long start = System.nanoTime();
+            HttpResponse<String> response = client.send(post(baseUrl + "/api/invoices/batch", batch.toString()),
+                HttpResponse.BodyHandlers.ofString());
+            double seconds = (System.nanoTime() - start) / 1e9;
+            int created = count(response.body(), "\"status\":\"CREATED\"");
+            if (response.statusCode() != 200 || created != batchSize) {
+                throw new IllegalStateException("Batch round " + round + " created " + created + " of " + batchSize
+                    + " (HTTP " + response.statusCode() + ")");
+            }
+            report("batch", round, created, seconds);
+
+            start = System.nanoTime();
+            for (int i = 0; i < singles; i++) {
+                String invoiceNo = "LT-" + run + "-" + round + "-" + i;
+                HttpResponse<Void> single = client.send(post(baseUrl + "/api/invoices",
+                    invoiceJson(invoiceNo, i, itemsPerInvoice)), HttpResponse.BodyHandlers.discarding());
+                if (single.statusCode() != 201) {
+                    throw new IllegalStateException("POST /api/invoices returned " + single.statusCode());
+                }
+            }
+            report("single", round, singles, (System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    private static void report(String mode, int round, int invoices, double seconds) {
+        if (round > 0) {
+            System.out.printf("%-8s %5d %9d %9.2f %11.0f%n", mode, round, invoices, seconds, invoices / seconds);
+        }
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+            .timeout(Duration.ofMinutes(5))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+    }
+
+    // totalAmount and totalPrice are recomputed by the server; they only have to pass validation
+    private static String invoiceJson(String invoiceNo, int i, int items) {
+        String date = LocalDateTime.now().withNano(0).toString();
+        StringJoiner lines = new StringJoiner(",", "[", "]");
+        for (int item = 0; item < items; item++) {
+            lines.add("{\"itemName\":\"Load item " + item + "\",\"quantity\":" + (1 + item % 3)
+                + ",\"unitPrice\":" + (10 + i % 90) + ".50,\"cgstRate\":9,\"sgstRate\":9,\"totalPrice\":1}");
+        }
+        return "{" + (invoiceNo != null ? "\"invoiceNo\":\"" + invoiceNo + "\"," : "")
+            + "\"customerName\":\"Load Customer " + (i % 500) + "\",\"customerMobile\":\"9" + String.format("%09d", i % 500)
+            + "\",\"invoiceDate\":\"" + date + "\",\"dateTime\":\"" + date + "\",\"totalAmount\":1,\"items\":" + lines + "}";
+    }
+
+    private static int count(String text, String token) {
+        int count = 0;
+        for (int at = text.indexOf(token); at >= 0; at = text.indexOf(token, at + token.length())) {
+            count++;
+        }
+        return count;
+    }
+}
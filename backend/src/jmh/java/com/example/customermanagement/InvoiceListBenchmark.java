@@ -0,0 +1,109 @@
+package com.example.customermanagement;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * Response size and median latency of the invoice list endpoints against a
+ * running server, and a regression check on their shape: list rows must be
+ * summaries without items, while GET /api/invoices/{id} must still carry
+ * them. Exits with status 1 when a check fails, so it can gate a deploy.
+ * It needs nothing beyond the JDK:
+ *
+ *   mvn -P benchmarks test-compile
+ *   java -cp target/test-classes com.example.customermanagement.InvoiceListBenchmark http://localhost:8080
+ *
+ * Optional further arguments: a comma-separated list of paths, and the
+ * number of timed requests per path.
+ */
+public final class InvoiceListBenchmark {
+
+    private static final String DEFAULT_PATHS = String.join(",",
+        "/api/invoices?limit=200",
+        "/api/invoices?limit=50",
+        "/api/invoices/customer?name=Cust%201&limit=200",
+        "/api/invoices/date-range?startDate=2000-01-01T00:00:00&endDate=2100-01-01T00:00:00&limit=200",
+        "/api/invoices/recent?limit=200",
+        "/api/invoices/search?term=cust",
+        "/api/invoices/1");
+
+    // A path ending in an id is the detail view; everything else is a listing
+    private static final Pattern DETAIL = Pattern.compile(".*/api/invoices/\\d+$");
+
+    private InvoiceListBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        String[] paths = (args.length > 1 ? args[1] : DEFAULT_PATHS).split(",");
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 15;
+
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+        boolean failed = false;
+        System.out.printf("%-90s %6s %10s %9s  %s%n", "path", "rows", "bytes", "p50 ms", "check");
+        for (String path : paths) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+            // Untimed warm-up, as in RequestLoadTest
+            for (int i = 0; i < 3; i++) {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+            }
+
+            long[] latencies = new long[requests];
+            String body = null;
+            int status = 0;
+            for (int i = 0; i < requests; i++) {
+                long start = System.nanoTime();
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                latencies[i] = System.nanoTime() - start;
+                body = response.body();
+                status = response.statusCode();
+            }
+            Arrays.sort(latencies);
+
+            String check = check(path, status, body);
+            failed |= !check.equals("ok");
+            System.out.printf("%-90s %6d %10d %9.1f  %s%n", path, count(body, "\"invoiceNo\""),
+                body.getBytes(StandardCharsets.UTF_8).length,
+                latencies[(requests - 1) / 2] / 1_000_000.0, check);
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    private static String check(String path, int status, String body) {
+        if (status != 200) {
+            return "FAIL: HTTP " + status;
+        }
+        boolean hasItems = body.contains("\"items\"");
+        if (DETAIL.matcher(path).matches()) {
+            return hasItems ? "ok" : "FAIL: detail view without items";
+        }
+        if (!body.startsWith("[")) {
+            return "FAIL: not a JSON array";
+        }
+        return hasItems ? "FAIL: list rows carry items" : "ok";
+    }
+
+    private static int count(String text, String token) {
+        int count = 0;
+        for (int at = text.indexOf(token); at >= 0; at = text.indexOf(token, at + token.length())) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.customermanagement;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.example.customermanagement.repository.InvoiceRepository;
+
+/**
+ * p50/p99 latency of invoice search on a synthetic dataset, comparing the
+ * original query (unbounded LIKE '%term%' with the items fetch-joined and
+ * DISTINCT) with the ranked, capped search the application runs now, with
+ * and without the trigram indexes. The dataset lives in its own schema,
+ * search_bench, and is generated once and reused by later runs. The ranked
+ * query is InvoiceRepository's own SQL, so it cannot drift from the
+ * application's.
+ *
+ *   mvn -P benchmarks test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:$(cat target/cp.txt) com.example.customermanagement.InvoiceSearchBenchmark \
+ *     jdbc:postgresql://localhost:5432/postgres postgres secret
+ *
+ * Optional further arguments: number of invoices (default 1,000,000; two
+ * items each) and timed runs per term and variant.
+ */
+public final class InvoiceSearchBenchmark {
+
+    private static final String SCHEMA = "search_bench";
+
+    // Names, invoice number and mobile fragments, a short term and a miss
+    private static final String[] TERMS = {
+        "kumar", "priya sharma", "anand", "rao", "inv0004217", "0012", "98450", "77", "sh", "naidu", "ravi k", "zzqx"
+    };
+
+    private static final String[] FIRST_NAMES = {
+        "Ravi", "Priya", "Anand", "Lakshmi", "Suresh", "Kavya", "Arjun", "Meena", "Vikram", "Divya",
+        "Karthik", "Sneha", "Rahul", "Pooja", "Ganesh", "Anita", "Mohan", "Deepa", "Sanjay", "Revathi"
+    };
+    private static final String[] LAST_NAMES = {
+        "Kumar", "Sharma", "Rao", "Reddy", "Iyer", "Naidu", "Patel", "Menon", "Gupta", "Pillai",
+        "Singh", "Das", "Nair", "Joshi", "Verma", "Bhat", "Shetty", "Kulkarni", "Mishra", "Hegde"
+    };
+
+    // The pre-trigram search, as the JPQL query compiled to SQL
+    private static final String ORIGINAL =
+        "SELECT DISTINCT i.id, i.invoice_no, i.customer_name, i.customer_mobile, i.invoice_date, i.total_amount, " +
+        "i.payment_status, t.id, t.item_name, t.quantity, t.unit_price, t.total_price " +
+        "FROM invoices i LEFT JOIN invoice_items t ON t.invoice_id = i.id WHERE " +
+        "LOWER(i.invoice_no) LIKE LOWER('%' || ? || '%') OR LOWER(i.customer_name) LIKE LOWER('%' || ? || '%') " +
+        "OR i.customer_mobile LIKE '%' || ? || '%'";
+
+    private static final String SUMMARIES =
+        "SELECT i.id, i.invoice_no, i.customer_name, i.customer_mobile, i.invoice_date, i.total_amount, " +
+        "i.payment_status FROM invoices i WHERE i.id = ANY (?)";
+
+    private static final String[] TRIGRAM_INDEXES = {
+        "CREATE INDEX IF NOT EXISTS bench_invoice_no_trgm ON invoices USING gin (LOWER(invoice_no) gin_trgm_ops)",
+        "CREATE INDEX IF NOT EXISTS bench_customer_name_trgm ON invoices USING gin (LOWER(customer_name) gin_trgm_ops)",
+        "CREATE INDEX IF NOT EXISTS bench_customer_mobile_trgm ON invoices USING gin (customer_mobile gin_trgm_ops)"
+    };
+
+    private InvoiceSearchBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "jdbc:postgresql://localhost:5432/postgres";
+        String user = args.length > 1 ? args[1] : "postgres";
+        String password = args.length > 2 ? args[2] : "";
+        int invoices = args.length > 3 ? Integer.parseInt(args[3]) : 1_000_000;
+        int runs = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            seed(connection, invoices);
+
+            System.out.printf("%n%-36s %8s %8s %8s %10s%n", "variant", "runs", "p50 ms", "p99 ms", "rows/run");
+            execute(connection, "DROP INDEX IF EXISTS bench_invoice_no_trgm, bench_customer_name_trgm, bench_customer_mobile_trgm");
+            run(connection, "original, no trigram indexes", runs, InvoiceSearchBenchmark::original);
+            run(connection, "ranked page, no trigram indexes", runs, InvoiceSearchBenchmark::ranked);
+
+            long start = System.nanoTime();
+            for (String index : TRIGRAM_INDEXES) {
+                execute(connection, index);
+            }
+            execute(connection, "ANALYZE invoices");
+            System.out.printf("(trigram indexes built in %.1f s)%n", (System.nanoTime() - start) / 1e9);
+            run(connection, "original, trigram indexes", runs, InvoiceSearchBenchmark::original);
+            run(connection, "ranked page, trigram indexes", runs, InvoiceSearchBenchmark::ranked);
+        }
+    }
+
+    private interface Search {
+        int execute(Connection connection, String term) throws SQLException;
+    }
+
+    private static void run(Connection connection, String variant, int runs, Search search) throws SQLException {
+        // Untimed pass over every term, so each variant starts with a warm cache and a planned statement
+        for (String term : TERMS) {
+            search.execute(connection, term);
+        }
+        long[] latencies = new long[runs * TERMS.length];
+        long rows = 0;
+        int n = 0;
+        for (int run = 0; run < runs; run++) {
+            for (String term : TERMS) {
+                long start = System.nanoTime();
+                rows += search.execute(connection, term);
+                latencies[n++] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%-36s %8d %8.1f %8.1f %10d%n", variant, latencies.length,
+            percentile(latencies, 0.50), percentile(latencies, 0.99), rows / latencies.length);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static int original(Connection connection, String term) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(ORIGINAL)) {
+            statement.setString(1, term);
+            statement.setString(2, term);
+            statement.setString(3, term);
+            return drain(statement);
+        }
+    }
+
+    // What InvoiceService.searchInvoices does for a first page: ranked ids, then this page's summaries
+    private static int ranked(Connection connection, String term) throws SQLException {
+        String escaped = term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        String prefix = escaped + "%";
+        String pattern = term.length() < 3 ? prefix : "%" + escaped + "%";
+
+        List<Long> ids = new ArrayList<>();
+        NamedQuery query = new NamedQuery(InvoiceRepository.SEARCH_MATCHES + InvoiceRepository.SEARCH_RANKING);
+        try (PreparedStatement statement = connection.prepareStatement(query.sql)) {
+            query.bind(statement, "term", term);
+            query.bind(statement, "pattern", pattern);
+            query.bind(statement, "prefix", prefix);
+            query.bind(statement, "limit", 51);
+            try (ResultSet results = statement.executeQuery()) {
+                while (results.next()) {
+                    ids.add(results.getLong("id"));
+                }
+            }
+        }
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(SUMMARIES)) {
+            Array array = connection.createArrayOf("bigint", ids.toArray());
+            statement.setArray(1, array);
+            return drain(statement);
+        }
+    }
+
+    private static int drain(PreparedStatement statement) throws SQLException {
+        int rows = 0;
+        try (ResultSet results = statement.executeQuery()) {
+            while (results.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private static void seed(Connection connection, int invoices) throws SQLException {
+        execute(connection, "CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        execute(connection, "CREATE SCHEMA IF NOT EXISTS " + SCHEMA);
+        execute(connection, "SET search_path TO " + SCHEMA + ", public");
+        execute(connection, "CREATE TABLE IF NOT EXISTS invoices (id bigint PRIMARY KEY, invoice_no varchar(50) NOT NULL, " +
+            "customer_name varchar(100) NOT NULL, customer_mobile varchar(15), invoice_date timestamp NOT NULL, " +
+            "total_amount numeric(10,2) NOT NULL, payment_status varchar(20) NOT NULL)");
+        execute(connection, "CREATE TABLE IF NOT EXISTS invoice_items (id bigint PRIMARY KEY, invoice_id bigint NOT NULL, " +
+            "item_name varchar(100) NOT NULL, quantity integer NOT NULL, unit_price numeric(10,2) NOT NULL, " +
+            "total_price numeric(10,2) NOT NULL)");
+
+        long existing;
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT COUNT(*) FROM invoices")) {
+            result.next();
+            existing = result.getLong(1);
+        }
+        if (existing == invoices) {
+            System.out.printf("Reusing %d invoices in schema %s%n", existing, SCHEMA);
+            return;
+        }
+
+        long start = System.nanoTime();
+        execute(connection, "TRUNCATE invoices, invoice_items");
+        execute(connection, "INSERT INTO invoices SELECT g, 'INV' || LPAD(g::text, 7, '0'), " +
+            "(ARRAY['" + String.join("','", FIRST_NAMES) + "'])[1 + (g * 7) % " + FIRST_NAMES.length + "] || ' ' || " +
+            "(ARRAY['" + String.join("','", LAST_NAMES) + "'])[1 + (g * 13 / 7) % " + LAST_NAMES.length + "], " +
+            "'9' || LPAD(((g * 7919) % 1000000000)::text, 9, '0'), " +
+            "TIMESTAMP '2020-01-01' + (g % 2000) * INTERVAL '1 day' + (g % 86400) * INTERVAL '1 second', " +
+            "(100 + g % 9900)::numeric / 1, (ARRAY['PAID','PENDING','OVERDUE'])[1 + g % 3] " +
+            "FROM generate_series(1::bigint, " + invoices + ") g");
+        execute(connection, "INSERT INTO invoice_items SELECT 2 * g - k, g, 'Item ' || (g % 500), 1 + k, 10.50, 12.39 " +
+            "FROM generate_series(1::bigint, " + invoices + ") g CROSS JOIN generate_series(0, 1) k");
+        execute(connection, "CREATE INDEX IF NOT EXISTS bench_invoice_items_invoice ON invoice_items (invoice_id)");
+        execute(connection, "VACUUM ANALYZE invoices");
+        execute(connection, "VACUUM ANALYZE invoice_items");
+        System.out.printf("Generated %d invoices with 2 items each in %.1f s%n", invoices, (System.nanoTime() - start) / 1e9);
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    // Runs a Spring Data native query through plain JDBC: each :name becomes a positional parameter
+    private static final class NamedQuery {
+        private static final Pattern PARAMETER = Pattern.compile(":(\\w+)");
+
+        private final String sql;
+        private final List<String> names = new ArrayList<>();
+
+        private NamedQuery(String sql) {
+            Matcher matcher = PARAMETER.matcher(sql);
+            StringBuilder positional = new StringBuilder();
+            while (matcher.find()) {
+                names.add(matcher.group(1));
+                matcher.appendReplacement(positional, "?");
+            }
+            matcher.appendTail(positional);
+            this.sql = positional.toString();
+        }
+
+        private void bind(PreparedStatement statement, String name, Object value) throws SQLException {
+            for (int i = 0; i < names.size(); i++) {
+                if (names.get(i).equals(name)) {
+                    statement.setObject(i + 1, value);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.customermanagement;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.customermanagement.dto.VendorInvoiceDTO;
+import com.example.customermanagement.model.Invoice;
+import com.example.customermanagement.service.InvoiceFixtures;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Jackson round trips of the invoice graphs the API returns, using the same builder Spring MVC uses
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"5", "50"})
+    public int lines;
+
+    private ObjectMapper objectMapper;
+    private Invoice invoice;
+    private VendorInvoiceDTO vendorInvoice;
+    private byte[] invoiceJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        invoice = InvoiceFixtures.invoice(lines);
+        vendorInvoice = InvoiceFixtures.vendorInvoiceDto(1, lines);
+        invoiceJson = objectMapper.writeValueAsBytes(invoice);
+    }
+
+    @Benchmark
+    public byte[] writeInvoice() throws IOException {
+        return objectMapper.writeValueAsBytes(invoice);
+    }
+
+    @Benchmark
+    public byte[] writeVendorInvoiceDto() throws IOException {
+        return objectMapper.writeValueAsBytes(vendorInvoice);
+    }
+
+    @Benchmark
+    public Invoice readInvoice() throws IOException {
+        return objectMapper.readValue(invoiceJson, Invoice.class);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.customermanagement;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Open-loop load test against a running server: requests are sent at a fixed
+ * rate regardless of how fast responses come back, and latency is measured
+ * from the moment each request was due, so a saturated server shows up as
+ * queueing rather than as a lower send rate. The rate steps up until a step
+ * misses the p99 target, sees more than 1% errors or cannot be sent on time;
+ * the last passing step is the maximum sustainable rate. Run the generator
+ * on a different machine from the server where possible; sharing CPUs with
+ * it understates the server.
+ *
+ * Run it once against a server started normally and once with
+ * VIRTUAL_THREADS_ENABLED=true to compare the two request modes.
+ * It needs nothing beyond the JDK:
+ *
+ *   mvn -P benchmarks test-compile
+ *   java -cp target/test-classes com.example.customermanagement.RequestLoadTest \
+ *     http://localhost:8080 /api/invoices/1,/api/customers/search?term=an
+ *
+ * Optional further arguments: start rate, step, max rate (requests/s),
+ * seconds per step, the p99 target in milliseconds and the seconds of
+ * untimed warm-up at the start rate (one step by default). On a small
+ * machine the JIT can still be compiling after one step; give it a minute
+ * or more before comparing servers.
+ */
+public final class RequestLoadTest {
+
+    private RequestLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        String[] paths = (args.length > 1 ? args[1] : "/api/invoices/1,/api/customers/search?term=an").split(",");
+        int startRate = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        int step = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+        int maxRate = args.length > 4 ? Integer.parseInt(args[4]) : 5000;
+        int stepSeconds = args.length > 5 ? Integer.parseInt(args[5]) : 15;
+        long p99TargetMillis = args.length > 6 ? Long.parseLong(args[6]) : 250;
+        int warmUpSeconds = args.length > 7 ? Integer.parseInt(args[7]) : stepSeconds;
+
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+        for (String path : paths) {
+            URI uri = URI.create(baseUrl + path);
+            // Untimed warm-up so the first step does not measure JIT compilation and connection setup
+            runStep(client, uri, startRate, warmUpSeconds);
+            System.out.printf("%n%s%n%8s %8s %8s %9s %9s %7s%n", uri, "target", "sent/s", "p50 ms", "p99 ms", "errors", "result");
+            int sustained = 0;
+            for (int rate = startRate; rate <= maxRate; rate += step) {
+                StepResult result = runStep(client, uri, rate, stepSeconds);
+                boolean pass = result.errorRate() <= 0.01 && result.p99Millis() <= p99TargetMillis
+                    && result.sentRate >= rate * 0.95;
+                System.out.printf("%8d %8.0f %8.1f %9.1f %8.2f%% %7s%n", rate, result.sentRate,
+                    result.percentileMillis(0.50), result.p99Millis(), result.errorRate() * 100, pass ? "ok" : "FAIL");
+                if (!pass) {
+                    break;
+                }
+                sustained = rate;
+            }
+            System.out.printf("max sustainable: %d requests/s (p99 <= %d ms, errors <= 1%%)%n", sustained, p99TargetMillis);
+        }
+    }
+
+    private static StepResult runStep(HttpClient client, URI uri, int rate, int seconds) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        int total = rate * seconds;
+        long intervalNanos = 1_000_000_000L / rate;
+        long[] latencies = new long[total];
+        AtomicLong errors = new AtomicLong();
+        List<CompletableFuture<?>> inFlight = new ArrayList<>(total);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long due = start + i * intervalNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            int slot = i;
+            inFlight.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    latencies[slot] = System.nanoTime() - due;
+                    if (failure != null || response.statusCode() >= 500) {
+                        errors.incrementAndGet();
+                    }
+                    return null;
+                }));
+        }
+        double sentRate = total / ((System.nanoTime() - start) / 1e9);
+        CompletableFuture.allOf(inFlight.toArray(new CompletableFuture<?>[0])).join();
+        return new StepResult(latencies, errors.get(), sentRate);
+    }
+
+    private static final class StepResult {
+        private final long[] sortedLatencies;
+        private final long errors;
+        private final double sentRate;
+
+        private StepResult(long[] latencies, long errors, double sentRate) {
+            this.sortedLatencies = latencies.clone();
+            Arrays.sort(this.sortedLatencies);
+            this.errors = errors;
+            this.sentRate = sentRate;
+        }
+
+        private double percentileMillis(double percentile) {
+            int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+        }
+
+        private double p99Millis() {
+            return percentileMillis(0.99);
+        }
+
+        private double errorRate() {
+            return (double) errors / sortedLatencies.length;
+        }
+    }
+}
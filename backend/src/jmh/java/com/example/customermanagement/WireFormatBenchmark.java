@@ -0,0 +1,95 @@
+package com.example.customermanagement;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.customermanagement.dto.VendorInvoiceDTO;
+import com.example.customermanagement.service.InvoiceFixtures;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Cost of each response encoding for the two big list endpoints: a 200-row
+ * GET /api/invoices page and 50 vendor invoices of 10 lines from
+ * GET /api/vendor-invoices. "indented" is the previous default; "json", "smile"
+ * and "cbor" are what content negotiation now serves. The *Gzip benchmarks add
+ * the compression Tomcat applies above server.compression.min-response-size.
+ * Payload sizes, raw and gzipped, are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"invoices", "vendor-invoices"})
+    public String endpoint;
+
+    @Param({"indented", "json", "smile", "cbor"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+    private Object body;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Same settings application.properties gives Spring's mapper
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .indentOutput(format.equals("indented"));
+        if (format.equals("smile")) {
+            builder.factory(new SmileFactory());
+        } else if (format.equals("cbor")) {
+            builder.factory(new CBORFactory());
+        }
+        objectMapper = builder.build();
+
+        if (endpoint.equals("invoices")) {
+            body = InvoiceFixtures.summaries(200);
+        } else {
+            List<VendorInvoiceDTO> invoices = new ArrayList<>(50);
+            for (int i = 1; i <= 50; i++) {
+                invoices.add(InvoiceFixtures.vendorInvoiceDto(i, 10));
+            }
+            body = invoices;
+        }
+
+        byte[] raw = serialize();
+        System.out.printf("%n%s/%s: %d bytes, %d gzipped%n", endpoint, format, raw.length, serializeGzip().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] serializeGzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, body);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.customermanagement.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.customermanagement.dto.VendorInvoiceDTO;
+import com.example.customermanagement.model.VendorInvoice;
+import com.example.customermanagement.service.InvoiceFixtures;
+
+// Entity <-> DTO mapping for one vendor invoice and for a 100 invoice list page
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VendorInvoiceMapperBenchmark {
+
+    private static final int LIST_SIZE = 100;
+
+    @Param({"5", "50"})
+    public int lines;
+
+    private final VendorInvoiceMapper mapper = new VendorInvoiceMapper();
+    private VendorInvoice entity;
+    private VendorInvoiceDTO dto;
+    private List<VendorInvoice> entities;
+
+    @Setup
+    public void setUp() {
+        entity = InvoiceFixtures.vendorInvoice(1, lines);
+        dto = InvoiceFixtures.vendorInvoiceDto(1, lines);
+        entities = new ArrayList<>(LIST_SIZE);
+        for (int i = 0; i < LIST_SIZE; i++) {
+            entities.add(InvoiceFixtures.vendorInvoice(i + 1, lines));
+        }
+    }
+
+    @Benchmark
+    public VendorInvoiceDTO toDTO() {
+        return mapper.toDTO(entity);
+    }
+
+    @Benchmark
+    public VendorInvoice toEntity() {
+        return mapper.toEntity(dto);
+    }
+
+    @Benchmark
+    public List<VendorInvoiceDTO> toDTOList() {
+        return mapper.toDTOList(entities);
+    }
+}
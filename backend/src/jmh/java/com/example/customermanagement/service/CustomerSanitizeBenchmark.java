@@ -0,0 +1,38 @@
+package com.example.customermanagement.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.customermanagement.model.Customer;
+
+// CustomerServiceImpl.sanitizeCustomerData on untrimmed input; each call sanitizes a fresh customer
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerSanitizeBenchmark {
+
+    @Benchmark
+    public Customer sanitizeCustomerData() {
+        Customer customer = new Customer("  Priya Sharma ", " Priya.Sharma@Example.COM ", "+91 98765-43210", " 12 MG Road, Bengaluru  ");
+        CustomerServiceImpl.sanitizeCustomerData(customer);
+        return customer;
+    }
+
+    // Allocation of the input alone, to subtract from the figure above
+    @Benchmark
+    public Customer baselineConstruct() {
+        return new Customer("  Priya Sharma ", " Priya.Sharma@Example.COM ", "+91 98765-43210", " 12 MG Road, Bengaluru  ");
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.customermanagement.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.customermanagement.dto.InvoiceSummary;
+import com.example.customermanagement.dto.VendorInvoiceDTO;
+import com.example.customermanagement.dto.VendorInvoiceItemDTO;
+import com.example.customermanagement.model.Invoice;
+import com.example.customermanagement.model.InvoiceItem;
+import com.example.customermanagement.model.VendorInvoice;
+import com.example.customermanagement.model.VendorInvoiceItem;
+
+// Deterministic sample data shared by the benchmarks
+public final class InvoiceFixtures {
+
+    private static final BigDecimal[] RATES = {
+        new BigDecimal("0"), new BigDecimal("2.5"), new BigDecimal("6"), new BigDecimal("9"), new BigDecimal("14")
+    };
+
+    private static final String[] CUSTOMERS = {
+        "Anita Rao", "Rahul Verma", "Priya Nair", "Mohammed Iqbal", "Kavya Reddy", "Suresh Kumar", "Deepa Menon"
+    };
+
+    private InvoiceFixtures() {
+    }
+
+    // A list page as the summary projection returns it, newest first
+    public static List<InvoiceSummary> summaries(int count) {
+        List<InvoiceSummary> page = new ArrayList<>(count);
+        LocalDateTime date = LocalDateTime.of(2026, 9, 30, 18, 0);
+        Invoice.PaymentStatus[] statuses = Invoice.PaymentStatus.values();
+        for (int i = 0; i < count; i++) {
+            page.add(new Summary((long) (100_000 - i), String.format("INV%06d", 100_000 - i),
+                CUSTOMERS[i % CUSTOMERS.length], String.valueOf(9_000_000_000L + i * 7919L),
+                date.minusMinutes(37L * i), new BigDecimal(String.format("%d.%02d", 150 + (i * 7331) % 48_000, i % 100)),
+                statuses[i % statuses.length]));
+        }
+        return page;
+    }
+
+    public static Invoice invoice(int lines) {
+        Invoice invoice = new Invoice();
+        invoice.setId(1L);
+        invoice.setInvoiceNo("INV000001");
+        invoice.setCustomerName("Bench Customer");
+        invoice.setCustomerMobile("9876543210");
+        invoice.setCustomerAddress("12 MG Road, Bengaluru");
+        invoice.setInvoiceDate(LocalDateTime.of(2026, 4, 1, 10, 30));
+        List<InvoiceItem> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            InvoiceItem item = new InvoiceItem();
+            item.setId((long) i + 1);
+            item.setItemName("Item " + i);
+            item.setItemDescription("Sample line " + i);
+            item.setQuantity(1 + i % 7);
+            item.setUnitPrice(new BigDecimal(String.format("%d.%02d", 10 + i % 490, i % 100)));
+            item.setCgstRate(RATES[i % RATES.length]);
+            item.setSgstRate(RATES[i % RATES.length]);
+            items.add(item);
+        }
+        invoice.setItems(items);
+        for (InvoiceItem item : items) {
+            InvoiceService.calculateItemTotals(item);
+        }
+        invoice.calculateTotalAmount();
+        return invoice;
+    }
+
+    public static VendorInvoice vendorInvoice(long id, int lines) {
+        VendorInvoice invoice = new VendorInvoice();
+        invoice.setId(id);
+        invoice.setInvoiceNo("VINV-" + id);
+        invoice.setVendorId(7L);
+        invoice.setVendorName("ABC Electronics");
+        invoice.setVendorAddress("123 Main Street, Mumbai");
+        invoice.setVendorPhone("9876543210");
+        invoice.setDateTime("01-04-2026 10:30");
+        invoice.setSubtotal(new BigDecimal("1000.00"));
+        invoice.setTotalTax(new BigDecimal("180.00"));
+        invoice.setGrandTotal(new BigDecimal("1180.00"));
+        List<VendorInvoiceItem> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            VendorInvoiceItem item = new VendorInvoiceItem();
+            item.setId(id * 1000 + i);
+            item.setVendorInvoice(invoice);
+            item.setProductId((long) i);
+            item.setProductName("Product " + i);
+            item.setCategory("Category " + i % 5);
+            item.setQuantity(1 + i % 7);
+            item.setUnitPrice(new BigDecimal("99.99"));
+            item.setCgstPercent(RATES[i % RATES.length]);
+            item.setSgstPercent(RATES[i % RATES.length]);
+            item.setTotal(new BigDecimal("117.99"));
+            items.add(item);
+        }
+        invoice.setItems(items);
+        return invoice;
+    }
+
+    public static VendorInvoiceDTO vendorInvoiceDto(long id, int lines) {
+        VendorInvoiceDTO dto = new VendorInvoiceDTO();
+        dto.setId(id);
+        dto.setInvoiceNo("VINV-" + id);
+        dto.setVendorId(7L);
+        dto.setVendorName("ABC Electronics");
+        dto.setVendorAddress("123 Main Street, Mumbai");
+        dto.setVendorPhone("9876543210");
+        dto.setDateTime("01-04-2026 10:30");
+        dto.setSubtotal(new BigDecimal("1000.00"));
+        dto.setTotalTax(new BigDecimal("180.00"));
+        dto.setGrandTotal(new BigDecimal("1180.00"));
+        dto.setCreatedAt(LocalDateTime.of(2026, 4, 1, 10, 30));
+        dto.setUpdatedAt(LocalDateTime.of(2026, 4, 1, 10, 30));
+        List<VendorInvoiceItemDTO> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            VendorInvoiceItemDTO item = new VendorInvoiceItemDTO();
+            item.setId(id * 1000 + i);
+            item.setProductId((long) i);
+            item.setProductName("Product " + i);
+            item.setCategory("Category " + i % 5);
+            item.setQuantity(1 + i % 7);
+            item.setUnitPrice(new BigDecimal("99.99"));
+            item.setCgstPercent(RATES[i % RATES.length]);
+            item.setSgstPercent(RATES[i % RATES.length]);
+            item.setTotal(new BigDecimal("117.99"));
+            items.add(item);
+        }
+        dto.setItems(items);
+        return dto;
+    }
+
+    private static final class Summary implements InvoiceSummary {
+        private final Long id;
+        private final String invoiceNo;
+        private final String customerName;
+        private final String customerMobile;
+        private final LocalDateTime invoiceDate;
+        private final BigDecimal totalAmount;
+        private final Invoice.PaymentStatus paymentStatus;
+
+        private Summary(Long id, String invoiceNo, String customerName, String customerMobile,
+                        LocalDateTime invoiceDate, BigDecimal totalAmount, Invoice.PaymentStatus paymentStatus) {
+            this.id = id;
+            this.invoiceNo = invoiceNo;
+            this.customerName = customerName;
+            this.customerMobile = customerMobile;
+            this.invoiceDate = invoiceDate;
+            this.totalAmount = totalAmount;
+            this.paymentStatus = paymentStatus;
+        }
+
+        @Override public Long getId() { return id; }
+        @Override public String getInvoiceNo() { return invoiceNo; }
+        @Override public String getCustomerName() { return customerName; }
+        @Override public String getCustomerMobile() { return customerMobile; }
+        @Override public LocalDateTime getInvoiceDate() { return invoiceDate; }
+        @Override public BigDecimal getTotalAmount() { return totalAmount; }
+        @Override public Invoice.PaymentStatus getPaymentStatus() { return paymentStatus; }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.customermanagement.service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Block allocator hot path; the database reservation is replaced by an in-memory counter
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvoiceNumberAllocatorBenchmark {
+
+    @Param({"50", "1000"})
+    public int blockSize;
+
+    @Param({"false", "true"})
+    public boolean financialYearSeries;
+
+    private static final int NODES = 3;
+
+    private InvoiceNumberAllocator allocator;
+    private InvoiceNumberAllocator[] nodes;
+    private final LocalDate invoiceDate = LocalDate.of(2026, 10, 17);
+
+    @Setup
+    public void setUp() {
+        AtomicLong next = new AtomicLong(1);
+        allocator = new InvoiceNumberAllocator("INV", blockSize, financialYearSeries,
+            (seriesKey, size) -> next.getAndAdd(size));
+
+        SeriesRow row = new SeriesRow(200);
+        nodes = new InvoiceNumberAllocator[NODES];
+        for (int i = 0; i < NODES; i++) {
+            nodes[i] = new InvoiceNumberAllocator("INV", blockSize, financialYearSeries, row::reserve);
+        }
+    }
+
+    @Benchmark
+    public String nextInvoiceNumber() {
+        return allocator.nextInvoiceNumber(invoiceDate);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String nextInvoiceNumberContended() {
+        return allocator.nextInvoiceNumber(invoiceDate);
+    }
+
+    // Three nodes of eight threads each, reserving blocks from one row-locked series row
+    @Benchmark
+    @Threads(24)
+    public String nextInvoiceNumberAcrossNodes(Node node) {
+        return nodes[node.index].nextInvoiceNumber(invoiceDate);
+    }
+
+    @State(Scope.Thread)
+    public static class Node {
+        private static final AtomicInteger threads = new AtomicInteger();
+
+        int index;
+
+        @Setup
+        public void setUp() {
+            index = threads.getAndIncrement() % NODES;
+        }
+    }
+
+    private static final class SeriesRow {
+        private final ReentrantLock rowLock = new ReentrantLock();
+        private final Map<String, Long> next = new HashMap<>();
+        private final long roundTripNanos;
+
+        private SeriesRow(int roundTripMicros) {
+            this.roundTripNanos = TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+        }
+
+        private long reserve(String seriesKey, int blockSize) {
+            rowLock.lock();
+            try {
+                LockSupport.parkNanos(roundTripNanos);
+                long start = next.getOrDefault(seriesKey, 1L);
+                next.put(seriesKey, start + blockSize);
+                return start;
+            } finally {
+                rowLock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.customermanagement.service;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.customermanagement.model.Invoice;
+import com.example.customermanagement.model.InvoiceItem;
+
+// Invoice pricing and validation on 1, 50 and 500 line invoices
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvoicePricingBenchmark {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    @Param({"1", "50", "500"})
+    public int lines;
+
+    private Invoice invoice;
+    private InvoiceService invoiceService;
+
+    @Setup
+    public void setUp() {
+        invoice = InvoiceFixtures.invoice(lines);
+        invoiceService = new InvoiceService();
+    }
+
+    // Per-line pricing as done by InvoiceService.calculateItemTotals
+    @Benchmark
+    public long calculateItemTotals() {
+        long total = 0;
+        for (InvoiceItem item : invoice.getItems()) {
+            total += InvoiceService.calculateItemTotals(item);
+        }
+        return total;
+    }
+
+    // Full create-path pricing: every line once, running total, then validateForPersistence
+    @Benchmark
+    public BigDecimal priceForPersistence() {
+        invoiceService.priceForPersistence(invoice);
+        return invoice.getTotalAmount();
+    }
+
+    @Benchmark
+    public BigDecimal calculateTotalAmount() {
+        invoice.calculateTotalAmount();
+        return invoice.getTotalAmount();
+    }
+
+    @Benchmark
+    public Invoice validateForPersistence() {
+        invoice.validateForPersistence();
+        return invoice;
+    }
+
+    // The BigDecimal math used before the fixed-point engine, kept as a baseline
+    @Benchmark
+    public BigDecimal legacyBigDecimalPricing() {
+        BigDecimal invoiceTotal = BigDecimal.ZERO;
+        for (InvoiceItem item : invoice.getItems()) {
+            BigDecimal subtotal = item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+            BigDecimal cgst = subtotal.multiply(item.getCgstRate()).divide(HUNDRED);
+            BigDecimal sgst = subtotal.multiply(item.getSgstRate()).divide(HUNDRED);
+            invoiceTotal = invoiceTotal.add(subtotal.add(cgst.add(sgst)));
+        }
+        return invoiceTotal;
+    }
+}
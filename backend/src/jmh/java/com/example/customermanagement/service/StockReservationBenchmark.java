@@ -0,0 +1,85 @@
+package com.example.customermanagement.service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// 64 sellers of one product. The stock pool is an in-memory row: a lock held for a simulated statement
+// round trip per claim, as products.stock_available is. quantum=1 is a conditional decrement per sale.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockReservationBenchmark {
+
+    private static final Long PRODUCT_ID = 1L;
+
+    @Param({"1", "10", "50"})
+    public int quantum;
+
+    @Param({"100"})
+    public int roundTripMicros;
+
+    private StockReservations reservations;
+
+    @Setup
+    public void setUp() {
+        reservations = new StockReservations(quantum, 4, Duration.ofMillis(10), new InMemoryRow(roundTripMicros));
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void reserveHotProduct() {
+        reservations.reserve(PRODUCT_ID, 1);
+    }
+
+    private static final class InMemoryRow implements StockReservations.StockSource {
+        private final ReentrantLock rowLock = new ReentrantLock();
+        private final long roundTripNanos;
+        private long available = Long.MAX_VALUE / 2;
+
+        private InMemoryRow(int roundTripMicros) {
+            this.roundTripNanos = TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+        }
+
+        @Override
+        public long claim(Long productId, long need, long want) {
+            rowLock.lock();
+            try {
+                LockSupport.parkNanos(roundTripNanos);
+                long taken = available >= want ? want : available >= need ? need : 0;
+                available -= taken;
+                return taken;
+            } finally {
+                rowLock.unlock();
+            }
+        }
+
+        @Override
+        public void release(Long productId, long units) {
+            rowLock.lock();
+            try {
+                LockSupport.parkNanos(roundTripNanos);
+                available += units;
+            } finally {
+                rowLock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.customermanagement.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * Collects HikariCP pool telemetry: live pool gauges plus a fixed-bucket
+ * histogram of how long callers waited to borrow a connection. Every event is
+ * also forwarded to the delegate factory, which publishes Hikari's standard
+ * hikaricp.* meters; Boot only installs those when no tracker factory is set.
+ */
+@Component
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+    // Upper bounds (microseconds) of the acquire-time histogram buckets; the last bucket is open ended
+    private static final long[] ACQUIRE_BUCKETS_MICROS = {
+        100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000,
+        100_000, 250_000, 500_000, 1_000_000, 2_500_000, 5_000_000
+    };
+
+    private final AtomicLongArray acquireBuckets = new AtomicLongArray(ACQUIRE_BUCKETS_MICROS.length + 1);
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireTotalNanos = new LongAdder();
+    private final LongAdder usageCount = new LongAdder();
+    private final LongAdder usageTotalMillis = new LongAdder();
+    private final LongAdder connectionsCreated = new LongAdder();
+    private final LongAdder connectionTimeouts = new LongAdder();
+
+    private volatile String poolName;
+    private volatile PoolStats poolStats;
+    private volatile MetricsTrackerFactory delegate;
+
+    // Must be set before the pool starts
+    public void setDelegate(MetricsTrackerFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        this.poolStats = poolStats;
+        MetricsTrackerFactory factory = delegate;
+        return new Tracker(factory != null ? factory.create(poolName, poolStats) : null);
+    }
+
+    public long getActiveConnections() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getActiveConnections() : 0;
+    }
+
+    public long getIdleConnections() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getIdleConnections() : 0;
+    }
+
+    public long getPendingThreads() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getPendingThreads() : 0;
+    }
+
+    public long getAcquireCount() {
+        return acquireCount.sum();
+    }
+
+    public long getAcquireTotalNanos() {
+        return acquireTotalNanos.sum();
+    }
+
+    public long getConnectionTimeouts() {
+        return connectionTimeouts.sum();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("poolName", poolName);
+
+        PoolStats stats = poolStats;
+        if (stats != null) {
+            snapshot.put("activeConnections", stats.getActiveConnections());
+            snapshot.put("idleConnections", stats.getIdleConnections());
+            snapshot.put("totalConnections", stats.getTotalConnections());
+            snapshot.put("pendingThreads", stats.getPendingThreads());
+            snapshot.put("maxConnections", stats.getMaxConnections());
+            snapshot.put("minConnections", stats.getMinConnections());
+        }
+
+        long acquired = acquireCount.sum();
+        snapshot.put("acquireCount", acquired);
+        snapshot.put("acquireMeanMicros", acquired > 0
+            ? TimeUnit.NANOSECONDS.toMicros(acquireTotalNanos.sum() / acquired) : 0);
+        snapshot.put("acquireHistogramMicros", acquireHistogram());
+
+        long used = usageCount.sum();
+        snapshot.put("usageMeanMillis", used > 0 ? usageTotalMillis.sum() / used : 0);
+        snapshot.put("connectionsCreated", connectionsCreated.sum());
+        snapshot.put("connectionTimeouts", connectionTimeouts.sum());
+        return snapshot;
+    }
+
+    private Map<String, Long> acquireHistogram() {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < ACQUIRE_BUCKETS_MICROS.length; i++) {
+            histogram.put("le_" + ACQUIRE_BUCKETS_MICROS[i], acquireBuckets.get(i));
+        }
+        histogram.put("le_inf", acquireBuckets.get(ACQUIRE_BUCKETS_MICROS.length));
+        return histogram;
+    }
+
+    private static int bucketFor(long micros) {
+        for (int i = 0; i < ACQUIRE_BUCKETS_MICROS.length; i++) {
+            if (micros <= ACQUIRE_BUCKETS_MICROS[i]) {
+                return i;
+            }
+        }
+        return ACQUIRE_BUCKETS_MICROS.length;
+    }
+
+    private class Tracker implements IMetricsTracker {
+
+        private final IMetricsTracker delegate;
+
+        private Tracker(IMetricsTracker delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquireCount.increment();
+            acquireTotalNanos.add(elapsedAcquiredNanos);
+            acquireBuckets.incrementAndGet(bucketFor(TimeUnit.NANOSECONDS.toMicros(elapsedAcquiredNanos)));
+            if (delegate != null) {
+                delegate.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+            }
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usageCount.increment();
+            usageTotalMillis.add(elapsedBorrowedMillis);
+            if (delegate != null) {
+                delegate.recordConnectionUsageMillis(elapsedBorrowedMillis);
+            }
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            connectionsCreated.increment();
+            if (delegate != null) {
+                delegate.recordConnectionCreatedMillis(connectionCreatedMillis);
+            }
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            connectionTimeouts.increment();
+            if (delegate != null) {
+                delegate.recordConnectionTimeout();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (delegate != null) {
+                delegate.close();
+            }
+        }
+    }
+}
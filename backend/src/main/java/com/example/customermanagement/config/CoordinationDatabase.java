@@ -0,0 +1,86 @@
+package com.example.customermanagement.config;
+
+import java.sql.SQLException;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import javax.sql.DataSource;
+
+/**
+ * A small connection pool of its own for the short statements that hand out
+ * shared counters (invoice number blocks, stock claims). Those run while the
+ * caller's invoice transaction already holds a connection from the main pool,
+ * and other threads wanting the same counter wait on an in-memory lock
+ * holding theirs; taking the second connection from the main pool as well
+ * could exhaust it, leaving every waiter stuck until the connection timeout.
+ * Connections here are never held across anything but one short transaction,
+ * so they are always available within a round trip or two, and what runs on
+ * them commits independently of the caller's transaction.
+ *
+ * Not exposed as a DataSource bean, so Boot's JPA, JdbcTemplate and
+ * transaction auto-configuration keep using the main pool alone.
+ */
+@Component
+public class CoordinationDatabase {
+
+    @Value("${app.datasource.coordination.pool-size:4}")
+    private int poolSize;
+
+    @Value("${app.datasource.coordination.connection-timeout:PT5S}")
+    private Duration connectionTimeout;
+
+    // The main pool's settings are the starting point; it is already configured with url and credentials
+    @Autowired
+    private DataSource mainDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void start() throws SQLException {
+        HikariDataSource main = mainDataSource.unwrap(HikariDataSource.class);
+        HikariConfig config = new HikariConfig();
+        main.copyStateTo(config);
+        config.setPoolName(main.getPoolName() + "-coordination");
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(1);
+        config.setConnectionTimeout(connectionTimeout.toMillis());
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        dataSource = new HikariDataSource(config);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @PreDestroy
+    public void stop() {
+        dataSource.close();
+    }
+
+    public JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    // A transaction on this pool; independent of, and never joined to, a transaction on the main pool
+    public TransactionTemplate getTransactionTemplate() {
+        return transactionTemplate;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.customermanagement.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.customermanagement.repository.CustomerTotalsRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Sets invoices.customer_id on invoices that have none, matching the
+ * invoice's mobile number (normalised as in
+ * CustomerHistoryService.normalizePhone) against customer phones. Runs in
+ * the background after every startup, on a thread of its own while the
+ * application serves requests, so invoices whose customer was added since
+ * are picked up too. Rows are walked in id order a chunk at a time; each
+ * chunk links its invoices and adds them to customer_totals in one statement
+ * and its own short transaction, with a pause between chunks. Linking bumps
+ * the invoice version, so an edit based on the unlinked row fails its
+ * optimistic lock instead of dropping the link, and updated_at, so
+ * conditional GETs and cached PDFs pick up the linked invoice. The
+ * customer_totals rows are updated in customer id order, like invoice
+ * writes do; a chunk that still loses a deadlock or serialization conflict
+ * to one of them is retried, and after the last attempt left for the next
+ * startup, while the backfill moves on.
+ */
+@Component
+public class CustomerInvoiceBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerInvoiceBackfill.class);
+
+    private static final String LINK_CHUNK =
+        "WITH linked AS (" +
+        "UPDATE invoices i SET customer_id = c.id, version = i.version + 1, updated_at = now() FROM customers c " +
+        "WHERE i.id = ANY(?::bigint[]) AND i.customer_id IS NULL " +
+        "AND c.phone = RIGHT(regexp_replace(i.customer_mobile, '[^0-9]', '', 'g'), 10) " +
+        "RETURNING i.customer_id, i.invoice_date, i.payment_status, i.total_amount), " +
+        "totals AS (" +
+        "INSERT INTO customer_totals (customer_id, invoice_count, lifetime_value, outstanding_balance, last_invoice_date) " +
+        "SELECT customer_id, COUNT(*), SUM(" + CustomerTotalsRepository.LIFETIME_VALUE + "), " +
+        "SUM(" + CustomerTotalsRepository.OUTSTANDING + "), MAX(invoice_date) FROM linked GROUP BY customer_id " +
+        "ORDER BY customer_id " +
+        "ON CONFLICT (customer_id) DO UPDATE SET " +
+        "invoice_count = customer_totals.invoice_count + EXCLUDED.invoice_count, " +
+        "lifetime_value = customer_totals.lifetime_value + EXCLUDED.lifetime_value, " +
+        "outstanding_balance = customer_totals.outstanding_balance + EXCLUDED.outstanding_balance, " +
+        "last_invoice_date = GREATEST(customer_totals.last_invoice_date, EXCLUDED.last_invoice_date)) " +
+        "SELECT COUNT(*) FROM linked";
+
+    @Value("${app.customer.link-backfill.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.customer.link-backfill.pause:PT0.05S}")
+    private Duration pause;
+
+    @Value("${app.customer.link-backfill.max-attempts:5}")
+    private int maxAttempts;
+
+    // Doubled after each failed attempt of a chunk
+    @Value("${app.customer.link-backfill.retry-backoff:PT0.1S}")
+    private Duration retryBackoff;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private ExecutorService worker;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "customer-link-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        worker.execute(this::backfill);
+        worker.shutdown();
+    }
+
+    // Interrupts the pause between chunks, so shutdown does not wait for the rest of the table
+    @PreDestroy
+    public void stop() {
+        if (worker != null) {
+            worker.shutdownNow();
+        }
+    }
+
+    void backfill() {
+        long lastId = 0;
+        long scanned = 0;
+        long linked = 0;
+        try {
+            while (true) {
+                List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM invoices WHERE id > ? AND customer_id IS NULL AND customer_mobile IS NOT NULL " +
+                    "ORDER BY id LIMIT ?", Long.class, lastId, chunkSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+
+                linked += linkWithRetry(ids);
+                scanned += ids.size();
+                lastId = ids.get(ids.size() - 1);
+                if (ids.size() < chunkSize) {
+                    break;
+                }
+                Thread.sleep(pause.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Customer invoice link backfill stopped after id {}: {}", lastId, e.getMessage());
+        }
+        if (scanned > 0) {
+            log.info("Linked {} of {} unlinked invoices to customers by mobile number", linked, scanned);
+        }
+    }
+
+    // Linking is idempotent (customer_id IS NULL), so a rolled-back chunk is simply run again
+    private long linkWithRetry(List<Long> ids) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Long chunkLinked = transactionTemplate.execute(status ->
+                    jdbcTemplate.queryForObject(LINK_CHUNK, Long.class, (Object) ids.toArray(new Long[0])));
+                return chunkLinked != null ? chunkLinked : 0;
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("Customer invoice link backfill skipped ids {} to {} after {} attempts: {}",
+                        ids.get(0), ids.get(ids.size() - 1), attempt, e.getMessage());
+                    return 0;
+                }
+                // Full jitter, so the retry does not meet the same invoice writes again in lockstep
+                long ceiling = retryBackoff.toMillis() << (attempt - 1);
+                Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.customermanagement.config;
+
+import java.util.Map;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.customermanagement.service.InvoiceStatisticsCache;
+import com.example.customermanagement.service.ProductCatalog;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// Publishes the counters our own components already keep, next to the JVM, Hikari and Hibernate meters
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder applicationCacheMetrics(InvoiceStatisticsCache invoiceStatisticsCache, ProductCatalog productCatalog,
+                                               ThreadingDiagnostics threadingDiagnostics) {
+        return registry -> {
+            FunctionCounter.builder("invoice.stats.cache.requests", invoiceStatisticsCache, InvoiceStatisticsCache::getHits)
+                .description("Invoice statistics requests by cache outcome")
+                .tag("result", "hit")
+                .register(registry);
+            FunctionCounter.builder("invoice.stats.cache.requests", invoiceStatisticsCache, InvoiceStatisticsCache::getMisses)
+                .description("Invoice statistics requests by cache outcome")
+                .tag("result", "miss")
+                .register(registry);
+
+            // Read from stats() so a scrape never triggers a catalog reload
+            Gauge.builder("product.catalog.products", productCatalog, catalog -> statValue(catalog.stats(), "products"))
+                .description("Products held in the in-memory catalog")
+                .register(registry);
+            FunctionCounter.builder("product.catalog.rebuilds", productCatalog, catalog -> statValue(catalog.stats(), "rebuilds"))
+                .description("Catalog snapshots built")
+                .register(registry);
+
+            FunctionCounter.builder("jvm.threads.virtual.pinned", threadingDiagnostics, ThreadingDiagnostics::getPinnedEvents)
+                .description("Virtual threads pinned to their carrier for longer than app.threads.pinned-threshold")
+                .register(registry);
+        };
+    }
+
+    private static double statValue(Map<String, Object> stats, String key) {
+        Object value = stats.get(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+}
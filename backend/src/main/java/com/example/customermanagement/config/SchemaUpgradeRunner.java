@@ -0,0 +1,107 @@
+package com.example.customermanagement.config;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.customermanagement.repository.StockMovementRepository;
+
+/**
+ * Idempotent schema adjustments that ddl-auto=update cannot express. Each
+ * statement is safe to re-run on every start; a failure is logged and the
+ * remaining statements still run. Quick fixups that requests depend on run
+ * before the web server starts; concurrent index builds and constraint
+ * validation run after, while the application is already serving.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SchemaUpgradeRunner implements SmartInitializingSingleton, ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaUpgradeRunner.class);
+
+    // Run before the web server starts: requests must never see these unapplied
+    private static final List<String> BEFORE_SERVING = List.of(
+        // Tables created under IDENTITY already hold ids; move the pooled sequences past them.
+        // The +50 leaves room for a block a pooled optimizer may already hold.
+        "SELECT setval('invoices_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM invoices) + 50, " +
+            "(SELECT last_value FROM invoices_seq)))",
+        "SELECT setval('invoice_items_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM invoice_items) + 50, " +
+            "(SELECT last_value FROM invoice_items_seq)))",
+        // The stock snapshot's high-water mark column, numbered as each movement is inserted
+        "CREATE SEQUENCE IF NOT EXISTS stock_movements_ledger_seq",
+        "ALTER TABLE stock_movements ALTER COLUMN ledger_seq SET DEFAULT nextval('stock_movements_ledger_seq')",
+        // Opens the reservation pool of products that have none yet at their ledger balance; a no-op once set.
+        // Before serving, or a purchase could set the column first and the ledger balance would never be added.
+        "UPDATE products p SET stock_available = COALESCE((SELECT SUM(l.quantity) FROM (" +
+            "SELECT b.on_hand AS quantity FROM stock_balances b WHERE b.product_id = p.id " +
+            "UNION ALL SELECT m.quantity FROM stock_movements m WHERE m.product_id = p.id " +
+            "AND m.ledger_seq > " + StockMovementRepository.FOLDED_THROUGH + ") l), 0) " +
+            "WHERE p.stock_available IS NULL",
+        // Invoice to customer link. Added NOT VALID so existing rows are not checked under a write-blocking
+        // lock; VALIDATE below then checks them holding a lock that lets writes through.
+        "DO $$ BEGIN IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_invoices_customer') THEN " +
+            "ALTER TABLE invoices ADD CONSTRAINT fk_invoices_customer FOREIGN KEY (customer_id) " +
+            "REFERENCES customers (id) ON DELETE SET NULL NOT VALID; END IF; END $$",
+        "DO $$ BEGIN IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_customer_totals_customer') THEN " +
+            "ALTER TABLE customer_totals ADD CONSTRAINT fk_customer_totals_customer FOREIGN KEY (customer_id) " +
+            "REFERENCES customers (id) ON DELETE CASCADE; END IF; END $$"
+    );
+
+    // Long-running but non-blocking; run once the application is serving
+    private static final List<String> AFTER_START = List.of(
+        // Trigram indexes make the invoice search's '%term%' filters indexable
+        "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+        "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_invoices_invoice_no_trgm ON invoices USING gin (LOWER(invoice_no) gin_trgm_ops)",
+        "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_invoices_customer_name_trgm ON invoices USING gin (LOWER(customer_name) gin_trgm_ops)",
+        "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_invoices_customer_mobile_trgm ON invoices USING gin (customer_mobile gin_trgm_ops)",
+        // max(updated_at) behind the invoice list ETag
+        "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_invoices_updated_at ON invoices (updated_at)",
+        // Range scans for vendor invoice date filters and purchase aggregations. B-tree rather than
+        // BRIN: purchases are often entered late, so dates do not follow the physical row order.
+        "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_vendor_invoices_invoice_timestamp ON vendor_invoices (invoice_timestamp)",
+        // The ledger tail above the stock snapshot's high-water mark
+        "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_stock_movements_ledger_seq ON stock_movements (ledger_seq)",
+        // Vendor keys were only checked in code; the indexes make the database the final arbiter. Fails
+        // (and is logged) while duplicates exist; drop the invalid index left behind and rerun once cleaned.
+        "CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uq_vendors_email ON vendors (email)",
+        "CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uq_vendors_phone ON vendors (phone)",
+        "CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uq_vendors_gst_number ON vendors (gst_number)",
+        // A no-op once valid
+        "ALTER TABLE invoices VALIDATE CONSTRAINT fk_invoices_customer",
+        // A customer's recent invoices and the last invoice date behind customer_totals
+        "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_invoices_customer_date ON invoices (customer_id, invoice_date DESC, id DESC)"
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // After every singleton, so Hibernate's ddl-auto has run, and before the web server is started
+    @Override
+    public void afterSingletonsInstantiated() {
+        execute(BEFORE_SERVING);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        execute(AFTER_START);
+    }
+
+    private void execute(List<String> statements) {
+        for (String statement : statements) {
+            try {
+                jdbcTemplate.execute(statement);
+            } catch (Exception e) {
+                log.warn("Schema upgrade statement failed: {} ({})", statement, e.getMessage());
+            }
+        }
+    }
+}
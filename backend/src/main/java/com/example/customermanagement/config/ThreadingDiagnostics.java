@@ -0,0 +1,148 @@
+package com.example.customermanagement.config;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariConfig;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Reports which request execution mode is in effect and what bounds it.
+ * With spring.threads.virtual.enabled, Tomcat and the application task
+ * executor run on virtual threads, request concurrency is no longer capped
+ * by the Tomcat pool, and the Hikari pool becomes the queue in front of the
+ * database. In that mode a JFR stream counts
+ * jdk.VirtualThreadPinned events (a virtual thread blocking while it holds a
+ * monitor, typically synchronized code in a driver) and records where they happen.
+ */
+@Component
+public class ThreadingDiagnostics {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingDiagnostics.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_PINNED_SITES = 50;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsRequested;
+
+    @Value("${server.tomcat.threads.max:200}")
+    private int tomcatMaxThreads;
+
+    @Value("${app.threads.pinned-threshold:PT0.02S}")
+    private Duration pinnedThreshold;
+
+    @Autowired
+    private HikariConfig hikariConfig;
+
+    private final LongAdder pinnedEvents = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+    private final Map<String, LongAdder> pinnedSites = new ConcurrentHashMap<>();
+
+    private volatile RecordingStream pinnedStream;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        if (!isVirtualThreadsActive()) {
+            log.info("Requests run on platform threads: at most {} in flight, database pool of {}",
+                tomcatMaxThreads, hikariConfig.getMaximumPoolSize());
+            return;
+        }
+
+        log.info("Requests run on virtual threads: in-flight requests are unbounded and queue for one of {} "
+            + "database connections for up to {} ms", hikariConfig.getMaximumPoolSize(), hikariConfig.getConnectionTimeout());
+        try {
+            RecordingStream stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(pinnedThreshold).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::recordPinned);
+            stream.startAsync();
+            pinnedStream = stream;
+        } catch (Exception e) {
+            log.warn("Pinned virtual thread tracking unavailable: {}", e.getMessage());
+        }
+    }
+
+    public boolean isVirtualThreadsActive() {
+        return virtualThreadsRequested;
+    }
+
+    public long getPinnedEvents() {
+        return pinnedEvents.sum();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("javaVersion", Runtime.version().toString());
+        snapshot.put("virtualThreadsRequested", virtualThreadsRequested);
+        snapshot.put("virtualThreads", isVirtualThreadsActive());
+        snapshot.put("tomcatMaxThreads", isVirtualThreadsActive() ? null : tomcatMaxThreads);
+        snapshot.put("databasePoolSize", hikariConfig.getMaximumPoolSize());
+        snapshot.put("connectionTimeoutMillis", hikariConfig.getConnectionTimeout());
+        snapshot.put("pinnedTracking", pinnedStream != null);
+        snapshot.put("pinnedThresholdMillis", pinnedThreshold.toMillis());
+        snapshot.put("pinnedEvents", pinnedEvents.sum());
+        snapshot.put("pinnedMillis", pinnedNanos.sum() / 1_000_000.0);
+
+        Map<String, Long> sites = new LinkedHashMap<>();
+        pinnedSites.entrySet().stream()
+            .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> e) -> e.getValue().sum()).reversed())
+            .limit(10)
+            .forEach(e -> sites.put(e.getKey(), e.getValue().sum()));
+        snapshot.put("pinnedSites", sites);
+        return snapshot;
+    }
+
+    @PreDestroy
+    public void close() {
+        RecordingStream stream = pinnedStream;
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void recordPinned(RecordedEvent event) {
+        pinnedEvents.increment();
+        pinnedNanos.add(event.getDuration().toNanos());
+        String site = pinnedSite(event.getStackTrace());
+        // Bounded so an unexpected source of pinning cannot grow the map without limit
+        if (pinnedSites.containsKey(site) || pinnedSites.size() < MAX_PINNED_SITES) {
+            pinnedSites.computeIfAbsent(site, key -> new LongAdder()).increment();
+        }
+    }
+
+    // First frame outside the JDK: the driver or application code that blocked while holding a monitor
+    private static String pinnedSite(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        for (RecordedFrame frame : frames) {
+            if (frame.getMethod() == null) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return "jdk";
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.customermanagement.config;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.customermanagement.model.VendorInvoice;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fills vendor_invoices.invoice_timestamp for rows written before the column
+ * existed. Runs after startup on a thread of its own, so other ready
+ * listeners are not held up, while the application serves requests: rows are
+ * walked in id order, a chunk at a time, each chunk in its own short
+ * transaction so only that chunk's rows are locked, with a pause between
+ * chunks. Dates are parsed with the same rules as new writes; rows whose
+ * date_time is not recognised stay null and are counted in the log.
+ */
+@Component
+public class VendorInvoiceTimestampBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(VendorInvoiceTimestampBackfill.class);
+
+    @Value("${app.vendor.timestamp-backfill.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.vendor.timestamp-backfill.pause:PT0.05S}")
+    private Duration pause;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private ExecutorService worker;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "vendor-timestamp-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        worker.execute(this::backfill);
+        worker.shutdown();
+    }
+
+    // Interrupts the pause between chunks, so shutdown does not wait for the rest of the table
+    @PreDestroy
+    public void stop() {
+        if (worker != null) {
+            worker.shutdownNow();
+        }
+    }
+
+    void backfill() {
+        long lastId = 0;
+        long updated = 0;
+        long unparseable = 0;
+        try {
+            while (true) {
+                long after = lastId;
+                List<Object[]> rows = jdbcTemplate.query(
+                    "SELECT id, date_time FROM vendor_invoices WHERE id > ? AND invoice_timestamp IS NULL ORDER BY id LIMIT ?",
+                    (rs, rowNum) -> new Object[] { rs.getLong(1), rs.getString(2) }, after, chunkSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+
+                List<Object[]> parsed = new ArrayList<>(rows.size());
+                for (Object[] row : rows) {
+                    LocalDateTime timestamp = VendorInvoice.parseDateTime((String) row[1]);
+                    if (timestamp != null) {
+                        parsed.add(new Object[] { timestamp, row[0] });
+                    } else {
+                        unparseable++;
+                    }
+                }
+                if (!parsed.isEmpty()) {
+                    // IS NULL again: a concurrent update through the entity has already set a fresher value
+                    transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                        "UPDATE vendor_invoices SET invoice_timestamp = ? WHERE id = ? AND invoice_timestamp IS NULL", parsed));
+                    updated += parsed.size();
+                }
+                lastId = (Long) rows.get(rows.size() - 1)[0];
+                if (rows.size() < chunkSize) {
+                    break;
+                }
+                Thread.sleep(pause.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Vendor invoice timestamp backfill stopped after id {}: {}", lastId, e.getMessage());
+        }
+        if (updated > 0 || unparseable > 0) {
+            log.info("Backfilled invoice_timestamp on {} vendor invoices; {} have an unrecognised date_time",
+                updated, unparseable);
+        }
+    }
+}
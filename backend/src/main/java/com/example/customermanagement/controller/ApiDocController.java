@@ -3,14 +3,28 @@ package com.example.customermanagement.controller;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.customermanagement.config.ConnectionPoolMetrics;
+import com.example.customermanagement.config.ThreadingDiagnostics;
+
 @RestController
 @RequestMapping("/api")
 public class ApiDocController {
 
+    @Autowired
+    private ConnectionPoolMetrics connectionPoolMetrics;
+
+    @Autowired
+    private ThreadingDiagnostics threadingDiagnostics;
+
+    @Autowired
+    private HealthEndpoint healthEndpoint;
+
     @GetMapping("/info")
     public Map<String, Object> getApiInfo() {
         Map<String, Object> info = new HashMap<>();
@@ -22,6 +36,10 @@ public class ApiDocController {
         endpoints.put("customers", "/api/customers");
         endpoints.put("invoices", "/api/invoices");
         endpoints.put("health", "/api/health");
+        endpoints.put("pool", "/api/health/pool");
+        endpoints.put("threads", "/api/health/threads");
+        endpoints.put("metrics", "/actuator/metrics");
+        endpoints.put("prometheus", "/actuator/prometheus");
         
         info.put("endpoints", endpoints);
         return info;
@@ -30,8 +48,20 @@ public class ApiDocController {
     @GetMapping("/health")
     public Map<String, String> getHealthStatus() {
         Map<String, String> health = new HashMap<>();
-        health.put("status", "UP");
+        // Aggregate of the actuator health indicators (database, disk space)
+        health.put("status", healthEndpoint.health().getStatus().getCode());
         health.put("timestamp", java.time.LocalDateTime.now().toString());
         return health;
     }
+
+    @GetMapping("/health/pool")
+    public Map<String, Object> getConnectionPoolStatus() {
+        return connectionPoolMetrics.snapshot();
+    }
+
+    // Platform or virtual request threads, pool bounds and pinned virtual thread counts
+    @GetMapping("/health/threads")
+    public Map<String, Object> getThreadingStatus() {
+        return threadingDiagnostics.snapshot();
+    }
 }
@@ -0,0 +1,49 @@
+package com.example.customermanagement.controller;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import org.springframework.web.context.request.WebRequest;
+
+import com.example.customermanagement.dto.ResourceVersion;
+
+/**
+ * Conditional GET helpers. Validators come from updated_at columns (plus a row
+ * count for collections) that the caller looks up before loading anything, so
+ * a matching If-None-Match or If-Modified-Since is answered with 304 without
+ * hydrating entities. When a check returns true the response is already
+ * complete and the handler returns null.
+ */
+final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    // Single resource: ETag from the key and updatedAt, plus Last-Modified
+    static boolean checkNotModified(WebRequest request, String resource, Object key, LocalDateTime updatedAt) {
+        if (updatedAt == null) {
+            // Unknown id; let the handler produce its usual 404
+            return false;
+        }
+        long lastModified = toEpochMillis(updatedAt);
+        return request.checkNotModified(etag(resource, key, lastModified), lastModified);
+    }
+
+    // Collections get an ETag only: deleting a row lowers the count but not
+    // max(updated_at), so If-Modified-Since alone would miss it
+    static boolean checkNotModified(WebRequest request, String resource, ResourceVersion version) {
+        long lastModified = version.getLastModified() != null ? toEpochMillis(version.getLastModified()) : 0;
+        return request.checkNotModified(etag(resource, version.getCount(), lastModified));
+    }
+
+    // Weak: the same version goes out as JSON, Smile or CBOR, gzipped or not, and Tomcat
+    // will not compress a response that carries a strong ETag
+    private static String etag(String resource, Object key, long lastModified) {
+        return "W/\"" + resource + "-" + key + "-" + Long.toString(lastModified, 36) + "\"";
+    }
+
+    // Millisecond precision: entities fresh from a save carry nanoseconds, rows read back carry microseconds
+    private static long toEpochMillis(LocalDateTime value) {
+        return value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -17,11 +17,15 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.example.customermanagement.exception.CustomerNotFoundException;
 import com.example.customermanagement.exception.DuplicateEmailException;
+import com.example.customermanagement.exception.DuplicatePhoneException;
 import com.example.customermanagement.model.Customer;
+import com.example.customermanagement.service.CustomerHistoryService;
 import com.example.customermanagement.service.CustomerService;
+import com.example.customermanagement.service.UniqueKeyFilters;
 
 import jakarta.validation.Valid;
 
@@ -33,14 +37,26 @@ public class CustomerController {
     @Autowired
     private CustomerService customerService;
 
+    @Autowired
+    private UniqueKeyFilters uniqueKeyFilters;
+
+    @Autowired
+    private CustomerHistoryService customerHistoryService;
+
     @GetMapping
-    public ResponseEntity<List<Customer>> getAllCustomers() {
+    public ResponseEntity<List<Customer>> getAllCustomers(WebRequest request) {
+        if (ConditionalRequests.checkNotModified(request, "customers", customerService.getCustomersVersion())) {
+            return null;
+        }
         List<Customer> customers = customerService.getAllCustomers();
         return ResponseEntity.ok(customers);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getCustomerById(@PathVariable Long id) {
+    public ResponseEntity<?> getCustomerById(@PathVariable Long id, WebRequest request) {
+        if (ConditionalRequests.checkNotModified(request, "customer", id, customerService.getCustomerLastModified(id))) {
+            return null;
+        }
         try {
             Customer customer = customerService.getCustomerById(id);
             return ResponseEntity.ok(customer);
@@ -51,12 +67,24 @@ public class CustomerController {
         }
     }
 
+    // Totals and latest invoices over the invoices linked to this customer
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<?> getCustomerSummary(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(customerHistoryService.getSummary(id));
+        } catch (CustomerNotFoundException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        }
+    }
+
     @PostMapping
     public ResponseEntity<?> createCustomer(@Valid @RequestBody Customer customer) {
         try {
             Customer savedCustomer = customerService.createCustomer(customer);
             return ResponseEntity.status(HttpStatus.CREATED).body(savedCustomer);
-        } catch (DuplicateEmailException e) {
+        } catch (DuplicateEmailException | DuplicatePhoneException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
@@ -76,7 +104,7 @@ public class CustomerController {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
-        } catch (DuplicateEmailException e) {
+        } catch (DuplicateEmailException | DuplicatePhoneException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
@@ -106,7 +134,10 @@ public class CustomerController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Customer>> searchCustomers(@RequestParam("term") String searchTerm) {
+    public ResponseEntity<List<Customer>> searchCustomers(@RequestParam("term") String searchTerm, WebRequest request) {
+        if (ConditionalRequests.checkNotModified(request, "customers", customerService.getCustomersVersion())) {
+            return null;
+        }
         List<Customer> customers = customerService.searchCustomers(searchTerm);
         return ResponseEntity.ok(customers);
     }
@@ -118,4 +149,10 @@ public class CustomerController {
         response.put("exists", exists);
         return ResponseEntity.ok(response);
     }
+
+    // Size, estimated false positive rate and hit counts of the customer and vendor uniqueness filters
+    @GetMapping("/uniqueness/stats")
+    public ResponseEntity<Map<String, Object>> getUniquenessStats() {
+        return ResponseEntity.ok(uniqueKeyFilters.stats());
+    }
 }
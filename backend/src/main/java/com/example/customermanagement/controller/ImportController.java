@@ -0,0 +1,55 @@
+package com.example.customermanagement.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.customermanagement.dto.ImportResult;
+import com.example.customermanagement.exception.ImportUnavailableException;
+import com.example.customermanagement.service.BulkImportService;
+
+// Bulk upserts of customers, products or vendors from a CSV (header row required) or NDJSON body
+@RestController
+@RequestMapping("/api/import")
+@CrossOrigin(origins = "*")
+public class ImportController {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @PostMapping(value = "/{entity}", consumes = {TEXT_CSV, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> importRows(@PathVariable String entity,
+                                        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                        InputStream body) {
+        BulkImportService.Format format = MediaType.parseMediaType(TEXT_CSV).includes(contentType)
+            ? BulkImportService.Format.CSV
+            : BulkImportService.Format.NDJSON;
+        try {
+            ImportResult result = bulkImportService.importRows(entity, format, body);
+            return ResponseEntity.ok(result);
+        } catch (ImportUnavailableException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+        } catch (IOException | RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+}
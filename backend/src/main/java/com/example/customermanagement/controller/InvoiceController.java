@@ -1,35 +1,85 @@
 package com.example.customermanagement.controller;
 
+import com.example.customermanagement.dto.CursorPage;
+import com.example.customermanagement.dto.InvoiceBatchResult;
+import com.example.customermanagement.dto.InvoicePdfKey;
+import com.example.customermanagement.dto.InvoiceSummary;
+import com.example.customermanagement.dto.RevenueBucket;
+import com.example.customermanagement.exception.InsufficientStockException;
 import com.example.customermanagement.model.Invoice;
+import com.example.customermanagement.service.InvoiceBatchService;
+import com.example.customermanagement.service.InvoiceExportService;
+import com.example.customermanagement.service.InvoicePdfService;
 import com.example.customermanagement.service.InvoiceService;
+import com.example.customermanagement.service.RevenueRollupService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/invoices")
 @CrossOrigin(origins = "*")
 public class InvoiceController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final LocalDate EXPORT_EPOCH = LocalDate.of(1970, 1, 1);
+
     @Autowired
     private InvoiceService invoiceService;
 
+    @Autowired
+    private InvoiceExportService invoiceExportService;
+
+    @Autowired
+    private InvoiceBatchService invoiceBatchService;
+
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+
+    @Autowired
+    private InvoicePdfService invoicePdfService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // List endpoints share one collection ETag; a match answers 304 before any page is queried
     @GetMapping
-    public ResponseEntity<List<Invoice>> getAllInvoices() {
-        List<Invoice> invoices = invoiceService.getAllInvoices();
-        return ResponseEntity.ok(invoices);
+    public ResponseEntity<List<InvoiceSummary>> getAllInvoices(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+        if (ConditionalRequests.checkNotModified(request, "invoices", invoiceService.getInvoicesVersion())) {
+            return null;
+        }
+        return toPageResponse(invoiceService.getAllInvoices(cursor, limit));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Invoice> getInvoiceById(@PathVariable Long id) {
+    public ResponseEntity<Invoice> getInvoiceById(@PathVariable Long id, WebRequest request) {
+        if (ConditionalRequests.checkNotModified(request, "invoice", id, invoiceService.getInvoiceLastModified(id))) {
+            return null;
+        }
         try {
             Invoice invoice = invoiceService.getInvoiceById(id);
             return ResponseEntity.ok(invoice);
@@ -39,7 +89,11 @@ public class InvoiceController {
     }
 
     @GetMapping("/number/{invoiceNo}")
-    public ResponseEntity<Invoice> getInvoiceByNumber(@PathVariable String invoiceNo) {
+    public ResponseEntity<Invoice> getInvoiceByNumber(@PathVariable String invoiceNo, WebRequest request) {
+        if (ConditionalRequests.checkNotModified(request, "invoice", invoiceNo,
+                invoiceService.getInvoiceLastModified(invoiceNo))) {
+            return null;
+        }
         try {
             Invoice invoice = invoiceService.getInvoiceByNumber(invoiceNo);
             return ResponseEntity.ok(invoice);
@@ -53,6 +107,10 @@ public class InvoiceController {
         try {
             Invoice createdInvoice = invoiceService.createInvoice(invoice);
             return new ResponseEntity<>(createdInvoice, HttpStatus.CREATED);
+        } catch (InsufficientStockException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -60,11 +118,28 @@ public class InvoiceController {
         }
     }
 
+    // Bulk import: a JSON array of invoices, read as a stream and inserted in batched chunks
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> createInvoicesBatch(InputStream body) {
+        try {
+            InvoiceBatchResult result = invoiceBatchService.ingest(body);
+            return ResponseEntity.ok(result);
+        } catch (IOException | RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<?> updateInvoice(@PathVariable Long id, @Valid @RequestBody Invoice invoiceDetails) {
         try {
             Invoice updatedInvoice = invoiceService.updateInvoice(id, invoiceDetails);
             return ResponseEntity.ok(updatedInvoice);
+        } catch (OptimisticLockingFailureException | InsufficientStockException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -86,36 +161,144 @@ public class InvoiceController {
         }
     }
 
+    // Ranked matches, a page at a time; terms under three characters match only at the start of a value
     @GetMapping("/search")
-    public ResponseEntity<List<Invoice>> searchInvoices(@RequestParam String term) {
-        List<Invoice> invoices = invoiceService.searchInvoices(term);
-        return ResponseEntity.ok(invoices);
+    public ResponseEntity<List<InvoiceSummary>> searchInvoices(
+            @RequestParam String term,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+        if (ConditionalRequests.checkNotModified(request, "invoices", invoiceService.getInvoicesVersion())) {
+            return null;
+        }
+        return toPageResponse(invoiceService.searchInvoices(term, cursor, limit));
     }
 
     @GetMapping("/customer")
-    public ResponseEntity<List<Invoice>> getInvoicesByCustomerName(@RequestParam String name) {
-        List<Invoice> invoices = invoiceService.getInvoicesByCustomerName(name);
-        return ResponseEntity.ok(invoices);
+    public ResponseEntity<List<InvoiceSummary>> getInvoicesByCustomerName(
+            @RequestParam String name,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+        if (ConditionalRequests.checkNotModified(request, "invoices", invoiceService.getInvoicesVersion())) {
+            return null;
+        }
+        return toPageResponse(invoiceService.getInvoicesByCustomerName(name, cursor, limit));
     }
 
     @GetMapping("/mobile")
-    public ResponseEntity<List<Invoice>> getInvoicesByMobile(@RequestParam String mobile) {
-        List<Invoice> invoices = invoiceService.getInvoicesByMobile(mobile);
-        return ResponseEntity.ok(invoices);
+    public ResponseEntity<List<InvoiceSummary>> getInvoicesByMobile(
+            @RequestParam String mobile,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+        if (ConditionalRequests.checkNotModified(request, "invoices", invoiceService.getInvoicesVersion())) {
+            return null;
+        }
+        return toPageResponse(invoiceService.getInvoicesByMobile(mobile, cursor, limit));
     }
 
     @GetMapping("/date-range")
-    public ResponseEntity<List<Invoice>> getInvoicesByDateRange(
+    public ResponseEntity<List<InvoiceSummary>> getInvoicesByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<Invoice> invoices = invoiceService.getInvoicesByDateRange(startDate, endDate);
-        return ResponseEntity.ok(invoices);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+        if (ConditionalRequests.checkNotModified(request, "invoices", invoiceService.getInvoicesVersion())) {
+            return null;
+        }
+        return toPageResponse(invoiceService.getInvoicesByDateRange(startDate, endDate, cursor, limit));
     }
 
+    // No conditional GET here: the 30-day window moves even when no invoice changes
     @GetMapping("/recent")
-    public ResponseEntity<List<Invoice>> getRecentInvoices() {
-        List<Invoice> invoices = invoiceService.getRecentInvoices();
-        return ResponseEntity.ok(invoices);
+    public ResponseEntity<List<InvoiceSummary>> getRecentInvoices(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return toPageResponse(invoiceService.getRecentInvoices(cursor, limit));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportInvoices(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        InvoiceExportService.Format exportFormat;
+        try {
+            exportFormat = InvoiceExportService.parseFormat(format);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return jsonError(HttpStatus.BAD_REQUEST, error);
+        }
+
+        // Both bounds are inclusive calendar days
+        LocalDateTime start = (from != null ? from : EXPORT_EPOCH).atStartOfDay();
+        LocalDateTime end = to != null ? to.plusDays(1).atStartOfDay() : LocalDateTime.now().plusYears(100);
+        StreamingResponseBody body = out -> invoiceExportService.export(exportFormat, start, end, out);
+
+        String fileName = "invoices" + (from != null ? "-" + from : "") + (to != null ? "-to-" + to : "")
+                + (exportFormat == InvoiceExportService.Format.CSV ? ".csv" : ".ndjson");
+        return ResponseEntity.ok()
+                .contentType(exportFormat == InvoiceExportService.Format.CSV
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    // Rendered server-side and cached per invoice version; shares the invoice's updatedAt as its validator
+    @GetMapping("/{id}/pdf")
+    public ResponseEntity<?> getInvoicePdf(@PathVariable Long id, WebRequest request) {
+        InvoicePdfKey key = invoicePdfService.findKey(id);
+        if (key == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (ConditionalRequests.checkNotModified(request, "invoice-pdf", id, key.getUpdatedAt())) {
+            return null;
+        }
+        byte[] pdf = invoicePdfService.getPdf(key);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + InvoicePdfService.fileName(key) + "\"")
+                .body(pdf);
+    }
+
+    // A zip with one PDF per requested invoice, streamed in request order as the renders finish
+    @PostMapping(value = "/pdf-bundle", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getInvoicePdfBundle(@RequestBody List<Long> ids) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids != null ? ids : List.of());
+        uniqueIds.remove(null);
+        Map<String, Object> error = new HashMap<>();
+        if (uniqueIds.isEmpty()) {
+            error.put("error", "Expected a JSON array of invoice ids");
+            return jsonError(HttpStatus.BAD_REQUEST, error);
+        }
+        if (uniqueIds.size() > invoicePdfService.getBundleMax()) {
+            error.put("error", "A bundle holds at most " + invoicePdfService.getBundleMax() + " invoices");
+            return jsonError(HttpStatus.BAD_REQUEST, error);
+        }
+
+        Map<Long, InvoicePdfKey> found = invoicePdfService.findKeys(uniqueIds);
+        List<Long> missing = uniqueIds.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            error.put("error", "Invoices not found");
+            error.put("missingIds", missing);
+            return jsonError(HttpStatus.NOT_FOUND, error);
+        }
+
+        List<InvoicePdfKey> keys = uniqueIds.stream().map(found::get).toList();
+        StreamingResponseBody body = out -> invoicePdfService.writeBundle(keys, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"invoices-" + keys.size() + ".zip\"")
+                .body(body);
+    }
+
+    @GetMapping("/pdf/stats")
+    public ResponseEntity<Map<String, Object>> getInvoicePdfStats() {
+        return ResponseEntity.ok(invoicePdfService.stats());
     }
 
     @GetMapping("/generate-number")
@@ -144,6 +327,37 @@ public class InvoiceController {
         }
     }
 
+    // Hit/miss counters and query timings for the statistics snapshot
+    @GetMapping("/stats/metrics")
+    public ResponseEntity<Map<String, Object>> getInvoiceStatsMetrics() {
+        return ResponseEntity.ok(invoiceService.getInvoiceStatisticsMetrics());
+    }
+
+    // Revenue per day, week or month from the revenue_daily rollup; from/to are inclusive and default to the last year
+    @GetMapping("/revenue")
+    public ResponseEntity<?> getRevenue(
+            @RequestParam(defaultValue = "day") String bucket,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            RevenueRollupService.Bucket size = RevenueRollupService.parseBucket(bucket);
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusYears(1);
+            List<RevenueBucket> revenue = revenueRollupService.getRevenue(size, start, end);
+            return ResponseEntity.ok(revenue);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Recomputes the revenue rollup from the invoices table
+    @PostMapping("/revenue/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildRevenue() {
+        return ResponseEntity.ok(revenueRollupService.rebuild());
+    }
+
     @PatchMapping("/{id}/status")
     public ResponseEntity<?> updateInvoiceStatus(@PathVariable Long id, @RequestParam String status) {
         try {
@@ -155,4 +369,20 @@ public class InvoiceController {
             return ResponseEntity.badRequest().body(error);
         }
     }
-}
\ No newline at end of file
+
+    // The page body stays a plain array; the cursor for the next page travels in a header
+    private <T> ResponseEntity<List<T>> toPageResponse(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    // Streaming endpoints declare a StreamingResponseBody, so their errors are written as JSON by hand
+    private ResponseEntity<StreamingResponseBody> jsonError(HttpStatus status, Map<String, Object> error) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, error));
+    }
+}
@@ -16,6 +16,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.example.customermanagement.model.Product;
 import com.example.customermanagement.service.ProductService;
@@ -30,12 +31,24 @@ public class ProductController {
     private ProductService productService;
 
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
+    public ResponseEntity<List<Product>> getAllProducts(WebRequest request) {
+        if (ConditionalRequests.checkNotModified(request, "products", productService.getProductsVersion())) {
+            return null;
+        }
         return ResponseEntity.ok(productService.getAllProducts());
     }
 
+    // Size, memory estimate and rebuild timings of the in-memory catalog
+    @GetMapping("/catalog/stats")
+    public ResponseEntity<Map<String, Object>> getCatalogStats() {
+        return ResponseEntity.ok(productService.getCatalogStats());
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
+    public ResponseEntity<Product> getProductById(@PathVariable Long id, WebRequest request) {
+        if (ConditionalRequests.checkNotModified(request, "product", id, productService.getProductLastModified(id))) {
+            return null;
+        }
         return ResponseEntity.ok(productService.getProductById(id));
     }
 
@@ -58,7 +71,10 @@ public class ProductController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String term) {
+    public ResponseEntity<List<Product>> searchProducts(@RequestParam String term, WebRequest request) {
+        if (ConditionalRequests.checkNotModified(request, "products", productService.getProductsVersion())) {
+            return null;
+        }
         return ResponseEntity.ok(productService.searchProducts(term));
     }
 }
\ No newline at end of file
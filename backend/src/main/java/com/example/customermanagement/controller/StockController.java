@@ -0,0 +1,92 @@
+package com.example.customermanagement.controller;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.customermanagement.dto.StockAdjustment;
+import com.example.customermanagement.dto.StockLevel;
+import com.example.customermanagement.model.StockMovement;
+import com.example.customermanagement.service.ProductService;
+import com.example.customermanagement.service.StockLedger;
+
+// Stock levels are answered from the ledger's in-memory balances; only the movement history reads the table
+@RestController
+@RequestMapping("/api/products")
+@CrossOrigin(origins = "*")
+public class StockController {
+
+    private static final int MAX_BULK_IDS = 1000;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private ProductService productService;
+
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<?> getStock(@PathVariable Long id) {
+        if (!productService.productExists(id)) {
+            return productNotFound(id);
+        }
+        return ResponseEntity.ok(new StockLevel(id, stockLedger.getOnHand(id)));
+    }
+
+    // Several products in one call, e.g. /api/products/stock?ids=1,2,3; without ids, every product that has moved
+    @GetMapping("/stock")
+    public ResponseEntity<?> getStockLevels(@RequestParam(required = false) List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return ResponseEntity.ok(stockLedger.getAll());
+        }
+        if (ids.size() > MAX_BULK_IDS) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "At most " + MAX_BULK_IDS + " product ids per request");
+            return ResponseEntity.badRequest().body(error);
+        }
+        return ResponseEntity.ok(stockLedger.getOnHand(ids));
+    }
+
+    @GetMapping("/stock/stats")
+    public ResponseEntity<Map<String, Object>> getStockStats() {
+        return ResponseEntity.ok(stockLedger.stats());
+    }
+
+    // Newest first, capped at app.stock.max-history
+    @GetMapping("/{id}/stock/movements")
+    public ResponseEntity<List<StockMovement>> getMovements(@PathVariable Long id,
+                                                            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(stockLedger.getMovements(id, limit));
+    }
+
+    @PostMapping("/{id}/stock/adjustments")
+    public ResponseEntity<?> adjustStock(@PathVariable Long id, @RequestBody StockAdjustment adjustment) {
+        if (!productService.productExists(id)) {
+            return productNotFound(id);
+        }
+        if (adjustment.getQuantity() == null || adjustment.getQuantity() == 0) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "quantity must be a non-zero number of units");
+            return ResponseEntity.badRequest().body(error);
+        }
+        StockMovement movement = stockLedger.adjust(id, adjustment.getQuantity(), adjustment.getNote());
+        return ResponseEntity.status(HttpStatus.CREATED).body(movement);
+    }
+
+    private static ResponseEntity<?> productNotFound(Long id) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Product not found with id: " + id);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+}
@@ -1,13 +1,18 @@
 package com.example.customermanagement.controller;
 
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -15,8 +20,14 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.example.customermanagement.dto.CursorPage;
+import com.example.customermanagement.dto.PurchaseBucket;
 import com.example.customermanagement.dto.VendorInvoiceDTO;
+import com.example.customermanagement.dto.VendorInvoiceSearchCriteria;
+import com.example.customermanagement.dto.VendorInvoiceSort;
+import com.example.customermanagement.service.RevenueRollupService;
 import com.example.customermanagement.service.VendorInvoiceService;
 
 import jakarta.validation.Valid;
@@ -30,13 +41,20 @@ public class VendorInvoiceController {
     private VendorInvoiceService vendorInvoiceService;
 
     @GetMapping
-    public ResponseEntity<List<VendorInvoiceDTO>> getAllInvoices() {
+    public ResponseEntity<List<VendorInvoiceDTO>> getAllInvoices(WebRequest request) {
+        if (ConditionalRequests.checkNotModified(request, "vendor-invoices", vendorInvoiceService.getInvoicesVersion())) {
+            return null;
+        }
         List<VendorInvoiceDTO> invoices = vendorInvoiceService.getAllInvoices();
         return ResponseEntity.ok(invoices);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<VendorInvoiceDTO> getInvoiceById(@PathVariable Long id) {
+    public ResponseEntity<VendorInvoiceDTO> getInvoiceById(@PathVariable Long id, WebRequest request) {
+        if (ConditionalRequests.checkNotModified(request, "vendor-invoice", id,
+                vendorInvoiceService.getInvoiceLastModified(id))) {
+            return null;
+        }
         VendorInvoiceDTO invoice = vendorInvoiceService.getInvoiceById(id);
         return ResponseEntity.ok(invoice);
     }
@@ -48,35 +66,77 @@ public class VendorInvoiceController {
     }
 
     @GetMapping("/vendor/{vendorId}")
-    public ResponseEntity<List<VendorInvoiceDTO>> getInvoicesByVendorId(@PathVariable Long vendorId) {
+    public ResponseEntity<List<VendorInvoiceDTO>> getInvoicesByVendorId(@PathVariable Long vendorId, WebRequest request) {
+        if (ConditionalRequests.checkNotModified(request, "vendor-invoices", vendorInvoiceService.getInvoicesVersion())) {
+            return null;
+        }
         List<VendorInvoiceDTO> invoices = vendorInvoiceService.getInvoicesByVendorId(vendorId);
         return ResponseEntity.ok(invoices);
     }
 
+    // Combines every filter given (vendorId, vendorName, mobile, invoiceNo, from/to dates, minAmount/maxAmount,
+    // productId, product) and pages in the requested order; the next page's cursor is in X-Next-Cursor
     @GetMapping("/search")
-    public ResponseEntity<List<VendorInvoiceDTO>> searchVendorInvoices(
-            @RequestParam(value = "invoiceNo", required = false) String invoiceNo,
-            @RequestParam(value = "mobile", required = false) String mobile,
-            @RequestParam(value = "vendorName", required = false) String vendorName) {
-        List<VendorInvoiceDTO> invoices;
-        if (invoiceNo != null && !invoiceNo.isEmpty()) {
-            invoices = vendorInvoiceService.getInvoicesByInvoiceNo(invoiceNo);
-        } else if (mobile != null && !mobile.isEmpty()) {
-            invoices = vendorInvoiceService.getInvoicesByMobile(mobile);
-        } else if (vendorName != null && !vendorName.isEmpty()) {
-            invoices = vendorInvoiceService.getInvoicesByVendorName(vendorName);
-        } else {
-            invoices = vendorInvoiceService.getAllInvoices();
+    public ResponseEntity<?> searchVendorInvoices(
+            VendorInvoiceSearchCriteria criteria,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+        VendorInvoiceSort order;
+        try {
+            order = VendorInvoiceSort.parse(sort);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
         }
-        return ResponseEntity.ok(invoices);
+        if (ConditionalRequests.checkNotModified(request, "vendor-invoices", vendorInvoiceService.getInvoicesVersion())) {
+            return null;
+        }
+        CursorPage<VendorInvoiceDTO> page = vendorInvoiceService.searchInvoices(criteria, order, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(InvoiceController.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     @GetMapping("/date-range")
-    public ResponseEntity<List<VendorInvoiceDTO>> getInvoicesByDateRange(
+    public ResponseEntity<?> getInvoicesByDateRange(
             @RequestParam String startDate, 
-            @RequestParam String endDate) {
-        List<VendorInvoiceDTO> invoices = vendorInvoiceService.getInvoicesByDateRange(startDate, endDate);
-        return ResponseEntity.ok(invoices);
+            @RequestParam String endDate,
+            WebRequest request) {
+        if (ConditionalRequests.checkNotModified(request, "vendor-invoices", vendorInvoiceService.getInvoicesVersion())) {
+            return null;
+        }
+        try {
+            List<VendorInvoiceDTO> invoices = vendorInvoiceService.getInvoicesByDateRange(startDate, endDate);
+            return ResponseEntity.ok(invoices);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Purchase totals per day, week or month between two dates (inclusive); defaults to the last year by month
+    @GetMapping("/purchases")
+    public ResponseEntity<?> getPurchases(
+            @RequestParam(defaultValue = "month") String bucket,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            RevenueRollupService.Bucket size = RevenueRollupService.parseBucket(bucket);
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusYears(1);
+            List<PurchaseBucket> purchases = vendorInvoiceService.getPurchases(size, start, end);
+            return ResponseEntity.ok(purchases);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
     }
 
     @PostMapping
@@ -86,11 +146,30 @@ public class VendorInvoiceController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<VendorInvoiceDTO> updateInvoice(
+    public ResponseEntity<?> updateInvoice(
             @PathVariable Long id, 
             @Valid @RequestBody VendorInvoiceDTO invoiceDTO) {
-        VendorInvoiceDTO updatedInvoice = vendorInvoiceService.updateInvoice(id, invoiceDTO);
-        return ResponseEntity.ok(updatedInvoice);
+        try {
+            VendorInvoiceDTO updatedInvoice = vendorInvoiceService.updateInvoice(id, invoiceDTO);
+            return ResponseEntity.ok(updatedInvoice);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Partial edit: fields left out of the body keep their values
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchInvoice(@PathVariable Long id, @RequestBody VendorInvoiceDTO changes) {
+        try {
+            VendorInvoiceDTO updatedInvoice = vendorInvoiceService.patchInvoice(id, changes);
+            return ResponseEntity.ok(updatedInvoice);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,48 @@
+package com.example.customermanagement.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.example.customermanagement.model.Customer;
+import com.example.customermanagement.model.CustomerTotals;
+
+// Customer 360 view: the customer, totals over their linked invoices and the latest of those invoices
+public class CustomerSummary {
+
+    private final Long customerId;
+    private final String name;
+    private final String email;
+    private final String phone;
+    private long invoiceCount;
+    private BigDecimal lifetimeValue = BigDecimal.ZERO;
+    private BigDecimal outstandingBalance = BigDecimal.ZERO;
+    private LocalDateTime lastPurchaseDate;
+    private List<InvoiceSummary> recentInvoices = List.of();
+
+    public CustomerSummary(Customer customer) {
+        this.customerId = customer.getId();
+        this.name = customer.getName();
+        this.email = customer.getEmail();
+        this.phone = customer.getPhone();
+    }
+
+    public void setTotals(CustomerTotals totals) {
+        this.invoiceCount = totals.getInvoiceCount();
+        this.lifetimeValue = totals.getLifetimeValue();
+        this.outstandingBalance = totals.getOutstandingBalance();
+        this.lastPurchaseDate = totals.getLastInvoiceDate();
+    }
+
+    public Long getCustomerId() { return customerId; }
+    public String getName() { return name; }
+    public String getEmail() { return email; }
+    public String getPhone() { return phone; }
+    public long getInvoiceCount() { return invoiceCount; }
+    public BigDecimal getLifetimeValue() { return lifetimeValue; }
+    public BigDecimal getOutstandingBalance() { return outstandingBalance; }
+    public LocalDateTime getLastPurchaseDate() { return lastPurchaseDate; }
+
+    public List<InvoiceSummary> getRecentInvoices() { return recentInvoices; }
+    public void setRecentInvoices(List<InvoiceSummary> recentInvoices) { this.recentInvoices = recentInvoices; }
+}
@@ -0,0 +1,87 @@
+package com.example.customermanagement.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of a bulk import: counts for the whole file, plus one entry per rejected row in file order
+public class ImportResult {
+
+    private final String entity;
+    private final String format;
+    private int received;
+    private int inserted;
+    private int updated;
+    private int failed;
+    private long elapsedMillis;
+    private String error;
+    private boolean errorsTruncated;
+    private final int maxErrors;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public ImportResult(String entity, String format, int maxErrors) {
+        this.entity = entity;
+        this.format = format;
+        this.maxErrors = maxErrors;
+    }
+
+    // Called from the request thread and the writer thread of the same import
+    public synchronized void addWritten(int inserted, int updated) {
+        this.inserted += inserted;
+        this.updated += updated;
+    }
+
+    public synchronized void addFailed(int row, String key, String message) {
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(row, key, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    public String getEntity() { return entity; }
+    public String getFormat() { return format; }
+
+    public int getReceived() { return received; }
+    public void setReceived(int received) { this.received = received; }
+
+    public synchronized int getInserted() { return inserted; }
+    public synchronized int getUpdated() { return updated; }
+    public synchronized int getFailed() { return failed; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public long getRowsPerSecond() {
+        return elapsedMillis > 0 ? received * 1000L / elapsedMillis : received;
+    }
+
+    // Set when the body stopped being readable; rows before that point are still imported and reported
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    // True when more rows failed than app.import.max-errors; failed still counts all of them
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+
+    public synchronized List<RowError> getErrors() {
+        errors.sort((a, b) -> Integer.compare(a.row, b.row));
+        return errors;
+    }
+
+    public static class RowError {
+        private final int row;
+        private final String key;
+        private final String message;
+
+        public RowError(int row, String key, String message) {
+            this.row = row;
+            this.key = key;
+            this.message = message;
+        }
+
+        // 1-based position of the record in the file, not counting a CSV header
+        public int getRow() { return row; }
+        public String getKey() { return key; }
+        public String getMessage() { return message; }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.customermanagement.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of a batch ingestion request, with one entry per submitted invoice in request order
+public class InvoiceBatchResult {
+
+    public static final String CREATED = "CREATED";
+    public static final String FAILED = "FAILED";
+
+    private int received;
+    private int created;
+    private int failed;
+    private long elapsedMillis;
+    private String error;
+    private final List<Entry> results = new ArrayList<>();
+
+    public void addCreated(int index, String invoiceNo, Long id) {
+        created++;
+        results.add(new Entry(index, invoiceNo, id, CREATED, null));
+    }
+
+    public void addFailed(int index, String invoiceNo, String message) {
+        failed++;
+        results.add(new Entry(index, invoiceNo, null, FAILED, message));
+    }
+
+    public int getReceived() { return received; }
+    public void setReceived(int received) { this.received = received; }
+
+    public int getCreated() { return created; }
+    public int getFailed() { return failed; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    // Set when the body stopped being readable; invoices before that point are still reported
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public List<Entry> getResults() {
+        results.sort((a, b) -> Integer.compare(a.index, b.index));
+        return results;
+    }
+
+    public static class Entry {
+        private final int index;
+        private final String invoiceNo;
+        private final Long id;
+        private final String status;
+        private final String error;
+
+        public Entry(int index, String invoiceNo, Long id, String status, String error) {
+            this.index = index;
+            this.invoiceNo = invoiceNo;
+            this.id = id;
+            this.status = status;
+            this.error = error;
+        }
+
+        public int getIndex() { return index; }
+        public String getInvoiceNo() { return invoiceNo; }
+        public Long getId() { return id; }
+        public String getStatus() { return status; }
+        public String getError() { return error; }
+    }
+}
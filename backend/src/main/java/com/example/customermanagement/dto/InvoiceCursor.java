@@ -0,0 +1,45 @@
+package com.example.customermanagement.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import com.example.customermanagement.exception.InvalidCursorException;
+
+/**
+ * Keyset position in the (invoice_date DESC, id DESC) ordering, passed to
+ * clients as an opaque URL-safe token.
+ */
+public class InvoiceCursor {
+
+    private final LocalDateTime invoiceDate;
+    private final Long id;
+
+    public InvoiceCursor(LocalDateTime invoiceDate, Long id) {
+        this.invoiceDate = invoiceDate;
+        this.id = id;
+    }
+
+    public LocalDateTime getInvoiceDate() { return invoiceDate; }
+    public Long getId() { return id; }
+
+    public String encode() {
+        String raw = invoiceDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Null when there is no token, i.e. the first page
+    public static InvoiceCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new InvoiceCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid page cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.customermanagement.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.example.customermanagement.model.Invoice;
+
+// Flat invoice + line item row read by the export query; never attached to the persistence context
+public class InvoiceExportRow {
+    private final Long invoiceId;
+    private final String invoiceNo;
+    private final String customerName;
+    private final String customerMobile;
+    private final String customerAddress;
+    private final LocalDateTime invoiceDate;
+    private final BigDecimal totalAmount;
+    private final Invoice.PaymentStatus paymentStatus;
+    private final Long itemId;
+    private final String itemName;
+    private final String itemDescription;
+    private final Integer quantity;
+    private final BigDecimal unitPrice;
+    private final BigDecimal cgstRate;
+    private final BigDecimal sgstRate;
+    private final BigDecimal cgstAmount;
+    private final BigDecimal sgstAmount;
+    private final BigDecimal taxAmount;
+    private final BigDecimal totalPrice;
+
+    public InvoiceExportRow(Long invoiceId, String invoiceNo, String customerName, String customerMobile,
+                            String customerAddress, LocalDateTime invoiceDate, BigDecimal totalAmount,
+                            Invoice.PaymentStatus paymentStatus, Long itemId, String itemName,
+                            String itemDescription, Integer quantity, BigDecimal unitPrice,
+                            BigDecimal cgstRate, BigDecimal sgstRate, BigDecimal cgstAmount,
+                            BigDecimal sgstAmount, BigDecimal taxAmount, BigDecimal totalPrice) {
+        this.invoiceId = invoiceId;
+        this.invoiceNo = invoiceNo;
+        this.customerName = customerName;
+        this.customerMobile = customerMobile;
+        this.customerAddress = customerAddress;
+        this.invoiceDate = invoiceDate;
+        this.totalAmount = totalAmount;
+        this.paymentStatus = paymentStatus;
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.itemDescription = itemDescription;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+        this.cgstRate = cgstRate;
+        this.sgstRate = sgstRate;
+        this.cgstAmount = cgstAmount;
+        this.sgstAmount = sgstAmount;
+        this.taxAmount = taxAmount;
+        this.totalPrice = totalPrice;
+    }
+
+    public Long getInvoiceId() { return invoiceId; }
+    public String getInvoiceNo() { return invoiceNo; }
+    public String getCustomerName() { return customerName; }
+    public String getCustomerMobile() { return customerMobile; }
+    public String getCustomerAddress() { return customerAddress; }
+    public LocalDateTime getInvoiceDate() { return invoiceDate; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public Invoice.PaymentStatus getPaymentStatus() { return paymentStatus; }
+    public Long getItemId() { return itemId; }
+    public String getItemName() { return itemName; }
+    public String getItemDescription() { return itemDescription; }
+    public Integer getQuantity() { return quantity; }
+    public BigDecimal getUnitPrice() { return unitPrice; }
+    public BigDecimal getCgstRate() { return cgstRate; }
+    public BigDecimal getSgstRate() { return sgstRate; }
+    public BigDecimal getCgstAmount() { return cgstAmount; }
+    public BigDecimal getSgstAmount() { return sgstAmount; }
+    public BigDecimal getTaxAmount() { return taxAmount; }
+    public BigDecimal getTotalPrice() { return totalPrice; }
+}
@@ -0,0 +1,10 @@
+package com.example.customermanagement.dto;
+
+import java.time.LocalDateTime;
+
+// What a rendered invoice PDF is cached and named by; read without loading the invoice
+public interface InvoicePdfKey {
+    Long getId();
+    String getInvoiceNo();
+    LocalDateTime getUpdatedAt();
+}
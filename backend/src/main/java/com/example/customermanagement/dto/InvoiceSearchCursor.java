@@ -0,0 +1,47 @@
+package com.example.customermanagement.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import com.example.customermanagement.exception.InvalidCursorException;
+
+/**
+ * Keyset position in the invoice search ranking (match rank, invoice_date
+ * DESC, id DESC), passed to clients as an opaque URL-safe token.
+ */
+public class InvoiceSearchCursor {
+
+    private final int matchRank;
+    private final LocalDateTime invoiceDate;
+    private final Long id;
+
+    public InvoiceSearchCursor(int matchRank, LocalDateTime invoiceDate, Long id) {
+        this.matchRank = matchRank;
+        this.invoiceDate = invoiceDate;
+        this.id = id;
+    }
+
+    public int getMatchRank() { return matchRank; }
+    public LocalDateTime getInvoiceDate() { return invoiceDate; }
+    public Long getId() { return id; }
+
+    public String encode() {
+        String raw = matchRank + "|" + invoiceDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Null when there is no token, i.e. the first page
+    public static InvoiceSearchCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            return new InvoiceSearchCursor(Integer.parseInt(parts[0]), LocalDateTime.parse(parts[1]),
+                    Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid page cursor: " + token);
+        }
+    }
+}
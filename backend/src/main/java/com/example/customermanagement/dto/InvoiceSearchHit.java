@@ -0,0 +1,10 @@
+package com.example.customermanagement.dto;
+
+import java.time.LocalDateTime;
+
+// One ranked invoice search match: its id plus the ranking key the next page's cursor is built from
+public interface InvoiceSearchHit {
+    Long getId();
+    Integer getMatchRank();
+    LocalDateTime getInvoiceDate();
+}
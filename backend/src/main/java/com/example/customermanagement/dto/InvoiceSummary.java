@@ -0,0 +1,17 @@
+package com.example.customermanagement.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.example.customermanagement.model.Invoice;
+
+// Columns the invoice listings show; selected directly in SQL, so no items are loaded
+public interface InvoiceSummary {
+    Long getId();
+    String getInvoiceNo();
+    String getCustomerName();
+    String getCustomerMobile();
+    LocalDateTime getInvoiceDate();
+    BigDecimal getTotalAmount();
+    Invoice.PaymentStatus getPaymentStatus();
+}
@@ -0,0 +1,13 @@
+package com.example.customermanagement.dto;
+
+import java.math.BigDecimal;
+
+import com.example.customermanagement.model.Invoice;
+
+// One row of the grouped invoice statistics query
+public interface PaymentStatusAggregate {
+    Invoice.PaymentStatus getPaymentStatus();
+    Long getInvoiceCount();
+    BigDecimal getTotalAmount();
+    Long getRecentCount();
+}
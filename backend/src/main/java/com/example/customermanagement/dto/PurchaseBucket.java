@@ -0,0 +1,13 @@
+package com.example.customermanagement.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Vendor invoice totals for one day, week or month
+public interface PurchaseBucket {
+    LocalDate getPeriodStart();
+    Long getInvoiceCount();
+    BigDecimal getSubtotal();
+    BigDecimal getTotalTax();
+    BigDecimal getGrandTotal();
+}
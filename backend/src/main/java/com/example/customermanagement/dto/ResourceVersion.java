@@ -0,0 +1,19 @@
+package com.example.customermanagement.dto;
+
+import java.time.LocalDateTime;
+
+// Row count and newest updated_at of a table; the validator behind collection ETags
+public class ResourceVersion {
+    private final long count;
+    private final LocalDateTime lastModified;
+
+    public ResourceVersion(long count, LocalDateTime lastModified) {
+        this.count = count;
+        this.lastModified = lastModified;
+    }
+
+    public long getCount() { return count; }
+
+    // Null when the table is empty
+    public LocalDateTime getLastModified() { return lastModified; }
+}
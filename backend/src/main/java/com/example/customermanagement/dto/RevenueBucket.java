@@ -0,0 +1,35 @@
+package com.example.customermanagement.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Revenue for one day, week or month; paidAmount is the revenue figure, byStatus breaks the total down
+public class RevenueBucket {
+
+    private final LocalDate periodStart;
+    private long invoiceCount;
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+    private BigDecimal paidAmount = BigDecimal.ZERO;
+    private final Map<String, BigDecimal> byStatus = new LinkedHashMap<>();
+
+    public RevenueBucket(LocalDate periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    public void add(String paymentStatus, long count, BigDecimal amount) {
+        invoiceCount += count;
+        totalAmount = totalAmount.add(amount);
+        byStatus.merge(paymentStatus, amount, BigDecimal::add);
+        if ("PAID".equals(paymentStatus)) {
+            paidAmount = paidAmount.add(amount);
+        }
+    }
+
+    public LocalDate getPeriodStart() { return periodStart; }
+    public long getInvoiceCount() { return invoiceCount; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public BigDecimal getPaidAmount() { return paidAmount; }
+    public Map<String, BigDecimal> getByStatus() { return byStatus; }
+}
@@ -0,0 +1,12 @@
+package com.example.customermanagement.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// One (period, payment status) row of the bucketed revenue query
+public interface RevenueBucketRow {
+    LocalDate getPeriodStart();
+    String getPaymentStatus();
+    Long getInvoiceCount();
+    BigDecimal getTotalAmount();
+}
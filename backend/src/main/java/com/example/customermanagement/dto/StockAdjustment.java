@@ -0,0 +1,13 @@
+package com.example.customermanagement.dto;
+
+// Manual correction of a product's stock: positive adds units, negative removes them
+public class StockAdjustment {
+    private Long quantity;
+    private String note;
+
+    public Long getQuantity() { return quantity; }
+    public void setQuantity(Long quantity) { this.quantity = quantity; }
+
+    public String getNote() { return note; }
+    public void setNote(String note) { this.note = note; }
+}
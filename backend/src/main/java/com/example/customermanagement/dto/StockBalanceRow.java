@@ -0,0 +1,7 @@
+package com.example.customermanagement.dto;
+
+// Snapshot balance plus not yet snapshotted movements for one product
+public interface StockBalanceRow {
+    Long getProductId();
+    Long getOnHand();
+}
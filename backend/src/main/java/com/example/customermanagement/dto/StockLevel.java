@@ -0,0 +1,14 @@
+package com.example.customermanagement.dto;
+
+public class StockLevel {
+    private final Long productId;
+    private final long onHand;
+
+    public StockLevel(Long productId, long onHand) {
+        this.productId = productId;
+        this.onHand = onHand;
+    }
+
+    public Long getProductId() { return productId; }
+    public long getOnHand() { return onHand; }
+}
@@ -0,0 +1,60 @@
+package com.example.customermanagement.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.example.customermanagement.exception.InvalidCursorException;
+
+/**
+ * Keyset position in a vendor invoice search ordering: the sort key and id of
+ * the last row returned, passed to clients as an opaque URL-safe token. The
+ * token records the sort it was issued for, so it cannot be replayed against
+ * a different ordering.
+ */
+public class VendorInvoiceCursor {
+
+    private final VendorInvoiceSort sort;
+    private final Comparable<?> key;
+    private final Long id;
+
+    public VendorInvoiceCursor(VendorInvoiceSort sort, Comparable<?> key, Long id) {
+        this.sort = sort;
+        this.key = key;
+        this.id = id;
+    }
+
+    public VendorInvoiceSort getSort() { return sort; }
+    public Comparable<?> getKey() { return key; }
+    public Long getId() { return id; }
+
+    public String encode() {
+        String raw = sort + "|" + key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Null when there is no token, i.e. the first page
+    public static VendorInvoiceCursor decode(String token, VendorInvoiceSort sort) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // The key itself may contain the separator (invoice numbers, vendor names), so split on the outer ones
+            int first = raw.indexOf('|');
+            int last = raw.lastIndexOf('|');
+            if (first < 0 || first == last) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            if (!sort.toString().equals(raw.substring(0, first))) {
+                throw new InvalidCursorException("Page cursor was issued for sort " + raw.substring(0, first)
+                    + ", not " + sort);
+            }
+            return new VendorInvoiceCursor(sort, sort.parseKey(raw.substring(first + 1, last)),
+                    Long.parseLong(raw.substring(last + 1)));
+        } catch (InvalidCursorException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid page cursor: " + token);
+        }
+    }
+}
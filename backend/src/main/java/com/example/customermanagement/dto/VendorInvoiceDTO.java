@@ -24,6 +24,9 @@ public class VendorInvoiceDTO {
     
     @NotBlank(message = "Date time is required")
     private String dateTime;
+
+    // Read-only: dateTime as parsed by the server, null when it is not in a recognised format
+    private LocalDateTime invoiceTimestamp;
     
     @NotNull(message = "Subtotal is required")
     private BigDecimal subtotal;
@@ -38,6 +41,9 @@ public class VendorInvoiceDTO {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    // Echo back on PUT/PATCH to fail with 409 instead of overwriting someone else's change
+    private Long version;
+
     // Constructors
     public VendorInvoiceDTO() {}
 
@@ -63,6 +69,9 @@ public class VendorInvoiceDTO {
     public String getDateTime() { return dateTime; }
     public void setDateTime(String dateTime) { this.dateTime = dateTime; }
 
+    public LocalDateTime getInvoiceTimestamp() { return invoiceTimestamp; }
+    public void setInvoiceTimestamp(LocalDateTime invoiceTimestamp) { this.invoiceTimestamp = invoiceTimestamp; }
+
     public BigDecimal getSubtotal() { return subtotal; }
     public void setSubtotal(BigDecimal subtotal) { this.subtotal = subtotal; }
 
@@ -80,4 +89,7 @@ public class VendorInvoiceDTO {
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.example.customermanagement.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Sort;
+
+import com.example.customermanagement.model.VendorInvoice;
+
+/**
+ * Server-side ordering for vendor invoice search, parsed from a "property,direction"
+ * parameter such as "grandTotal,desc". Only non-null columns are sortable, and id
+ * always breaks ties so the ordering is total and can be paged by keyset.
+ */
+public class VendorInvoiceSort {
+
+    public static final VendorInvoiceSort DEFAULT = new VendorInvoiceSort(Field.ID, Sort.Direction.DESC);
+
+    public enum Field {
+        ID("id", Long::valueOf, VendorInvoice::getId),
+        INVOICE_NO("invoiceNo", value -> value, VendorInvoice::getInvoiceNo),
+        VENDOR_NAME("vendorName", value -> value, VendorInvoice::getVendorName),
+        GRAND_TOTAL("grandTotal", BigDecimal::new, VendorInvoice::getGrandTotal),
+        CREATED_AT("createdAt", LocalDateTime::parse, VendorInvoice::getCreatedAt);
+
+        private final String property;
+        private final Function<String, Comparable<?>> parser;
+        private final Function<VendorInvoice, Comparable<?>> accessor;
+
+        Field(String property, Function<String, Comparable<?>> parser, Function<VendorInvoice, Comparable<?>> accessor) {
+            this.property = property;
+            this.parser = parser;
+            this.accessor = accessor;
+        }
+
+        public String getProperty() { return property; }
+    }
+
+    private final Field field;
+    private final Sort.Direction direction;
+
+    public VendorInvoiceSort(Field field, Sort.Direction direction) {
+        this.field = field;
+        this.direction = direction;
+    }
+
+    public Field getField() { return field; }
+    public Sort.Direction getDirection() { return direction; }
+
+    public Sort toSort() {
+        if (field == Field.ID) {
+            return Sort.by(direction, "id");
+        }
+        return Sort.by(direction, field.property, "id");
+    }
+
+    // Sort key of an invoice, and the same key read back from a cursor
+    public Comparable<?> keyOf(VendorInvoice invoice) {
+        return field.accessor.apply(invoice);
+    }
+
+    public Comparable<?> parseKey(String value) {
+        return field.parser.apply(value);
+    }
+
+    public static VendorInvoiceSort parse(String value) {
+        if (value == null || value.isBlank()) {
+            return DEFAULT;
+        }
+        String[] parts = value.split(",");
+        if (parts.length > 2) {
+            throw new IllegalArgumentException("Invalid sort: " + value);
+        }
+        Field field = null;
+        for (Field candidate : Field.values()) {
+            if (candidate.property.equalsIgnoreCase(parts[0].trim())) {
+                field = candidate;
+            }
+        }
+        if (field == null) {
+            throw new IllegalArgumentException("Cannot sort by " + parts[0].trim()
+                + "; sortable fields are id, invoiceNo, vendorName, grandTotal and createdAt");
+        }
+        Sort.Direction direction = parts.length == 2
+            ? Sort.Direction.fromString(parts[1].trim())
+            : Sort.Direction.ASC;
+        return new VendorInvoiceSort(field, direction);
+    }
+
+    @Override
+    public String toString() {
+        return field.property + "," + direction.name().toLowerCase(Locale.ROOT);
+    }
+}
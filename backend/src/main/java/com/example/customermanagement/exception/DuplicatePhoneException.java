@@ -0,0 +1,7 @@
+package com.example.customermanagement.exception;
+
+public class DuplicatePhoneException extends RuntimeException {
+    public DuplicatePhoneException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.customermanagement.exception;
+
+// The database is not ready for an import of this entity yet, e.g. an index the upsert relies on is missing
+public class ImportUnavailableException extends RuntimeException {
+    public ImportUnavailableException(String message) {
+        super(message);
+    }
+}
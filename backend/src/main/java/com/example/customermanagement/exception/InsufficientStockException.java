@@ -0,0 +1,20 @@
+package com.example.customermanagement.exception;
+
+public class InsufficientStockException extends RuntimeException {
+    private final Long productId;
+    private final long requested;
+
+    public InsufficientStockException(Long productId, long requested) {
+        super("Insufficient stock for product " + productId + ": " + requested + " requested");
+        this.productId = productId;
+        this.requested = requested;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public long getRequested() {
+        return requested;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.customermanagement.exception;
+
+public class PdfRenderBusyException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public PdfRenderBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
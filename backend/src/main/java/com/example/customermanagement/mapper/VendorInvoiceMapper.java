@@ -26,11 +26,13 @@ public class VendorInvoiceMapper {
         dto.setVendorAddress(vendorInvoice.getVendorAddress());
         dto.setVendorPhone(vendorInvoice.getVendorPhone());
         dto.setDateTime(vendorInvoice.getDateTime());
+        dto.setInvoiceTimestamp(vendorInvoice.getInvoiceTimestamp());
         dto.setSubtotal(vendorInvoice.getSubtotal());
         dto.setTotalTax(vendorInvoice.getTotalTax());
         dto.setGrandTotal(vendorInvoice.getGrandTotal());
         dto.setCreatedAt(vendorInvoice.getCreatedAt());
         dto.setUpdatedAt(vendorInvoice.getUpdatedAt());
+        dto.setVersion(vendorInvoice.getVersion());
 
         if (vendorInvoice.getItems() != null) {
             List<VendorInvoiceItemDTO> itemDTOs = vendorInvoice.getItems().stream()
@@ -0,0 +1,49 @@
+package com.example.customermanagement.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Invoice count and amounts per linked customer, kept in step with every invoice write
+@Entity
+@Table(name = "customer_totals")
+public class CustomerTotals {
+
+    @Id
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Column(name = "invoice_count", nullable = false)
+    private Long invoiceCount;
+
+    // Every invoice except cancelled ones
+    @Column(name = "lifetime_value", nullable = false, precision = 14, scale = 2)
+    private BigDecimal lifetimeValue;
+
+    // Pending, partially paid and overdue invoices, at their full amount
+    @Column(name = "outstanding_balance", nullable = false, precision = 14, scale = 2)
+    private BigDecimal outstandingBalance;
+
+    @Column(name = "last_invoice_date")
+    private LocalDateTime lastInvoiceDate;
+
+    // Getters and Setters
+    public Long getCustomerId() { return customerId; }
+    public void setCustomerId(Long customerId) { this.customerId = customerId; }
+
+    public Long getInvoiceCount() { return invoiceCount; }
+    public void setInvoiceCount(Long invoiceCount) { this.invoiceCount = invoiceCount; }
+
+    public BigDecimal getLifetimeValue() { return lifetimeValue; }
+    public void setLifetimeValue(BigDecimal lifetimeValue) { this.lifetimeValue = lifetimeValue; }
+
+    public BigDecimal getOutstandingBalance() { return outstandingBalance; }
+    public void setOutstandingBalance(BigDecimal outstandingBalance) { this.outstandingBalance = outstandingBalance; }
+
+    public LocalDateTime getLastInvoiceDate() { return lastInvoiceDate; }
+    public void setLastInvoiceDate(LocalDateTime lastInvoiceDate) { this.lastInvoiceDate = lastInvoiceDate; }
+}
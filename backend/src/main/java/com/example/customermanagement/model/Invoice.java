@@ -5,6 +5,9 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.BatchSize;
+
+import com.example.customermanagement.pricing.GstCalculator;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 import jakarta.persistence.CascadeType;
@@ -16,20 +19,28 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
-@Table(name = "invoices")
+@Table(name = "invoices", indexes = {
+    @Index(name = "idx_invoices_date_id", columnList = "invoice_date DESC, id DESC"),
+    @Index(name = "idx_invoices_customer_mobile", columnList = "customer_mobile")
+})
 public class Invoice {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence ids let Hibernate batch inserts; IDENTITY forces one round trip per row
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_seq")
+    @SequenceGenerator(name = "invoice_seq", sequenceName = "invoices_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Invoice number is required")
@@ -43,6 +54,11 @@ public class Invoice {
     @Column(name = "customer_mobile")
     private String customerMobile;
 
+    // Customer record this invoice belongs to; null when no customer has the invoice's mobile number.
+    // The name, mobile and address above stay as printed on the invoice.
+    @Column(name = "customer_id")
+    private Long customerId;
+
     @Column(name = "customer_address", columnDefinition = "TEXT")
     private String customerAddress;
 
@@ -65,11 +81,19 @@ public class Invoice {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Optimistic lock; the default fills existing rows when ddl-auto adds the column
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @NotNull
     @Column(name = "date_time", nullable = false)
     private LocalDateTime dateTime;
 
-    @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, fetch = FetchType.EAGER, orphanRemoval = true)
+    // Lazy: listings use InvoiceSummary, detail lookups fetch items through an entity graph.
+    // Anything else touching items of several invoices gets them in one IN-list query per batch.
+    @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
+    @BatchSize(size = 200)
     @JsonManagedReference
     private List<InvoiceItem> items = new ArrayList<>();
 
@@ -105,16 +129,20 @@ public class Invoice {
     }
 
     // Helper methods
+    // Adjusts the total by the one line instead of re-summing every item
     public void addItem(InvoiceItem item) {
         items.add(item);
         item.setInvoice(this);
-        calculateTotalAmount();
+        long total = GstCalculator.toPaise(totalAmount) + GstCalculator.toPaise(item.getTotalPrice());
+        this.totalAmount = GstCalculator.toAmount(total);
     }
 
     public void removeItem(InvoiceItem item) {
-        items.remove(item);
+        if (items.remove(item)) {
+            long total = GstCalculator.toPaise(totalAmount) - GstCalculator.toPaise(item.getTotalPrice());
+            this.totalAmount = GstCalculator.toAmount(total);
+        }
         item.setInvoice(null);
-        calculateTotalAmount();
     }
 
     public void clearItems() {
@@ -131,12 +159,11 @@ public class Invoice {
             return;
         }
 
-        BigDecimal total = items.stream()
-            .filter(item -> item.getTotalPrice() != null)
-            .map(InvoiceItem::getTotalPrice)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        this.totalAmount = total;
+        long total = 0;
+        for (InvoiceItem item : items) {
+            total += GstCalculator.toPaise(item.getTotalPrice());
+        }
+        this.totalAmount = GstCalculator.toAmount(total);
     }
 
     public void validateForPersistence() {
@@ -201,6 +228,14 @@ public class Invoice {
         this.customerMobile = customerMobile;
     }
 
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
     public String getCustomerAddress() {
         return customerAddress;
     }
@@ -249,6 +284,14 @@ public class Invoice {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public LocalDateTime getDateTime() {
         return dateTime;
     }
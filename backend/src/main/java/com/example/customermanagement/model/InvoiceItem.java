@@ -1,7 +1,9 @@
 package com.example.customermanagement.model;
 
 import java.math.BigDecimal;
+import java.util.Objects;
 
+import com.example.customermanagement.pricing.GstCalculator;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 import jakarta.persistence.Column;
@@ -10,10 +12,12 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
@@ -21,11 +25,14 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
-@Table(name = "invoice_items")
+@Table(name = "invoice_items", indexes = {
+    @Index(name = "idx_invoice_items_invoice_id", columnList = "invoice_id")
+})
 public class InvoiceItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_item_seq")
+    @SequenceGenerator(name = "invoice_item_seq", sequenceName = "invoice_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -40,6 +47,10 @@ public class InvoiceItem {
     @Column(name = "item_description")
     private String itemDescription;
 
+    // Catalogue product the line sells, when known; such lines move stock
+    @Column(name = "product_id")
+    private Long productId;
+
     @NotNull(message = "Quantity is required")
     @Min(value = 1, message = "Quantity must be at least 1")
     @Column(name = "quantity", nullable = false)
@@ -87,14 +98,47 @@ public class InvoiceItem {
     @PreUpdate
     public void calculateAmounts() {
         if (unitPrice == null || quantity == null) return;
-
-        BigDecimal subtotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
-
-        cgstAmount = (cgstRate != null ? subtotal.multiply(cgstRate).divide(BigDecimal.valueOf(100)) : BigDecimal.ZERO);
-        sgstAmount = (sgstRate != null ? subtotal.multiply(sgstRate).divide(BigDecimal.valueOf(100)) : BigDecimal.ZERO);
-        taxAmount = cgstAmount.add(sgstAmount);
-
-        totalPrice = subtotal.add(taxAmount);
+        applyPricing();
+    }
+
+    // Sets the tax and total fields from unit price, quantity and rates; returns the line total in paise
+    public long applyPricing() {
+        long subtotal = GstCalculator.lineSubtotal(unitPrice, quantity);
+        long cgst = GstCalculator.tax(subtotal, cgstRate);
+        long sgst = GstCalculator.tax(subtotal, sgstRate);
+        long total = subtotal + cgst + sgst;
+
+        cgstAmount = GstCalculator.toAmount(cgst);
+        sgstAmount = GstCalculator.toAmount(sgst);
+        taxAmount = GstCalculator.toAmount(cgst + sgst);
+        totalPrice = GstCalculator.toAmount(total);
+        return total;
+    }
+
+    // Copies the editable fields of an incoming line and reprices; false, leaving the row clean, when nothing differs
+    public boolean updateFrom(InvoiceItem source) {
+        if (Objects.equals(itemName, source.itemName)
+                && Objects.equals(itemDescription, source.itemDescription)
+                && Objects.equals(productId, source.productId)
+                && Objects.equals(quantity, source.quantity)
+                && sameAmount(unitPrice, source.unitPrice)
+                && sameAmount(cgstRate, source.cgstRate)
+                && sameAmount(sgstRate, source.sgstRate)) {
+            return false;
+        }
+        itemName = source.itemName;
+        itemDescription = source.itemDescription;
+        productId = source.productId;
+        quantity = source.quantity;
+        unitPrice = source.unitPrice;
+        cgstRate = source.cgstRate;
+        sgstRate = source.sgstRate;
+        applyPricing();
+        return true;
+    }
+
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
     }
 
     // Getters and Setters
@@ -130,6 +174,14 @@ public class InvoiceItem {
         this.itemDescription = itemDescription;
     }
 
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
     public Integer getQuantity() {
         return quantity;
     }
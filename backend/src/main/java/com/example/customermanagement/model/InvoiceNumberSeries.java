@@ -0,0 +1,42 @@
+package com.example.customermanagement.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+
+// Counter row per invoice number series; nodes reserve numbers from it in blocks
+@Entity
+@Table(name = "invoice_number_series")
+public class InvoiceNumberSeries {
+
+    @Id
+    @Column(name = "series_key", length = 50)
+    private String seriesKey;
+
+    // First number not yet handed out to any node
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getSeriesKey() { return seriesKey; }
+    public void setSeriesKey(String seriesKey) { this.seriesKey = seriesKey; }
+
+    public Long getNextValue() { return nextValue; }
+    public void setNextValue(Long nextValue) { this.nextValue = nextValue; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
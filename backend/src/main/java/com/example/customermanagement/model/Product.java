@@ -3,6 +3,8 @@ package com.example.customermanagement.model;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -11,6 +13,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -44,6 +47,17 @@ public class Product {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Optimistic lock for product edits; the default fills existing rows when ddl-auto adds the column
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
+    // Units not yet claimed by any node, see StockReservations. Only changed by its conditional
+    // UPDATEs, never by saving the entity, so sales do not bump the version or clash with edits.
+    @JsonIgnore
+    @Column(name = "stock_available", insertable = false, updatable = false)
+    private Long stockAvailable;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -103,4 +117,16 @@ public class Product {
     public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getStockAvailable() {
+        return stockAvailable;
+    }
 }
\ No newline at end of file
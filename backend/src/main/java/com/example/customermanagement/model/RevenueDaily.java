@@ -0,0 +1,71 @@
+package com.example.customermanagement.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+// Invoice count and amount per invoice day and payment status, kept in step with every invoice write
+@Entity
+@Table(name = "revenue_daily")
+public class RevenueDaily {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "invoice_count", nullable = false)
+    private Long invoiceCount;
+
+    @Column(name = "total_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalAmount;
+
+    // Getters and Setters
+    public Key getId() { return id; }
+    public void setId(Key id) { this.id = id; }
+
+    public Long getInvoiceCount() { return invoiceCount; }
+    public void setInvoiceCount(Long invoiceCount) { this.invoiceCount = invoiceCount; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Column(name = "day", nullable = false)
+        private LocalDate day;
+
+        @Column(name = "payment_status", nullable = false, length = 20)
+        private String paymentStatus;
+
+        public Key() {
+        }
+
+        public Key(LocalDate day, String paymentStatus) {
+            this.day = day;
+            this.paymentStatus = paymentStatus;
+        }
+
+        public LocalDate getDay() { return day; }
+        public String getPaymentStatus() { return paymentStatus; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(day, key.day) && Objects.equals(paymentStatus, key.paymentStatus);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(day, paymentStatus);
+        }
+    }
+}
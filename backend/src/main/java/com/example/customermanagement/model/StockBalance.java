@@ -0,0 +1,34 @@
+package com.example.customermanagement.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// On-hand quantity per product as of the last ledger snapshot; written only by the snapshot query
+@Entity
+@Table(name = "stock_balances")
+public class StockBalance {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "on_hand", nullable = false)
+    private Long onHand;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // stock_movements.ledger_seq folded in by the snapshot that last wrote this row; the highest
+    // across the table is the snapshot's high-water mark
+    @Column(name = "folded_through")
+    private Long foldedThrough;
+
+    public Long getProductId() { return productId; }
+    public Long getOnHand() { return onHand; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public Long getFoldedThrough() { return foldedThrough; }
+}
@@ -0,0 +1,94 @@
+package com.example.customermanagement.model;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+// One entry of the append-only stock ledger: a signed change to a product's on-hand quantity
+@Entity
+@Table(name = "stock_movements", indexes = {
+    @Index(name = "idx_stock_movements_product_id", columnList = "product_id, id")
+})
+public class StockMovement {
+
+    // sign turns a line quantity into a stock change: purchases add, sales remove
+    public enum Reason {
+        PURCHASE(1), SALE(-1), ADJUSTMENT(1);
+
+        private final int sign;
+
+        Reason(int sign) {
+            this.sign = sign;
+        }
+
+        public int getSign() { return sign; }
+    }
+
+    @Id
+    // Pooled sequence ids let the movements of a batch import go out as JDBC batches
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movement_seq")
+    @SequenceGenerator(name = "stock_movement_seq", sequenceName = "stock_movements_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private Long productId;
+
+    @Column(name = "quantity", nullable = false, updatable = false)
+    private Long quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reason", nullable = false, updatable = false, length = 20)
+    private Reason reason;
+
+    // "invoice" or "vendor_invoice" and its id; null for manual adjustments
+    @Column(name = "source_type", updatable = false, length = 20)
+    private String sourceType;
+
+    @Column(name = "source_id", updatable = false)
+    private Long sourceId;
+
+    @Column(name = "note", updatable = false)
+    private String note;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Assigned by the database as the row is inserted (a column default on stock_movements_ledger_seq),
+    // unlike the pooled id; the snapshot folds everything above its high-water mark of this column
+    @JsonIgnore
+    @Column(name = "ledger_seq", insertable = false, updatable = false)
+    private Long ledgerSeq;
+
+    protected StockMovement() {
+    }
+
+    public StockMovement(Long productId, long quantity, Reason reason, String sourceType, Long sourceId, String note) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.reason = reason;
+        this.sourceType = sourceType;
+        this.sourceId = sourceId;
+        this.note = note;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getId() { return id; }
+    public Long getProductId() { return productId; }
+    public Long getQuantity() { return quantity; }
+    public Reason getReason() { return reason; }
+    public String getSourceType() { return sourceType; }
+    public Long getSourceId() { return sourceId; }
+    public String getNote() { return note; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -1,9 +1,16 @@
 package com.example.customermanagement.model;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.BatchSize;
+
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 import jakarta.persistence.CascadeType;
@@ -17,12 +24,26 @@ import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
 @Table(name = "vendor_invoices")
 public class VendorInvoice {
+
+    // Formats accepted in dateTime; the UI writes the first. Day-first, matching how dates are entered.
+    private static final List<DateTimeFormatter> DATE_TIME_FORMATS = List.of(
+        strict("d-M-uuuu H:mm"),
+        strict("d/M/uuuu H:mm"),
+        strict("uuuu-M-d H:mm"),
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+        strict("d-M-uuuu"),
+        strict("d/M/uuuu"),
+        DateTimeFormatter.ISO_LOCAL_DATE);
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -49,6 +70,11 @@ public class VendorInvoice {
     @Column(name = "date_time", nullable = false)
     private String dateTime;
 
+    // dateTime as a real timestamp, which date filters and purchase aggregations use; null when
+    // dateTime is not in a recognised format. Kept in step by setDateTime, older rows are backfilled.
+    @Column(name = "invoice_timestamp")
+    private LocalDateTime invoiceTimestamp;
+
     @NotNull(message = "Subtotal is required")
     @Column(name = "subtotal", nullable = false, precision = 10, scale = 2)
     private BigDecimal subtotal;
@@ -61,9 +87,12 @@ public class VendorInvoice {
     @Column(name = "grand_total", nullable = false, precision = 10, scale = 2)
     private BigDecimal grandTotal;
 
-    @OneToMany(mappedBy = "vendorInvoice", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    // Unpaged lists initialise lines for up to 100 invoices per query instead of one each.
+    // Lines dropped by an update are deleted rather than left pointing at the invoice.
+    @OneToMany(mappedBy = "vendorInvoice", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     @JsonManagedReference
-    private List<VendorInvoiceItem> items;
+    @BatchSize(size = 100)
+    private List<VendorInvoiceItem> items = new ArrayList<>();
 
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -71,6 +100,11 @@ public class VendorInvoice {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Optimistic lock; the default fills existing rows when ddl-auto adds the column
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -102,7 +136,12 @@ public class VendorInvoice {
     public void setVendorPhone(String vendorPhone) { this.vendorPhone = vendorPhone; }
 
     public String getDateTime() { return dateTime; }
-    public void setDateTime(String dateTime) { this.dateTime = dateTime; }
+    public void setDateTime(String dateTime) {
+        this.dateTime = dateTime;
+        this.invoiceTimestamp = parseDateTime(dateTime);
+    }
+
+    public LocalDateTime getInvoiceTimestamp() { return invoiceTimestamp; }
 
     public BigDecimal getSubtotal() { return subtotal; }
     public void setSubtotal(BigDecimal subtotal) { this.subtotal = subtotal; }
@@ -116,6 +155,54 @@ public class VendorInvoice {
     public List<VendorInvoiceItem> getItems() { return items; }
     public void setItems(List<VendorInvoiceItem> items) { this.items = items; }
 
+    public void addItem(VendorInvoiceItem item) {
+        items.add(item);
+        item.setVendorInvoice(this);
+    }
+
+    public void removeItem(VendorInvoiceItem item) {
+        items.remove(item);
+        item.setVendorInvoice(null);
+    }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
-}
\ No newline at end of file
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getVersion() { return version; }
+
+    public static LocalDateTime parseDateTime(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String text = value.trim();
+        for (DateTimeFormatter format : DATE_TIME_FORMATS) {
+            try {
+                return LocalDateTime.parse(text, format);
+            } catch (DateTimeParseException e) {
+                // try the next format
+            }
+        }
+        LocalDate date = parseDate(text);
+        return date != null ? date.atStartOfDay() : null;
+    }
+
+    // A date without a time of day, or null
+    public static LocalDate parseDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(value.trim(), format);
+            } catch (DateTimeParseException e) {
+                // try the next format
+            }
+        }
+        return null;
+    }
+
+    private static DateTimeFormatter strict(String pattern) {
+        return DateTimeFormatter.ofPattern(pattern).withResolverStyle(ResolverStyle.STRICT);
+    }
+}
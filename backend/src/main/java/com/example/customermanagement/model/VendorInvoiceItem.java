@@ -1,6 +1,7 @@
 package com.example.customermanagement.model;
 
 import java.math.BigDecimal;
+import java.util.Objects;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
@@ -85,4 +86,43 @@ public class VendorInvoiceItem {
 
     public BigDecimal getTotal() { return total; }
     public void setTotal(BigDecimal total) { this.total = total; }
-}
\ No newline at end of file
+
+    // Copies an incoming line (in a partial edit, only the fields it sets) and reports whether anything differed
+    public boolean updateFrom(VendorInvoiceItem source, boolean partial) {
+        Long newProductId = pick(source.productId, productId, partial);
+        String newProductName = pick(source.productName, productName, partial);
+        String newCategory = pick(source.category, category, partial);
+        Integer newQuantity = pick(source.quantity, quantity, partial);
+        BigDecimal newUnitPrice = pick(source.unitPrice, unitPrice, partial);
+        BigDecimal newCgstPercent = pick(source.cgstPercent, cgstPercent, partial);
+        BigDecimal newSgstPercent = pick(source.sgstPercent, sgstPercent, partial);
+        BigDecimal newTotal = pick(source.total, total, partial);
+        if (Objects.equals(productId, newProductId)
+                && Objects.equals(productName, newProductName)
+                && Objects.equals(category, newCategory)
+                && Objects.equals(quantity, newQuantity)
+                && sameAmount(unitPrice, newUnitPrice)
+                && sameAmount(cgstPercent, newCgstPercent)
+                && sameAmount(sgstPercent, newSgstPercent)
+                && sameAmount(total, newTotal)) {
+            return false;
+        }
+        productId = newProductId;
+        productName = newProductName;
+        category = newCategory;
+        quantity = newQuantity;
+        unitPrice = newUnitPrice;
+        cgstPercent = newCgstPercent;
+        sgstPercent = newSgstPercent;
+        total = newTotal;
+        return true;
+    }
+
+    private static <V> V pick(V incoming, V current, boolean partial) {
+        return partial && incoming == null ? current : incoming;
+    }
+
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+}
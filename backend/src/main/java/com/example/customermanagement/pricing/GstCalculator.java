@@ -0,0 +1,58 @@
+package com.example.customermanagement.pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point GST arithmetic. Amounts are carried as long paise and rates as
+ * long basis points (hundredths of a percent), so pricing a line is a handful
+ * of integer operations instead of a chain of BigDecimal intermediates.
+ *
+ * Rounding rules:
+ *  - unit prices are taken to the paisa (HALF_UP), as the unit_price column stores them
+ *  - CGST and SGST are each computed on the line subtotal and rounded HALF_UP to the paisa
+ *  - tax is CGST + SGST, line total is subtotal + tax, invoice total is the sum of line totals
+ * Whenever the exact amounts already fall on whole paise this matches the previous
+ * BigDecimal math exactly.
+ */
+public final class GstCalculator {
+
+    private static final long BASIS_POINTS_PER_UNIT = 10_000;
+
+    private GstCalculator() {
+    }
+
+    // unitPrice x quantity in paise
+    public static long lineSubtotal(BigDecimal unitPrice, int quantity) {
+        return Math.multiplyExact(toPaise(unitPrice), (long) quantity);
+    }
+
+    // One tax component in paise; a missing or non-positive rate means no tax
+    public static long tax(long subtotalPaise, BigDecimal ratePercent) {
+        if (ratePercent == null || ratePercent.signum() <= 0) {
+            return 0;
+        }
+        return divideHalfUp(Math.multiplyExact(subtotalPaise, toBasisPoints(ratePercent)), BASIS_POINTS_PER_UNIT);
+    }
+
+    public static long toPaise(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    public static BigDecimal toAmount(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    static long toBasisPoints(BigDecimal ratePercent) {
+        return ratePercent.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    // Integer division rounding half away from zero, like RoundingMode.HALF_UP
+    static long divideHalfUp(long dividend, long divisor) {
+        long half = divisor / 2;
+        return dividend >= 0 ? (dividend + half) / divisor : -((-dividend + half) / divisor);
+    }
+}
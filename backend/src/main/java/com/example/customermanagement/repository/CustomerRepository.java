@@ -1,5 +1,7 @@
 package com.example.customermanagement.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -8,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.customermanagement.dto.ResourceVersion;
 import com.example.customermanagement.model.Customer;
 
 @Repository
@@ -16,6 +19,18 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     // Email existence check
     boolean existsByEmail(String email);
     
+    // Customers holding either key, to confirm possible duplicates in one round trip; a null key matches nothing
+    @Query("SELECT c FROM Customer c WHERE c.email = :email OR c.phone = :phone")
+    List<Customer> findByEmailOrPhone(@Param("email") String email, @Param("phone") String phone);
+    
+    // Invoice linking: phones are stored as ten digits, matched exactly against the unique index
+    @Query("SELECT c.id FROM Customer c WHERE c.phone = :phone")
+    Optional<Long> findIdByPhone(@Param("phone") String phone);
+    
+    // [id, phone] for each customer holding one of the phones
+    @Query("SELECT c.id, c.phone FROM Customer c WHERE c.phone IN :phones")
+    List<Object[]> findIdsByPhoneIn(@Param("phones") Collection<String> phones);
+    
     // Find by email
     @Query("SELECT c FROM Customer c WHERE LOWER(c.email) = LOWER(:email)")
     Optional<Customer> findByEmail(@Param("email") String email);
@@ -37,4 +52,11 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     
     @Query("SELECT c FROM Customer c WHERE LOWER(c.email) LIKE LOWER(CONCAT('%', :email, '%'))")
     List<Customer> findByEmailContainingIgnoreCase(@Param("email") String email);
+    
+    // Validators for conditional GETs
+    @Query("SELECT c.updatedAt FROM Customer c WHERE c.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+    
+    @Query("SELECT new com.example.customermanagement.dto.ResourceVersion(COUNT(c), MAX(c.updatedAt)) FROM Customer c")
+    ResourceVersion findVersion();
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.example.customermanagement.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.customermanagement.model.CustomerTotals;
+
+@Repository
+public interface CustomerTotalsRepository extends JpaRepository<CustomerTotals, Long> {
+
+    // What one invoice adds to its customer's row; same rules as CustomerHistoryService.contributionOf
+    String LIFETIME_VALUE = "CASE WHEN payment_status = 'CANCELLED' THEN 0 ELSE total_amount END";
+    String OUTSTANDING = "CASE WHEN payment_status IN ('PENDING', 'PARTIALLY_PAID', 'OVERDUE') THEN total_amount ELSE 0 END";
+
+    // Adds one invoice to a customer's row, creating it on first use
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO customer_totals (customer_id, invoice_count, lifetime_value, outstanding_balance, last_invoice_date) " +
+                   "VALUES (:customerId, :countDelta, :valueDelta, :outstandingDelta, :invoiceDate) " +
+                   "ON CONFLICT (customer_id) DO UPDATE SET " +
+                   "invoice_count = customer_totals.invoice_count + EXCLUDED.invoice_count, " +
+                   "lifetime_value = customer_totals.lifetime_value + EXCLUDED.lifetime_value, " +
+                   "outstanding_balance = customer_totals.outstanding_balance + EXCLUDED.outstanding_balance, " +
+                   "last_invoice_date = GREATEST(customer_totals.last_invoice_date, EXCLUDED.last_invoice_date)",
+           nativeQuery = true)
+    int add(@Param("customerId") Long customerId, @Param("countDelta") long countDelta,
+            @Param("valueDelta") BigDecimal valueDelta, @Param("outstandingDelta") BigDecimal outstandingDelta,
+            @Param("invoiceDate") LocalDateTime invoiceDate);
+
+    // Takes one invoice out of a customer's row. A maximum cannot be decremented, so the last invoice
+    // date is looked up again among the customer's other invoices (idx_invoices_customer_date)
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE customer_totals SET invoice_count = invoice_count - 1, " +
+                   "lifetime_value = lifetime_value - :valueDelta, " +
+                   "outstanding_balance = outstanding_balance - :outstandingDelta, " +
+                   "last_invoice_date = (SELECT MAX(i.invoice_date) FROM invoices i " +
+                   "WHERE i.customer_id = :customerId AND i.id <> :invoiceId) " +
+                   "WHERE customer_id = :customerId",
+           nativeQuery = true)
+    int remove(@Param("customerId") Long customerId, @Param("invoiceId") Long invoiceId,
+               @Param("valueDelta") BigDecimal valueDelta, @Param("outstandingDelta") BigDecimal outstandingDelta);
+
+    // Blocks invoice writes until the rebuilding transaction commits so no delta is lost or counted twice
+    @Modifying
+    @Query(value = "LOCK TABLE invoices IN SHARE MODE", nativeQuery = true)
+    void lockInvoicesForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM customer_totals", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying
+    @Query(value = "INSERT INTO customer_totals (customer_id, invoice_count, lifetime_value, outstanding_balance, last_invoice_date) " +
+                   "SELECT customer_id, COUNT(*), SUM(" + LIFETIME_VALUE + "), SUM(" + OUTSTANDING + "), MAX(invoice_date) " +
+                   "FROM invoices WHERE customer_id IS NOT NULL GROUP BY customer_id",
+           nativeQuery = true)
+    int insertFromInvoices();
+}
@@ -1,55 +1,174 @@
 package com.example.customermanagement.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.customermanagement.dto.InvoiceExportRow;
+import com.example.customermanagement.dto.InvoicePdfKey;
+import com.example.customermanagement.dto.InvoiceSearchHit;
+import com.example.customermanagement.dto.InvoiceSummary;
+import com.example.customermanagement.dto.PaymentStatusAggregate;
 import com.example.customermanagement.model.Invoice;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     
+    // Projection for list views; the select aliases match the InvoiceSummary getters
+    String SUMMARY_SELECT = "SELECT i.id AS id, i.invoiceNo AS invoiceNo, i.customerName AS customerName, " +
+                            "i.customerMobile AS customerMobile, i.invoiceDate AS invoiceDate, " +
+                            "i.totalAmount AS totalAmount, i.paymentStatus AS paymentStatus FROM Invoice i ";
+    
+    // Detail views: items are lazy everywhere else, these two load them in the same query
+    @Override
+    @EntityGraph(attributePaths = "items")
+    Optional<Invoice> findById(Long id);
+    
     // Find invoice by invoice number
+    @EntityGraph(attributePaths = "items")
     Optional<Invoice> findByInvoiceNo(String invoiceNo);
     
     // Check if invoice number exists
     boolean existsByInvoiceNo(String invoiceNo);
     
-    // Find invoices by customer name (case insensitive)
-    @Query("SELECT i FROM Invoice i WHERE LOWER(i.customerName) LIKE LOWER(CONCAT('%', :customerName, '%'))")
-    List<Invoice> findByCustomerNameContainingIgnoreCase(@Param("customerName") String customerName);
+    // Which of the given invoice numbers are already taken, in one round trip
+    @Query("SELECT i.invoiceNo FROM Invoice i WHERE i.invoiceNo IN :invoiceNos")
+    List<String> findExistingInvoiceNos(@Param("invoiceNos") Collection<String> invoiceNos);
     
-    // Find invoices by customer mobile
-    List<Invoice> findByCustomerMobile(String customerMobile);
+    // Keyset pages, newest first. Each listing has a first-page query and one that continues after a
+    // cursor, so neither carries a placeholder bound.
+    String AFTER_CURSOR = "(i.invoiceDate < :cursorDate OR (i.invoiceDate = :cursorDate AND i.id < :cursorId)) ";
+    String NEWEST_FIRST = "ORDER BY i.invoiceDate DESC, i.id DESC";
+
+    @Query(SUMMARY_SELECT + NEWEST_FIRST)
+    List<InvoiceSummary> findFirstPage(Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE " + AFTER_CURSOR + NEWEST_FIRST)
+    List<InvoiceSummary> findPage(@Param("cursorDate") LocalDateTime cursorDate,
+                                  @Param("cursorId") Long cursorId,
+                                  Pageable pageable);
     
-    // Find invoices within date range
-    @Query("SELECT i FROM Invoice i WHERE i.invoiceDate BETWEEN :startDate AND :endDate ORDER BY i.invoiceDate DESC")
-    List<Invoice> findByInvoiceDateBetween(@Param("startDate") LocalDateTime startDate, 
-                                          @Param("endDate") LocalDateTime endDate);
+    // By customer name (case insensitive)
+    @Query(SUMMARY_SELECT + "WHERE LOWER(i.customerName) LIKE LOWER(CONCAT('%', :customerName, '%')) " + NEWEST_FIRST)
+    List<InvoiceSummary> findFirstPageByCustomerName(@Param("customerName") String customerName, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE LOWER(i.customerName) LIKE LOWER(CONCAT('%', :customerName, '%')) AND " +
+           AFTER_CURSOR + NEWEST_FIRST)
+    List<InvoiceSummary> findPageByCustomerName(@Param("customerName") String customerName,
+                                                @Param("cursorDate") LocalDateTime cursorDate,
+                                                @Param("cursorId") Long cursorId,
+                                                Pageable pageable);
     
-    // Find recent invoices (last 30 days)
-    @Query("SELECT i FROM Invoice i WHERE i.invoiceDate >= :thirtyDaysAgo ORDER BY i.invoiceDate DESC")
-    List<Invoice> findRecentInvoices(@Param("thirtyDaysAgo") LocalDateTime thirtyDaysAgo);
+    // By customer mobile
+    @Query(SUMMARY_SELECT + "WHERE i.customerMobile = :customerMobile " + NEWEST_FIRST)
+    List<InvoiceSummary> findFirstPageByCustomerMobile(@Param("customerMobile") String customerMobile, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE i.customerMobile = :customerMobile AND " + AFTER_CURSOR + NEWEST_FIRST)
+    List<InvoiceSummary> findPageByCustomerMobile(@Param("customerMobile") String customerMobile,
+                                                  @Param("cursorDate") LocalDateTime cursorDate,
+                                                  @Param("cursorId") Long cursorId,
+                                                  Pageable pageable);
     
-    // Search invoices by term (invoice number, customer name, or mobile)
-    @Query("SELECT DISTINCT i FROM Invoice i LEFT JOIN FETCH i.items WHERE " +
-           "LOWER(i.invoiceNo) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(i.customerName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "i.customerMobile LIKE CONCAT('%', :searchTerm, '%')")
-    List<Invoice> searchInvoices(@Param("searchTerm") String searchTerm);
+    // Within a date range, both bounds inclusive
+    @Query(SUMMARY_SELECT + "WHERE i.invoiceDate BETWEEN :startDate AND :endDate " + NEWEST_FIRST)
+    List<InvoiceSummary> findFirstPageByInvoiceDateBetween(@Param("startDate") LocalDateTime startDate,
+                                                           @Param("endDate") LocalDateTime endDate,
+                                                           Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE i.invoiceDate BETWEEN :startDate AND :endDate AND " + AFTER_CURSOR + NEWEST_FIRST)
+    List<InvoiceSummary> findPageByInvoiceDateBetween(@Param("startDate") LocalDateTime startDate,
+                                                      @Param("endDate") LocalDateTime endDate,
+                                                      @Param("cursorDate") LocalDateTime cursorDate,
+                                                      @Param("cursorId") Long cursorId,
+                                                      Pageable pageable);
     
-    // Find all invoices ordered by date (newest first)
-    @Query("SELECT DISTINCT i FROM Invoice i LEFT JOIN FETCH i.items ORDER BY i.invoiceDate DESC")
-    List<Invoice> findAllByOrderByInvoiceDateDesc();
+    // Dated on or after a day, with no upper bound
+    @Query(SUMMARY_SELECT + "WHERE i.invoiceDate >= :startDate " + NEWEST_FIRST)
+    List<InvoiceSummary> findFirstPageByInvoiceDateFrom(@Param("startDate") LocalDateTime startDate, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE i.invoiceDate >= :startDate AND " + AFTER_CURSOR + NEWEST_FIRST)
+    List<InvoiceSummary> findPageByInvoiceDateFrom(@Param("startDate") LocalDateTime startDate,
+                                                   @Param("cursorDate") LocalDateTime cursorDate,
+                                                   @Param("cursorId") Long cursorId,
+                                                   Pageable pageable);
+    
+    // Matches for a search with their rank: exact 0, prefix 1, substring 2. Patterns arrive lower-cased
+    // and LIKE-escaped; the trigram GIN indexes serve the LIKE filters.
+    String SEARCH_MATCHES = "SELECT * FROM (SELECT i.id AS id, i.invoice_date AS invoiceDate, CASE " +
+        "WHEN LOWER(i.invoice_no) = :term OR i.customer_mobile = :term OR LOWER(i.customer_name) = :term THEN 0 " +
+        "WHEN LOWER(i.invoice_no) LIKE :prefix ESCAPE '\\' OR i.customer_mobile LIKE :prefix ESCAPE '\\' " +
+        "OR LOWER(i.customer_name) LIKE :prefix ESCAPE '\\' THEN 1 ELSE 2 END AS matchRank " +
+        "FROM invoices i WHERE " +
+        "LOWER(i.invoice_no) LIKE :pattern ESCAPE '\\' OR " +
+        "LOWER(i.customer_name) LIKE :pattern ESCAPE '\\' OR " +
+        "i.customer_mobile LIKE :pattern ESCAPE '\\') m ";
+    String SEARCH_RANKING = "ORDER BY m.matchRank, m.invoiceDate DESC, m.id DESC LIMIT :limit";
+
+    // The best matches, ranked, then newest first
+    @Query(value = SEARCH_MATCHES + SEARCH_RANKING, nativeQuery = true)
+    List<InvoiceSearchHit> searchFirstPage(@Param("term") String term,
+                                           @Param("pattern") String pattern,
+                                           @Param("prefix") String prefix,
+                                           @Param("limit") int limit);
+
+    @Query(value = SEARCH_MATCHES + "WHERE m.matchRank > :cursorRank OR (m.matchRank = :cursorRank AND " +
+                   "(m.invoiceDate < :cursorDate OR (m.invoiceDate = :cursorDate AND m.id < :cursorId))) " +
+                   SEARCH_RANKING,
+           nativeQuery = true)
+    List<InvoiceSearchHit> searchPage(@Param("term") String term,
+                                      @Param("pattern") String pattern,
+                                      @Param("prefix") String prefix,
+                                      @Param("cursorRank") int cursorRank,
+                                      @Param("cursorDate") LocalDateTime cursorDate,
+                                      @Param("cursorId") Long cursorId,
+                                      @Param("limit") int limit);
+    
+    // A customer's latest invoices, newest first (idx_invoices_customer_date)
+    @Query(SUMMARY_SELECT + "WHERE i.customerId = :customerId ORDER BY i.invoiceDate DESC, i.id DESC")
+    List<InvoiceSummary> findRecentByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
+    
+    boolean existsByCustomerIdIsNotNull();
+    
+    @Query(SUMMARY_SELECT + "WHERE i.id IN :ids")
+    List<InvoiceSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
     
     // Find invoices by payment status
     List<Invoice> findByPaymentStatus(Invoice.PaymentStatus paymentStatus);
     
+    // Counts and totals per payment status, plus how many were dated on or after :since, in one pass
+    @Query("SELECT i.paymentStatus AS paymentStatus, COUNT(i) AS invoiceCount, " +
+           "COALESCE(SUM(i.totalAmount), 0) AS totalAmount, " +
+           "SUM(CASE WHEN i.invoiceDate >= :since THEN 1 ELSE 0 END) AS recentCount " +
+           "FROM Invoice i GROUP BY i.paymentStatus")
+    List<PaymentStatusAggregate> aggregateByPaymentStatus(@Param("since") LocalDateTime since);
+    
+    // Validators for conditional GETs; these read one column and never load the invoice
+    @Query("SELECT i.updatedAt FROM Invoice i WHERE i.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+    
+    @Query("SELECT i.updatedAt FROM Invoice i WHERE i.invoiceNo = :invoiceNo")
+    Optional<LocalDateTime> findUpdatedAtByInvoiceNo(@Param("invoiceNo") String invoiceNo);
+    
+    @Query("SELECT i.id AS id, i.invoiceNo AS invoiceNo, i.updatedAt AS updatedAt FROM Invoice i WHERE i.id IN :ids")
+    List<InvoicePdfKey> findPdfKeysByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Served by idx_invoices_updated_at as a single index probe
+    @Query("SELECT MAX(i.updatedAt) FROM Invoice i")
+    LocalDateTime findLastUpdatedAt();
+    
     // Get invoice count
     @Query("SELECT COUNT(i) FROM Invoice i")
     Long countAllInvoices();
@@ -58,13 +177,17 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     @Query("SELECT i.invoiceNo FROM Invoice i ORDER BY i.id DESC LIMIT 1")
     Optional<String> findLatestInvoiceNumber();
     
-    // Get total revenue
-    @Query("SELECT SUM(i.totalAmount) FROM Invoice i WHERE i.paymentStatus = 'PAID'")
-    Optional<Double> getTotalRevenue();
-    
-    // Get monthly revenue
-    @Query("SELECT SUM(i.totalAmount) FROM Invoice i WHERE " +
-           "i.paymentStatus = 'PAID' AND " +
-           "YEAR(i.invoiceDate) = :year AND MONTH(i.invoiceDate) = :month")
-    Optional<Double> getMonthlyRevenue(@Param("year") int year, @Param("month") int month);
-}
\ No newline at end of file
+    // Forward-only cursor over invoice lines for exports; rows are DTOs so nothing accumulates in the session
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.example.customermanagement.dto.InvoiceExportRow(" +
+           "i.id, i.invoiceNo, i.customerName, i.customerMobile, i.customerAddress, i.invoiceDate, " +
+           "i.totalAmount, i.paymentStatus, it.id, it.itemName, it.itemDescription, it.quantity, " +
+           "it.unitPrice, it.cgstRate, it.sgstRate, it.cgstAmount, it.sgstAmount, it.taxAmount, it.totalPrice) " +
+           "FROM Invoice i LEFT JOIN i.items it " +
+           "WHERE i.invoiceDate >= :from AND i.invoiceDate < :to " +
+           "ORDER BY i.invoiceDate, i.id, it.id")
+    Stream<InvoiceExportRow> streamExportRows(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
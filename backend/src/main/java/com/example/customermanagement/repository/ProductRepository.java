@@ -3,8 +3,6 @@ package com.example.customermanagement.repository;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.customermanagement.model.Product;
@@ -13,9 +11,4 @@ import com.example.customermanagement.model.Product;
 public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByNameContainingIgnoreCase(String name);
     List<Product> findByCategoryContainingIgnoreCase(String category);
-    
-    @Query("SELECT p FROM Product p WHERE " +
-           "LOWER(p.name) LIKE LOWER(CONCAT('%', :term, '%')) OR " +
-           "LOWER(p.category) LIKE LOWER(CONCAT('%', :term, '%'))")
-    List<Product> searchProducts(@Param("term") String term);
 }
\ No newline at end of file
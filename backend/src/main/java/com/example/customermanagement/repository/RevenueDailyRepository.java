@@ -0,0 +1,68 @@
+package com.example.customermanagement.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.customermanagement.dto.RevenueBucketRow;
+import com.example.customermanagement.model.RevenueDaily;
+
+@Repository
+public interface RevenueDailyRepository extends JpaRepository<RevenueDaily, RevenueDaily.Key> {
+
+    // Adds a (possibly negative) delta to one day/status row, creating it on first use. Pending invoice
+    // rows are flushed first, so their table lock is taken before this row's, in the same order as rebuild
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO revenue_daily (day, payment_status, invoice_count, total_amount) " +
+                   "VALUES (:day, :status, :countDelta, :amountDelta) " +
+                   "ON CONFLICT (day, payment_status) DO UPDATE SET " +
+                   "invoice_count = revenue_daily.invoice_count + EXCLUDED.invoice_count, " +
+                   "total_amount = revenue_daily.total_amount + EXCLUDED.total_amount",
+           nativeQuery = true)
+    int applyDelta(@Param("day") LocalDate day, @Param("status") String status,
+                   @Param("countDelta") long countDelta, @Param("amountDelta") BigDecimal amountDelta);
+
+    // Blocks invoice writes until the rebuilding transaction commits so no delta is lost or counted twice
+    @Modifying
+    @Query(value = "LOCK TABLE invoices IN SHARE MODE", nativeQuery = true)
+    void lockInvoicesForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM revenue_daily", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying
+    @Query(value = "INSERT INTO revenue_daily (day, payment_status, invoice_count, total_amount) " +
+                   "SELECT CAST(invoice_date AS DATE), payment_status, COUNT(*), COALESCE(SUM(total_amount), 0) " +
+                   "FROM invoices GROUP BY CAST(invoice_date AS DATE), payment_status",
+           nativeQuery = true)
+    int insertFromInvoices();
+
+    // Invoice count from the rollup: a few hundred rows instead of a scan of invoices
+    @Query("SELECT COALESCE(SUM(r.invoiceCount), 0) FROM RevenueDaily r")
+    long countInvoices();
+
+    @Query("SELECT COALESCE(SUM(r.totalAmount), 0) FROM RevenueDaily r WHERE r.id.paymentStatus = :status")
+    BigDecimal sumAmountByStatus(@Param("status") String status);
+
+    // Upper bound is exclusive
+    @Query("SELECT COALESCE(SUM(r.totalAmount), 0) FROM RevenueDaily r " +
+           "WHERE r.id.paymentStatus = :status AND r.id.day >= :from AND r.id.day < :to")
+    BigDecimal sumAmountByStatusBetween(@Param("status") String status,
+                                        @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Both bounds inclusive; bucket is a date_trunc field (day, week or month)
+    @Query(value = "SELECT CAST(date_trunc(:bucket, day) AS DATE) AS periodStart, payment_status AS paymentStatus, " +
+                   "SUM(invoice_count) AS invoiceCount, SUM(total_amount) AS totalAmount " +
+                   "FROM revenue_daily WHERE day BETWEEN :from AND :to " +
+                   "GROUP BY 1, 2 HAVING SUM(invoice_count) <> 0 ORDER BY 1, 2",
+           nativeQuery = true)
+    List<RevenueBucketRow> findBuckets(@Param("bucket") String bucket,
+                                       @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
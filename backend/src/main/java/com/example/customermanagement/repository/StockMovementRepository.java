@@ -0,0 +1,62 @@
+package com.example.customermanagement.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.customermanagement.dto.StockBalanceRow;
+import com.example.customermanagement.model.StockMovement;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    // Newest first
+    List<StockMovement> findByProductIdOrderByIdDesc(Long productId, Pageable pageable);
+
+    // Highest ledger_seq already included in stock_balances
+    String FOLDED_THROUGH = "(SELECT COALESCE(MAX(folded_through), 0) FROM stock_balances)";
+
+    // Waits for the transactions writing movements to finish. An INSERT holds its table lock from before
+    // its ledger_seq is drawn until it commits, so once this is granted every number already drawn belongs
+    // to a finished transaction. New writers queue behind it until the transaction that takes it ends.
+    @Modifying
+    @Query(value = "LOCK TABLE stock_movements IN SHARE MODE", nativeQuery = true)
+    void lockForSnapshot();
+
+    // The last ledger_seq drawn by any session
+    @Query(value = "SELECT last_value FROM stock_movements_ledger_seq", nativeQuery = true)
+    long lastLedgerSeq();
+
+    // Self-conflicting but compatible with reads, so two snapshots (or instances) cannot fold the same movements
+    @Modifying
+    @Query(value = "LOCK TABLE stock_balances IN SHARE ROW EXCLUSIVE MODE", nativeQuery = true)
+    void lockBalancesForSnapshot();
+
+    // Adds the movements above the high-water mark, up to a bound that lockForSnapshot has shown to be
+    // settled, to stock_balances and moves the mark to the highest of them, in one statement. Movement
+    // rows are only read, never updated. Run after lockBalancesForSnapshot.
+    @Modifying
+    @Query(value = "WITH tail AS (" +
+                   "SELECT product_id, quantity, ledger_seq FROM stock_movements " +
+                   "WHERE ledger_seq > " + FOLDED_THROUGH + " AND ledger_seq <= :through) " +
+                   "INSERT INTO stock_balances (product_id, on_hand, updated_at, folded_through) " +
+                   "SELECT product_id, SUM(quantity), now(), (SELECT MAX(ledger_seq) FROM tail) FROM tail GROUP BY product_id " +
+                   "ON CONFLICT (product_id) DO UPDATE SET " +
+                   "on_hand = stock_balances.on_hand + EXCLUDED.on_hand, updated_at = EXCLUDED.updated_at, " +
+                   "folded_through = EXCLUDED.folded_through",
+           nativeQuery = true)
+    int foldIntoBalances(@Param("through") long through);
+
+    // Current on-hand per product: the snapshot plus the ledger tail since it
+    @Query(value = "SELECT product_id AS productId, SUM(quantity) AS onHand FROM (" +
+                   "SELECT product_id, on_hand AS quantity FROM stock_balances " +
+                   "UNION ALL SELECT product_id, quantity FROM stock_movements WHERE ledger_seq > " + FOLDED_THROUGH + ") ledger " +
+                   "GROUP BY product_id",
+           nativeQuery = true)
+    List<StockBalanceRow> loadBalances();
+}
@@ -1,29 +1,52 @@
 package com.example.customermanagement.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.customermanagement.dto.PurchaseBucket;
+import com.example.customermanagement.dto.ResourceVersion;
 import com.example.customermanagement.model.VendorInvoice;
 
 @Repository
-public interface VendorInvoiceRepository extends JpaRepository<VendorInvoice, Long> {
+public interface VendorInvoiceRepository extends JpaRepository<VendorInvoice, Long>, JpaSpecificationExecutor<VendorInvoice> {
     
     Optional<VendorInvoice> findByInvoiceNo(String invoiceNo);
     
     List<VendorInvoice> findByVendorId(Long vendorId);
     
-    List<VendorInvoice> findByVendorNameContainingIgnoreCase(String vendorName);
+    // Start inclusive, end exclusive
+    @Query("SELECT vi FROM VendorInvoice vi WHERE vi.invoiceTimestamp >= :start AND vi.invoiceTimestamp < :end " +
+           "ORDER BY vi.invoiceTimestamp, vi.id")
+    List<VendorInvoice> findByInvoiceTimestampRange(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
     
-    List<VendorInvoice> findByVendorPhone(String vendorPhone);
+    // Purchases per period, start inclusive and end exclusive; bucket is a date_trunc field (day, week or month)
+    @Query(value = "SELECT CAST(date_trunc(:bucket, invoice_timestamp) AS DATE) AS periodStart, COUNT(*) AS invoiceCount, " +
+                   "SUM(subtotal) AS subtotal, SUM(total_tax) AS totalTax, SUM(grand_total) AS grandTotal " +
+                   "FROM vendor_invoices WHERE invoice_timestamp >= :start AND invoice_timestamp < :end " +
+                   "GROUP BY 1 ORDER BY 1",
+           nativeQuery = true)
+    List<PurchaseBucket> findPurchaseBuckets(@Param("bucket") String bucket,
+                                             @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
     
-    @Query("SELECT vi FROM VendorInvoice vi WHERE vi.dateTime BETWEEN :startDate AND :endDate")
-    List<VendorInvoice> findByDateTimeBetween(@Param("startDate") String startDate, @Param("endDate") String endDate);
-    
-    @Query("SELECT vi FROM VendorInvoice vi JOIN FETCH vi.items WHERE vi.id = :id")
+    @Query("SELECT vi FROM VendorInvoice vi LEFT JOIN FETCH vi.items WHERE vi.id = :id")
     Optional<VendorInvoice> findByIdWithItems(@Param("id") Long id);
+    
+    // Lines for a whole search page in one query
+    @Query("SELECT DISTINCT vi FROM VendorInvoice vi LEFT JOIN FETCH vi.items WHERE vi.id IN :ids")
+    List<VendorInvoice> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Validators for conditional GETs
+    @Query("SELECT vi.updatedAt FROM VendorInvoice vi WHERE vi.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+    
+    @Query("SELECT new com.example.customermanagement.dto.ResourceVersion(COUNT(vi), MAX(vi.updatedAt)) FROM VendorInvoice vi")
+    ResourceVersion findVersion();
 }
\ No newline at end of file
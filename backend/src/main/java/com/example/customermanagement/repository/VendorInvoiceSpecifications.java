@@ -0,0 +1,103 @@
+package com.example.customermanagement.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.customermanagement.dto.VendorInvoiceSearchCriteria;
+import com.example.customermanagement.dto.VendorInvoiceSort;
+import com.example.customermanagement.model.VendorInvoice;
+import com.example.customermanagement.model.VendorInvoiceItem;
+
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+/**
+ * Criteria building blocks for vendor invoice search. Every filter that is set
+ * is combined into a single WHERE clause, so one query answers any mix of them.
+ */
+public final class VendorInvoiceSpecifications {
+
+    private VendorInvoiceSpecifications() {
+    }
+
+    public static Specification<VendorInvoice> matching(VendorInvoiceSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria.getVendorId() != null) {
+                predicates.add(cb.equal(root.get("vendorId"), criteria.getVendorId()));
+            }
+            if (hasText(criteria.getVendorName())) {
+                predicates.add(cb.like(cb.lower(root.get("vendorName")), containsPattern(criteria.getVendorName()), '\\'));
+            }
+            if (hasText(criteria.getMobile())) {
+                predicates.add(cb.equal(root.get("vendorPhone"), criteria.getMobile().trim()));
+            }
+            if (hasText(criteria.getInvoiceNo())) {
+                predicates.add(cb.equal(root.get("invoiceNo"), criteria.getInvoiceNo().trim()));
+            }
+            if (criteria.getFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("invoiceTimestamp"), criteria.getFrom().atStartOfDay()));
+            }
+            if (criteria.getTo() != null) {
+                predicates.add(cb.lessThan(root.get("invoiceTimestamp"), criteria.getTo().plusDays(1).atStartOfDay()));
+            }
+            if (criteria.getMinAmount() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("grandTotal"), criteria.getMinAmount()));
+            }
+            if (criteria.getMaxAmount() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("grandTotal"), criteria.getMaxAmount()));
+            }
+            if (criteria.getProductId() != null || hasText(criteria.getProduct())) {
+                // EXISTS rather than a join, so an invoice with several matching lines is returned once
+                Subquery<Long> lines = query.subquery(Long.class);
+                Root<VendorInvoiceItem> item = lines.from(VendorInvoiceItem.class);
+                List<Predicate> linePredicates = new ArrayList<>();
+                linePredicates.add(cb.equal(item.get("vendorInvoice"), root));
+                if (criteria.getProductId() != null) {
+                    linePredicates.add(cb.equal(item.get("productId"), criteria.getProductId()));
+                }
+                if (hasText(criteria.getProduct())) {
+                    linePredicates.add(cb.like(cb.lower(item.get("productName")), containsPattern(criteria.getProduct()), '\\'));
+                }
+                lines.select(item.get("id")).where(linePredicates.toArray(new Predicate[0]));
+                predicates.add(cb.exists(lines));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Rows strictly after (key, id) in the given ordering
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static Specification<VendorInvoice> after(VendorInvoiceSort sort, Comparable<?> key, Long id) {
+        return (root, query, cb) -> {
+            boolean descending = sort.getDirection() == Sort.Direction.DESC;
+            Expression<Long> idPath = root.get("id");
+            Predicate idAfter = descending ? cb.lessThan(idPath, id) : cb.greaterThan(idPath, id);
+            if (sort.getField() == VendorInvoiceSort.Field.ID) {
+                return idAfter;
+            }
+            Expression<Comparable> keyPath = root.get(sort.getField().getProperty());
+            Comparable value = key;
+            Predicate keyAfter = descending ? cb.lessThan(keyPath, value) : cb.greaterThan(keyPath, value);
+            return cb.or(keyAfter, cb.and(cb.equal(keyPath, value), idAfter));
+        };
+    }
+
+    private static String containsPattern(String text) {
+        String escaped = text.trim().toLowerCase(Locale.ROOT)
+            .replace("\\", "\\\\")
+            .replace("%", "\\%")
+            .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
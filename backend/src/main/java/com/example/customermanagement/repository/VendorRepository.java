@@ -13,6 +13,11 @@ public interface VendorRepository extends JpaRepository<Vendor, Long> {
     boolean existsByPhone(String phone);
     boolean existsByGstNumber(String gstNumber);
     
+    // Vendors holding any of the keys, to confirm possible duplicates in one round trip; a null key matches nothing
+    @Query("SELECT v FROM Vendor v WHERE v.email = :email OR v.phone = :phone OR v.gstNumber = :gstNumber")
+    List<Vendor> findByAnyUniqueKey(@Param("email") String email, @Param("phone") String phone,
+                                    @Param("gstNumber") String gstNumber);
+    
     @Query("SELECT v FROM Vendor v WHERE " +
            "LOWER(v.name) LIKE LOWER(CONCAT('%', :term, '%')) OR " +
            "LOWER(v.email) LIKE LOWER(CONCAT('%', :term, '%')) OR " +
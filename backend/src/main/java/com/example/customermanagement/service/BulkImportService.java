@@ -0,0 +1,555 @@
+package com.example.customermanagement.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.customermanagement.dto.ImportResult;
+import com.example.customermanagement.exception.ImportUnavailableException;
+import com.example.customermanagement.model.Customer;
+import com.example.customermanagement.model.Product;
+import com.example.customermanagement.model.Vendor;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Bulk import of customers, products and vendors from CSV (with a header
+ * row naming the JSON properties) or newline-delimited JSON. The body is
+ * read one record at a time; each record gets the entity's bean validation
+ * and is checked against the keys already seen in the file, then written in
+ * chunks of app.import.chunk-size rows as one INSERT ... SELECT FROM
+ * unnest(...) ON CONFLICT statement, each column bound as an array. A chunk
+ * the database rejects is retried row by row so only the offending rows are
+ * reported. Not @Transactional on purpose: a bad chunk must not roll back
+ * the ones before it. While a chunk is written on an import-writer thread,
+ * the request thread parses and validates the next one.
+ *
+ * Customers and vendors are matched on email: an existing row is updated,
+ * otherwise one is inserted. ON CONFLICT (email) needs a valid unique index
+ * on email; vendors only get one once SchemaUpgradeRunner has built it, so a
+ * vendor import is refused with ImportUnavailableException until then.
+ * Products have no natural key, so a product row with an id updates that
+ * product and one without inserts a new product.
+ */
+@Service
+public class BulkImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    @Value("${app.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.import.max-rows:1000000}")
+    private int maxRows;
+
+    @Value("${app.import.max-errors:1000}")
+    private int maxErrors;
+
+    // Imports running at once that can each have a chunk being written
+    @Value("${app.import.writer-threads:4}")
+    private int writerThreads;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private UniqueKeyFilters uniqueKeyFilters;
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    private final CsvMapper csvMapper = CsvMapper.builder()
+        .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+        .enable(CsvParser.Feature.TRIM_SPACES)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .build();
+
+    private final Map<String, Target<?>> targets = Map.of(
+        "customers", new CustomerTarget(),
+        "products", new ProductTarget(),
+        "vendors", new VendorTarget());
+
+    private ExecutorService writers;
+
+    @PostConstruct
+    public void startWriters() {
+        AtomicInteger threadCount = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "import-writer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stopWriters() {
+        writers.shutdown();
+    }
+
+    public ImportResult importRows(String entity, Format format, InputStream body) throws IOException {
+        Target<?> target = targets.get(entity);
+        if (target == null) {
+            throw new IllegalArgumentException("Unknown import entity: " + entity + "; expected one of " + targets.keySet());
+        }
+        target.requireWritable();
+        ImportResult result = run(target, format, body, new ImportResult(entity, format.name().toLowerCase(Locale.ROOT), maxErrors));
+        if (target instanceof ProductTarget && result.getInserted() + result.getUpdated() > 0) {
+            productCatalog.reload();
+        }
+        return result;
+    }
+
+    private <T> ImportResult run(Target<T> target, Format format, InputStream body, ImportResult result) throws IOException {
+        long start = System.nanoTime();
+        Map<String, Integer> seenKeys = new HashMap<>();
+        List<PendingRow<T>> chunk = new ArrayList<>(chunkSize);
+        Future<?> inFlight = null;
+        int row = 0;
+
+        try (MappingIterator<T> records = open(target.type, format, body)) {
+            while (records.hasNextValue()) {
+                if (row == maxRows) {
+                    result.setError("Import limit of " + maxRows + " rows reached; the rest of the body was not read");
+                    break;
+                }
+                row++;
+                T record;
+                try {
+                    record = records.nextValue();
+                } catch (JsonParseException e) {
+                    throw e;
+                } catch (JsonMappingException e) {
+                    // A record that does not bind (wrong type, extra CSV columns) fails alone; the iterator skips past it
+                    result.addFailed(row, null, e.getOriginalMessage());
+                    continue;
+                }
+
+                String failure = validate(record);
+                if (failure == null) {
+                    target.prepare(record);
+                    failure = duplicateIn(target.keys(record), seenKeys, row);
+                }
+                if (failure != null) {
+                    result.addFailed(row, target.label(record), failure);
+                    continue;
+                }
+
+                chunk.add(new PendingRow<>(row, record));
+                if (chunk.size() >= chunkSize) {
+                    // Parsing and validating the next chunk overlaps with writing this one; one write in flight at most
+                    awaitWrite(inFlight);
+                    List<PendingRow<T>> full = chunk;
+                    inFlight = writers.submit(() -> write(target, full, result));
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        } catch (JsonParseException e) {
+            // The unreadable record is not counted as received
+            row--;
+            result.setError("Malformed " + format.name().toLowerCase(Locale.ROOT) + " after row " + row + ": "
+                + e.getOriginalMessage());
+        } finally {
+            awaitWrite(inFlight);
+            if (!chunk.isEmpty()) {
+                write(target, chunk, result);
+            }
+        }
+
+        result.setReceived(row);
+        result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    private static void awaitWrite(Future<?> write) {
+        if (write == null) {
+            return;
+        }
+        try {
+            write.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while writing imported rows", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        }
+    }
+
+    private <T> MappingIterator<T> open(Class<T> type, Format format, InputStream body) throws IOException {
+        if (format == Format.CSV) {
+            return csvMapper.readerFor(type).with(CsvSchema.emptySchema().withHeader()).readValues(body);
+        }
+        return objectMapper.readerFor(type).readValues(body);
+    }
+
+    private <T> String validate(T record) {
+        Set<ConstraintViolation<T>> violations = validator.validate(record);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return "Validation failed: " + violations.stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining(", "));
+    }
+
+    // Keys are only claimed when none of them clash, so a rejected row does not block a later valid one
+    private static String duplicateIn(List<String> keys, Map<String, Integer> seenKeys, int row) {
+        for (String key : keys) {
+            Integer first = seenKeys.get(key);
+            if (first != null) {
+                return "Duplicate " + key + " in file, first seen on row " + first;
+            }
+        }
+        for (String key : keys) {
+            seenKeys.put(key, row);
+        }
+        return null;
+    }
+
+    private <T> void write(Target<T> target, List<PendingRow<T>> chunk, ImportResult result) {
+        List<PendingRow<T>> accepted = target.rejectUnwritable(chunk, result);
+        if (accepted.isEmpty()) {
+            return;
+        }
+        target.beforeWrite(accepted);
+        try {
+            countWritten(insert(target, accepted), result);
+        } catch (DataAccessException chunkFailure) {
+            // One bad row fails the whole statement; retry row by row so only that row is reported
+            for (PendingRow<T> pending : accepted) {
+                try {
+                    countWritten(insert(target, List.of(pending)), result);
+                } catch (DataAccessException e) {
+                    result.addFailed(pending.row, target.label(pending.record), rowFailure(e));
+                }
+            }
+        }
+    }
+
+    // One statement for the whole chunk, each column bound as an array and expanded with unnest. The SQL is
+    // the same for every chunk size, so the driver reuses one prepared statement and Postgres one plan;
+    // RETURNING tells inserted rows (xmax = 0) from updated ones
+    private <T> List<Boolean> insert(Target<T> target, List<PendingRow<T>> rows) {
+        List<T> records = new ArrayList<>(rows.size());
+        for (PendingRow<T> pending : rows) {
+            records.add(pending.record);
+        }
+        return jdbcTemplate.query(target.sql, (rs, rowNum) -> rs.getBoolean(1), target.columns(records));
+    }
+
+    private static void countWritten(List<Boolean> insertedFlags, ImportResult result) {
+        int inserted = 0;
+        for (Boolean flag : insertedFlags) {
+            if (Boolean.TRUE.equals(flag)) {
+                inserted++;
+            }
+        }
+        result.addWritten(inserted, insertedFlags.size() - inserted);
+    }
+
+    // Unique violations name the column; anything else reports the database's own message
+    private static String rowFailure(DataAccessException e) {
+        if (e instanceof DataIntegrityViolationException) {
+            String column = UniqueKeyFilters.violatedColumn((DataIntegrityViolationException) e);
+            if (column != null) {
+                return "Duplicate " + column.replace('_', ' ') + ": already used by another record";
+            }
+        }
+        return messageOf(e);
+    }
+
+    private static String messageOf(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    private static <T> String[] textColumn(List<T> records, Function<T, String> getter) {
+        String[] column = new String[records.size()];
+        for (int i = 0; i < column.length; i++) {
+            column[i] = getter.apply(records.get(i));
+        }
+        return column;
+    }
+
+    private static String lower(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class PendingRow<T> {
+        private final int row;
+        private final T record;
+
+        private PendingRow(int row, T record) {
+            this.row = row;
+            this.record = record;
+        }
+    }
+
+    // What differs between the importable entities: binding type, in-file keys and the upsert statement
+    private abstract static class Target<T> {
+        private final Class<T> type;
+        private final String sql;
+
+        private Target(Class<T> type, String sql) {
+            this.type = type;
+            this.sql = sql;
+        }
+
+        void prepare(T record) {
+        }
+
+        // Keys that must be unique within the file
+        abstract List<String> keys(T record);
+
+        // Identifies a row in the error report
+        abstract String label(T record);
+
+        // One array per unnest() parameter of sql, in order
+        abstract Object[] columns(List<T> records);
+
+        // Checked once before the body is read; throws ImportUnavailableException when no row could be written
+        void requireWritable() {
+        }
+
+        List<PendingRow<T>> rejectUnwritable(List<PendingRow<T>> chunk, ImportResult result) {
+            return chunk;
+        }
+
+        void beforeWrite(List<PendingRow<T>> rows) {
+        }
+    }
+
+    private final class CustomerTarget extends Target<Customer> {
+        private CustomerTarget() {
+            super(Customer.class,
+                "INSERT INTO customers (name, email, phone, address, created_at, updated_at) "
+                    + "SELECT name, email, phone, address, now(), now() "
+                    + "FROM unnest(?::text[], ?::text[], ?::text[], ?::text[]) AS row (name, email, phone, address) "
+                    + "ON CONFLICT (email) DO UPDATE SET name = EXCLUDED.name, phone = EXCLUDED.phone, "
+                    + "address = EXCLUDED.address, updated_at = EXCLUDED.updated_at "
+                    + "RETURNING (xmax = 0)");
+        }
+
+        @Override
+        void prepare(Customer customer) {
+            CustomerServiceImpl.sanitizeCustomerData(customer);
+        }
+
+        @Override
+        List<String> keys(Customer customer) {
+            return List.of("email " + customer.getEmail(), "phone " + customer.getPhone());
+        }
+
+        @Override
+        String label(Customer customer) {
+            return customer != null ? customer.getEmail() : null;
+        }
+
+        @Override
+        Object[] columns(List<Customer> customers) {
+            return new Object[] {
+                textColumn(customers, Customer::getName),
+                textColumn(customers, Customer::getEmail),
+                textColumn(customers, Customer::getPhone),
+                textColumn(customers, Customer::getAddress)
+            };
+        }
+
+        // Same rule as single writes: the filters learn a key before it can exist in the table
+        @Override
+        void beforeWrite(List<PendingRow<Customer>> rows) {
+            for (PendingRow<Customer> pending : rows) {
+                uniqueKeyFilters.add(UniqueKeyFilters.Key.CUSTOMER_EMAIL, pending.record.getEmail());
+                uniqueKeyFilters.add(UniqueKeyFilters.Key.CUSTOMER_PHONE, pending.record.getPhone());
+            }
+        }
+    }
+
+    private final class VendorTarget extends Target<Vendor> {
+        private VendorTarget() {
+            super(Vendor.class,
+                "INSERT INTO vendors (name, email, phone, address, gst_number, description) "
+                    + "SELECT * FROM unnest(?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[]) "
+                    + "ON CONFLICT (email) DO UPDATE SET name = EXCLUDED.name, phone = EXCLUDED.phone, "
+                    + "address = EXCLUDED.address, gst_number = EXCLUDED.gst_number, description = EXCLUDED.description "
+                    + "RETURNING (xmax = 0)");
+        }
+
+        // uq_vendors_email is built CONCURRENTLY after startup and left INVALID while duplicate emails exist.
+        // Without a valid one every chunk, and then every row, would fail on the ON CONFLICT clause.
+        @Override
+        void requireWritable() {
+            List<Boolean> valid = jdbcTemplate.queryForList(
+                "SELECT indisvalid FROM pg_index WHERE indexrelid = to_regclass('uq_vendors_email')", Boolean.class);
+            if (valid.isEmpty()) {
+                throw new ImportUnavailableException("Vendor import is unavailable until the unique index "
+                    + "uq_vendors_email has been built; it is created shortly after startup, retry in a minute");
+            }
+            if (!Boolean.TRUE.equals(valid.get(0))) {
+                throw new ImportUnavailableException("Vendor import is unavailable: the unique index uq_vendors_email "
+                    + "is being built or is invalid because vendor emails are duplicated. Remove the duplicates, "
+                    + "DROP INDEX uq_vendors_email and restart to rebuild it");
+            }
+        }
+
+        @Override
+        List<String> keys(Vendor vendor) {
+            List<String> keys = new ArrayList<>(3);
+            keys.add("email " + vendor.getEmail());
+            keys.add("phone " + vendor.getPhone());
+            if (vendor.getGstNumber() != null) {
+                keys.add("GST number " + vendor.getGstNumber());
+            }
+            return keys;
+        }
+
+        @Override
+        String label(Vendor vendor) {
+            return vendor != null ? vendor.getEmail() : null;
+        }
+
+        @Override
+        Object[] columns(List<Vendor> vendors) {
+            return new Object[] {
+                textColumn(vendors, Vendor::getName),
+                textColumn(vendors, Vendor::getEmail),
+                textColumn(vendors, Vendor::getPhone),
+                textColumn(vendors, Vendor::getAddress),
+                textColumn(vendors, Vendor::getGstNumber),
+                textColumn(vendors, Vendor::getDescription)
+            };
+        }
+
+        @Override
+        void beforeWrite(List<PendingRow<Vendor>> rows) {
+            for (PendingRow<Vendor> pending : rows) {
+                uniqueKeyFilters.add(UniqueKeyFilters.Key.VENDOR_EMAIL, pending.record.getEmail());
+                uniqueKeyFilters.add(UniqueKeyFilters.Key.VENDOR_PHONE, pending.record.getPhone());
+                uniqueKeyFilters.add(UniqueKeyFilters.Key.VENDOR_GST_NUMBER, pending.record.getGstNumber());
+            }
+        }
+    }
+
+    private final class ProductTarget extends Target<Product> {
+        private ProductTarget() {
+            super(Product.class,
+                "INSERT INTO products (id, name, category, unit_price, description, created_at, updated_at, version) "
+                    + "SELECT COALESCE(id, nextval(pg_get_serial_sequence('products', 'id'))), "
+                    + "name, category, unit_price, description, now(), now(), 0 "
+                    + "FROM unnest(?::bigint[], ?::text[], ?::text[], ?::numeric[], ?::text[]) "
+                    + "AS row (id, name, category, unit_price, description) "
+                    + "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, category = EXCLUDED.category, "
+                    + "unit_price = EXCLUDED.unit_price, description = EXCLUDED.description, "
+                    + "updated_at = EXCLUDED.updated_at, version = products.version + 1 "
+                    + "RETURNING (xmax = 0)");
+        }
+
+        @Override
+        void prepare(Product product) {
+            product.setName(product.getName().trim());
+            product.setCategory(product.getCategory().trim());
+        }
+
+        // New products are told apart by name within their category
+        @Override
+        List<String> keys(Product product) {
+            if (product.getId() != null) {
+                return List.of("product id " + product.getId());
+            }
+            return List.of("product " + lower(product.getName()) + " in " + lower(product.getCategory()));
+        }
+
+        @Override
+        String label(Product product) {
+            if (product == null) {
+                return null;
+            }
+            return product.getId() != null ? String.valueOf(product.getId()) : product.getName();
+        }
+
+        // A null id takes the next identity value; an explicit id only ever names an existing product
+        @Override
+        Object[] columns(List<Product> products) {
+            Long[] ids = new Long[products.size()];
+            BigDecimal[] prices = new BigDecimal[products.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = products.get(i).getId();
+                prices[i] = products.get(i).getUnitPrice();
+            }
+            return new Object[] {
+                ids,
+                textColumn(products, Product::getName),
+                textColumn(products, Product::getCategory),
+                prices,
+                textColumn(products, Product::getDescription)
+            };
+        }
+
+        // Ids must exist: inserting one would take it outside the identity sequence. One query per chunk.
+        @Override
+        List<PendingRow<Product>> rejectUnwritable(List<PendingRow<Product>> chunk, ImportResult result) {
+            List<Long> ids = chunk.stream()
+                .map(pending -> pending.record.getId())
+                .filter(id -> id != null)
+                .collect(Collectors.toList());
+            if (ids.isEmpty()) {
+                return chunk;
+            }
+            Set<Long> existing = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM products WHERE id = ANY(?::bigint[])", Long.class, (Object) ids.toArray(new Long[0])));
+
+            List<PendingRow<Product>> accepted = new ArrayList<>(chunk.size());
+            for (PendingRow<Product> pending : chunk) {
+                Long id = pending.record.getId();
+                if (id != null && !existing.contains(id)) {
+                    result.addFailed(pending.row, String.valueOf(id), "Product not found with id: " + id);
+                } else {
+                    accepted.add(pending);
+                }
+            }
+            return accepted;
+        }
+    }
+}
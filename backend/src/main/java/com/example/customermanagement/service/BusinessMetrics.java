@@ -0,0 +1,117 @@
+package com.example.customermanagement.service;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.customermanagement.model.Invoice;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Business counters for the metrics endpoint (invoices created per source,
+ * invoiced amount, payment status changes, new customers and vendor
+ * invoices, line rows written by invoice updates). Increments are deferred until the surrounding transaction
+ * commits, so rolled back writes are never counted; rates such as invoices
+ * per minute come from the counters at query time.
+ */
+@Component
+public class BusinessMetrics {
+
+    private final MeterRegistry registry;
+    private final Counter invoicesDeleted;
+    private final Counter vendorInvoicesCreated;
+    private final Counter customersCreated;
+
+    public BusinessMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.invoicesDeleted = Counter.builder("invoices.deleted").description("Invoices deleted").register(registry);
+        this.vendorInvoicesCreated = Counter.builder("vendor.invoices.created")
+            .description("Vendor invoices created").register(registry);
+        this.customersCreated = Counter.builder("customers.created").description("Customers created").register(registry);
+    }
+
+    // source is "api" for single creates and "batch" for bulk imports
+    public void invoicesCreated(Collection<Invoice> invoices, String source) {
+        int count = invoices.size();
+        BigDecimal amount = BigDecimal.ZERO;
+        for (Invoice invoice : invoices) {
+            if (invoice.getTotalAmount() != null) {
+                amount = amount.add(invoice.getTotalAmount());
+            }
+        }
+        double invoiced = amount.doubleValue();
+        afterCommit(() -> {
+            Counter.builder("invoices.created").description("Invoices created")
+                .tag("source", source).register(registry).increment(count);
+            Counter.builder("invoices.amount").description("Total amount of invoices created").baseUnit("rupees")
+                .tag("source", source).register(registry).increment(invoiced);
+        });
+    }
+
+    public void invoiceCreated(Invoice invoice) {
+        invoicesCreated(List.of(invoice), "api");
+    }
+
+    public void invoiceDeleted() {
+        afterCommit(invoicesDeleted::increment);
+    }
+
+    public void paymentStatusChanged(Invoice.PaymentStatus from, Invoice.PaymentStatus to) {
+        if (from == to || to == null) {
+            return;
+        }
+        afterCommit(() -> Counter.builder("invoices.payment.status.changes")
+            .description("Invoice payment status transitions")
+            .tag("from", from != null ? from.name() : "NONE")
+            .tag("to", to.name())
+            .register(registry)
+            .increment());
+    }
+
+    public void vendorInvoiceCreated() {
+        afterCommit(vendorInvoicesCreated::increment);
+    }
+
+    // type is "invoice" or "vendor_invoice"; rows are line inserts, updates and deletes of one update
+    void lineItemsMerged(String type, LineItemMerge merge) {
+        int inserted = merge.getInserted();
+        int updated = merge.getUpdated();
+        int deleted = merge.getDeleted();
+        afterCommit(() -> {
+            DistributionSummary.builder("invoice.update.rows").description("Line rows written per invoice update")
+                .tag("type", type).register(registry).record(inserted + updated + deleted);
+            lineRows(type, "insert").increment(inserted);
+            lineRows(type, "update").increment(updated);
+            lineRows(type, "delete").increment(deleted);
+        });
+    }
+
+    public void customerCreated() {
+        afterCommit(customersCreated::increment);
+    }
+
+    private Counter lineRows(String type, String operation) {
+        return Counter.builder("invoice.update.line.rows").description("Line rows written by invoice updates")
+            .tag("type", type).tag("operation", operation).register(registry);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
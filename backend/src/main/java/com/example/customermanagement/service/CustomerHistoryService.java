@@ -0,0 +1,316 @@
+package com.example.customermanagement.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.customermanagement.dto.CustomerSummary;
+import com.example.customermanagement.exception.CustomerNotFoundException;
+import com.example.customermanagement.model.Customer;
+import com.example.customermanagement.model.CustomerTotals;
+import com.example.customermanagement.model.Invoice;
+import com.example.customermanagement.repository.CustomerRepository;
+import com.example.customermanagement.repository.CustomerTotalsRepository;
+import com.example.customermanagement.repository.InvoiceRepository;
+
+/**
+ * Links invoices to customer records and maintains the customer_totals
+ * aggregate behind the customer summary. An invoice is linked by its mobile
+ * number, normalised the way customer phones are stored; invoice writes then
+ * apply signed deltas to the linked customer's row in the same transaction,
+ * so a summary reads one row instead of summing the customer's invoices. Like
+ * the revenue rollup's, the deltas are applied just before the transaction
+ * commits, after the rollup rows, so the row lock is held for the commit only.
+ * A write that touches several customers' rows updates them in customer id
+ * order, so two such writes queue behind each other instead of deadlocking.
+ * Invoices written before the link existed are linked by
+ * CustomerInvoiceBackfill.
+ */
+@Service
+@Transactional
+public class CustomerHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerHistoryService.class);
+
+    private static final int PHONE_DIGITS = 10;
+
+    @Value("${app.customer.summary.recent-invoices:10}")
+    private int recentInvoices;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerTotalsRepository customerTotalsRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Digits only, keeping the last ten so a +91 or leading 0 still matches. Must agree with
+    // CustomerInvoiceBackfill's SQL expression.
+    public static String normalizePhone(String mobile) {
+        if (mobile == null) {
+            return null;
+        }
+        String digits = mobile.replaceAll("\\D", "");
+        return digits.length() > PHONE_DIGITS ? digits.substring(digits.length() - PHONE_DIGITS) : digits;
+    }
+
+    // Sets the customer from the invoice's mobile number unless the caller already named one
+    public void link(Invoice invoice) {
+        if (invoice.getCustomerId() == null) {
+            invoice.setCustomerId(findCustomerId(invoice.getCustomerMobile()));
+        }
+    }
+
+    // Links a chunk of invoices with one lookup for all their mobile numbers
+    public void link(Collection<Invoice> invoices) {
+        Set<String> phones = new HashSet<>();
+        for (Invoice invoice : invoices) {
+            if (invoice.getCustomerId() == null && invoice.getCustomerMobile() != null) {
+                phones.add(normalizePhone(invoice.getCustomerMobile()));
+            }
+        }
+        if (phones.isEmpty()) {
+            return;
+        }
+        Map<String, Long> customerIds = new HashMap<>();
+        for (Object[] row : customerRepository.findIdsByPhoneIn(phones)) {
+            customerIds.put((String) row[1], (Long) row[0]);
+        }
+        for (Invoice invoice : invoices) {
+            if (invoice.getCustomerId() == null && invoice.getCustomerMobile() != null) {
+                invoice.setCustomerId(customerIds.get(normalizePhone(invoice.getCustomerMobile())));
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Long findCustomerId(String mobile) {
+        String phone = normalizePhone(mobile);
+        if (phone == null || phone.length() != PHONE_DIGITS) {
+            return null;
+        }
+        return customerRepository.findIdByPhone(phone).orElse(null);
+    }
+
+    // Snapshot of the aggregate-relevant fields, taken before an invoice is modified
+    public static CustomerContribution contributionOf(Invoice invoice) {
+        return new CustomerContribution(invoice.getId(), invoice.getCustomerId(), invoice.getInvoiceDate(),
+            invoice.getPaymentStatus(), invoice.getTotalAmount());
+    }
+
+    public void recordCreated(Invoice invoice) {
+        add(contributionOf(invoice));
+    }
+
+    // Folds a chunk of new invoices into one delta per customer, applied in customer id order
+    public void recordCreated(Collection<Invoice> invoices) {
+        Map<Long, CustomerTotals> deltas = new TreeMap<>();
+        for (Invoice invoice : invoices) {
+            CustomerContribution contribution = contributionOf(invoice);
+            if (contribution.getCustomerId() == null) {
+                continue;
+            }
+            CustomerTotals delta = deltas.computeIfAbsent(contribution.getCustomerId(), id -> {
+                CustomerTotals totals = new CustomerTotals();
+                totals.setInvoiceCount(0L);
+                totals.setLifetimeValue(BigDecimal.ZERO);
+                totals.setOutstandingBalance(BigDecimal.ZERO);
+                return totals;
+            });
+            delta.setInvoiceCount(delta.getInvoiceCount() + 1);
+            delta.setLifetimeValue(delta.getLifetimeValue().add(contribution.lifetimeValue()));
+            delta.setOutstandingBalance(delta.getOutstandingBalance().add(contribution.outstanding()));
+            if (delta.getLastInvoiceDate() == null || (contribution.getInvoiceDate() != null
+                    && contribution.getInvoiceDate().isAfter(delta.getLastInvoiceDate()))) {
+                delta.setLastInvoiceDate(contribution.getInvoiceDate());
+            }
+        }
+        deltas.forEach((customerId, delta) -> applyBeforeCommit(customerId, () -> customerTotalsRepository.add(
+            customerId, delta.getInvoiceCount(), delta.getLifetimeValue(), delta.getOutstandingBalance(),
+            delta.getLastInvoiceDate())));
+    }
+
+    public void recordDeleted(Invoice invoice) {
+        remove(contributionOf(invoice));
+    }
+
+    public void recordChanged(CustomerContribution before, Invoice after) {
+        CustomerContribution current = contributionOf(after);
+        if (before.equals(current)) {
+            return;
+        }
+        // A relinked invoice moves between two customers' rows; applied in customer id order at commit
+        remove(before);
+        add(current);
+    }
+
+    // Customer, aggregate row and latest invoices: three primary key or index lookups
+    @Transactional(readOnly = true)
+    public CustomerSummary getSummary(Long customerId) {
+        Customer customer = customerRepository.findById(customerId)
+            .orElseThrow(() -> new CustomerNotFoundException("Customer not found with id: " + customerId));
+        CustomerSummary summary = new CustomerSummary(customer);
+        customerTotalsRepository.findById(customerId).ifPresent(summary::setTotals);
+        summary.setRecentInvoices(invoiceRepository.findRecentByCustomerId(customerId, PageRequest.of(0, recentInvoices)));
+        return summary;
+    }
+
+    // Recomputes every customer's row from the linked invoices
+    public Map<String, Object> rebuild() {
+        long start = System.nanoTime();
+        customerTotalsRepository.lockInvoicesForRebuild();
+        int removed = customerTotalsRepository.deleteAllRows();
+        int inserted = customerTotalsRepository.insertFromInvoices();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("rowsRemoved", removed);
+        result.put("rowsInserted", inserted);
+        result.put("elapsedMillis", (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    // Linked invoices but no aggregate rows (e.g. the table was cleared): fill it once so deltas have a base
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (customerTotalsRepository.count() == 0 && invoiceRepository.existsByCustomerIdIsNotNull()) {
+                    log.info("Customer totals are empty, rebuilding from invoices: {}", rebuild());
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Customer totals rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    private void add(CustomerContribution contribution) {
+        if (contribution.getCustomerId() == null) {
+            return;
+        }
+        applyBeforeCommit(contribution.getCustomerId(), () -> customerTotalsRepository.add(contribution.getCustomerId(),
+            1, contribution.lifetimeValue(), contribution.outstanding(), contribution.getInvoiceDate()));
+    }
+
+    private void remove(CustomerContribution contribution) {
+        if (contribution.getCustomerId() == null) {
+            return;
+        }
+        applyBeforeCommit(contribution.getCustomerId(), () -> customerTotalsRepository.remove(
+            contribution.getCustomerId(), contribution.getInvoiceId(), contribution.lifetimeValue(),
+            contribution.outstanding()));
+    }
+
+    // Queues one row update with the transaction's others; without a transaction it runs right away
+    private void applyBeforeCommit(Long customerId, Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        PendingUpdates pending = (PendingUpdates) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingUpdates();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.updates.computeIfAbsent(customerId, id -> new ArrayList<>()).add(update);
+    }
+
+    // One transaction's customer_totals updates, applied in customer id order after the revenue rollup's
+    private final class PendingUpdates implements TransactionSynchronization {
+        private final Map<Long, List<Runnable>> updates = new TreeMap<>();
+
+        @Override
+        public int getOrder() {
+            return RevenueRollupService.DELTAS_ORDER + 1;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            updates.values().forEach(rowUpdates -> rowUpdates.forEach(Runnable::run));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CustomerHistoryService.this);
+        }
+    }
+
+    public static final class CustomerContribution {
+        private final Long invoiceId;
+        private final Long customerId;
+        private final LocalDateTime invoiceDate;
+        private final Invoice.PaymentStatus paymentStatus;
+        private final BigDecimal totalAmount;
+
+        private CustomerContribution(Long invoiceId, Long customerId, LocalDateTime invoiceDate,
+                                     Invoice.PaymentStatus paymentStatus, BigDecimal totalAmount) {
+            this.invoiceId = invoiceId;
+            this.customerId = customerId;
+            this.invoiceDate = invoiceDate;
+            this.paymentStatus = paymentStatus;
+            this.totalAmount = totalAmount;
+        }
+
+        public Long getInvoiceId() { return invoiceId; }
+        public Long getCustomerId() { return customerId; }
+        public LocalDateTime getInvoiceDate() { return invoiceDate; }
+
+        // Same rules as CustomerTotalsRepository.LIFETIME_VALUE and OUTSTANDING
+        private BigDecimal lifetimeValue() {
+            return paymentStatus == Invoice.PaymentStatus.CANCELLED ? BigDecimal.ZERO : amount();
+        }
+
+        private BigDecimal outstanding() {
+            return paymentStatus == Invoice.PaymentStatus.PENDING
+                || paymentStatus == Invoice.PaymentStatus.PARTIALLY_PAID
+                || paymentStatus == Invoice.PaymentStatus.OVERDUE ? amount() : BigDecimal.ZERO;
+        }
+
+        private BigDecimal amount() {
+            return totalAmount != null ? totalAmount : BigDecimal.ZERO;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CustomerContribution)) return false;
+            CustomerContribution other = (CustomerContribution) o;
+            return Objects.equals(customerId, other.customerId)
+                && Objects.equals(invoiceDate, other.invoiceDate)
+                && paymentStatus == other.paymentStatus
+                && amount().compareTo(other.amount()) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(customerId, invoiceDate, paymentStatus);
+        }
+    }
+}
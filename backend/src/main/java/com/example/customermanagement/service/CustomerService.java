@@ -1,7 +1,9 @@
     package com.example.customermanagement.service;
 
+    import java.time.LocalDateTime;
     import java.util.List;
 
+import com.example.customermanagement.dto.ResourceVersion;
 import com.example.customermanagement.model.Customer;
 
     public interface CustomerService {
@@ -12,4 +14,6 @@ import com.example.customermanagement.model.Customer;
         void deleteCustomer(Long id);
         List<Customer> searchCustomers(String searchTerm);
         boolean existsByEmail(String email);
+        LocalDateTime getCustomerLastModified(Long id);
+        ResourceVersion getCustomersVersion();
     }
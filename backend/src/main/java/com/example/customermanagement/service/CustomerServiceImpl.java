@@ -1,13 +1,17 @@
 package com.example.customermanagement.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.customermanagement.dto.ResourceVersion;
 import com.example.customermanagement.exception.CustomerNotFoundException;
 import com.example.customermanagement.exception.DuplicateEmailException;
+import com.example.customermanagement.exception.DuplicatePhoneException;
 import com.example.customermanagement.model.Customer;
 import com.example.customermanagement.repository.CustomerRepository;
 
@@ -18,6 +22,12 @@ public class CustomerServiceImpl implements CustomerService {
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private BusinessMetrics businessMetrics;
+
+    @Autowired
+    private UniqueKeyFilters uniqueKeyFilters;
+
     @Override
     public List<Customer> getAllCustomers() {
         return customerRepository.findAllByOrderByNameAsc();
@@ -31,13 +41,12 @@ public class CustomerServiceImpl implements CustomerService {
 
     @Override
     public Customer createCustomer(Customer customer) {
-        String email = customer.getEmail().toLowerCase().trim();
-        if (customerRepository.existsByEmail(email)) {
-            throw new DuplicateEmailException("A customer with email " + email + " already exists");
-        }
-
         sanitizeCustomerData(customer);
-        return customerRepository.save(customer);
+        requireUnique(null, customer.getEmail(), customer.getPhone());
+
+        Customer saved = saveUnique(customer);
+        businessMetrics.customerCreated();
+        return saved;
     }
 
     @Override
@@ -46,16 +55,17 @@ public class CustomerServiceImpl implements CustomerService {
                 .orElseThrow(() -> new CustomerNotFoundException("Customer not found with id: " + id));
 
         String newEmail = customerDetails.getEmail().toLowerCase().trim();
-        if (!customer.getEmail().equals(newEmail) && customerRepository.existsByEmail(newEmail)) {
-            throw new DuplicateEmailException("A customer with email " + newEmail + " already exists");
-        }
+        String newPhone = customerDetails.getPhone().replaceAll("\\D", "");
+        // Only keys that change can clash with another customer
+        requireUnique(id, customer.getEmail().equals(newEmail) ? null : newEmail,
+            customer.getPhone().equals(newPhone) ? null : newPhone);
 
         customer.setName(customerDetails.getName().trim());
         customer.setEmail(newEmail);
-        customer.setPhone(customerDetails.getPhone().replaceAll("\\D", ""));
+        customer.setPhone(newPhone);
         customer.setAddress(customerDetails.getAddress() != null ? customerDetails.getAddress().trim() : null);
 
-        return customerRepository.save(customer);
+        return saveUnique(customer);
     }
 
     @Override
@@ -73,15 +83,67 @@ public class CustomerServiceImpl implements CustomerService {
         return customerRepository.findBySearchTerm(searchTerm.trim());
     }
 
+    // Called on every keystroke of the signup form. The filter answers alone only while it is recent enough
+    // to hold other instances' registrations; the unique index still rejects a clash at signup either way.
     @Override
     public boolean existsByEmail(String email) {
-        return customerRepository.existsByEmail(email.toLowerCase().trim());
+        String normalized = email.toLowerCase().trim();
+        return uniqueKeyFilters.mightContainRecent(UniqueKeyFilters.Key.CUSTOMER_EMAIL, normalized)
+            && customerRepository.existsByEmail(normalized);
     }
 
-    private void sanitizeCustomerData(Customer customer) {
+    // Skips the database when the filters rule both keys out, otherwise one query confirms either
+    private void requireUnique(Long id, String email, String phone) {
+        boolean checkEmail = email != null && uniqueKeyFilters.mightContain(UniqueKeyFilters.Key.CUSTOMER_EMAIL, email);
+        boolean checkPhone = phone != null && uniqueKeyFilters.mightContain(UniqueKeyFilters.Key.CUSTOMER_PHONE, phone);
+        if (!checkEmail && !checkPhone) {
+            return;
+        }
+        for (Customer other : customerRepository.findByEmailOrPhone(checkEmail ? email : null, checkPhone ? phone : null)) {
+            if (other.getId().equals(id)) {
+                continue;
+            }
+            if (checkEmail && email.equals(other.getEmail())) {
+                throw new DuplicateEmailException("A customer with email " + email + " already exists");
+            }
+            throw new DuplicatePhoneException("A customer with phone " + phone + " already exists");
+        }
+    }
+
+    // The unique indexes settle races the check cannot see, e.g. writes from another instance
+    private Customer saveUnique(Customer customer) {
+        uniqueKeyFilters.add(UniqueKeyFilters.Key.CUSTOMER_EMAIL, customer.getEmail());
+        uniqueKeyFilters.add(UniqueKeyFilters.Key.CUSTOMER_PHONE, customer.getPhone());
+        try {
+            return customerRepository.saveAndFlush(customer);
+        } catch (DataIntegrityViolationException e) {
+            String column = UniqueKeyFilters.violatedColumn(e);
+            if ("email".equals(column)) {
+                throw new DuplicateEmailException("A customer with email " + customer.getEmail() + " already exists");
+            }
+            if ("phone".equals(column)) {
+                throw new DuplicatePhoneException("A customer with phone " + customer.getPhone() + " already exists");
+            }
+            throw e;
+        }
+    }
+
+    static void sanitizeCustomerData(Customer customer) {
         customer.setName(customer.getName().trim());
         customer.setEmail(customer.getEmail().toLowerCase().trim());
         customer.setPhone(customer.getPhone().replaceAll("\\D", ""));
         customer.setAddress(customer.getAddress() != null ? customer.getAddress().trim() : null);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public LocalDateTime getCustomerLastModified(Long id) {
+        return customerRepository.findUpdatedAtById(id).orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getCustomersVersion() {
+        return customerRepository.findVersion();
+    }
 }
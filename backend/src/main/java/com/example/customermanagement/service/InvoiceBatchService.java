@@ -0,0 +1,272 @@
+package com.example.customermanagement.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.customermanagement.dto.InvoiceBatchResult;
+import com.example.customermanagement.model.Invoice;
+import com.example.customermanagement.model.InvoiceItem;
+import com.example.customermanagement.model.StockMovement;
+import com.example.customermanagement.repository.InvoiceRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.Validator;
+
+/**
+ * Bulk invoice ingestion. The request body is read one invoice at a time and
+ * persisted in chunks, each in its own transaction, so Hibernate can send
+ * the inserts as JDBC batches. Not @Transactional on purpose: a bad chunk
+ * must not roll back the chunks before it.
+ */
+@Service
+public class InvoiceBatchService {
+
+    @Value("${app.invoice.batch.chunk-size:250}")
+    private int chunkSize;
+
+    @Value("${app.invoice.batch.max-invoices:10000}")
+    private int maxInvoices;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private InvoiceNumberAllocator invoiceNumberAllocator;
+
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+
+    @Autowired
+    private InvoiceStatisticsCache invoiceStatisticsCache;
+
+    @Autowired
+    private BusinessMetrics businessMetrics;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private CustomerHistoryService customerHistoryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public InvoiceBatchResult ingest(InputStream body) throws IOException {
+        long start = System.nanoTime();
+        InvoiceBatchResult result = new InvoiceBatchResult();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Set<String> seenNumbers = new HashSet<>();
+        List<PendingInvoice> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new RuntimeException("Request body must be a JSON array of invoices");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new RuntimeException("Request body ended before the closing ]");
+                }
+                if (index >= maxInvoices) {
+                    parser.skipChildren();
+                    result.addFailed(index++, null, "Batch limit of " + maxInvoices + " invoices exceeded");
+                    continue;
+                }
+
+                // Binding from a tree keeps one malformed invoice from derailing the rest of the stream
+                JsonNode node = parser.readValueAsTree();
+                try {
+                    Invoice invoice = objectMapper.treeToValue(node, Invoice.class);
+                    boolean numbered = prepare(invoice, seenNumbers);
+                    chunk.add(new PendingInvoice(index, invoice, numbered));
+                } catch (Exception e) {
+                    result.addFailed(index, node != null ? node.path("invoiceNo").asText(null) : null, messageOf(e));
+                }
+                index++;
+
+                if (chunk.size() >= chunkSize) {
+                    persistChunk(chunk, transaction, result, seenNumbers);
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            result.setError("Malformed JSON after invoice " + index + ": " + e.getOriginalMessage());
+        } finally {
+            if (!chunk.isEmpty()) {
+                persistChunk(chunk, transaction, result, seenNumbers);
+            }
+        }
+
+        result.setReceived(index);
+        result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    // Same pricing and validation as single invoice creation, without touching the database.
+    // Returns true when the invoice came without a number and was given one.
+    private boolean prepare(Invoice invoice, Set<String> seenNumbers) {
+        boolean numberMissing = invoice.getInvoiceNo() == null || invoice.getInvoiceNo().trim().isEmpty();
+        // A missing number is allocated below, once the rest of the invoice is known to be valid
+        List<String> violations = validator.validate(invoice).stream()
+            .filter(violation -> !(numberMissing && "invoiceNo".equals(violation.getPropertyPath().toString())))
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .collect(Collectors.toList());
+        if (!violations.isEmpty()) {
+            throw new RuntimeException("Validation failed: " + String.join(", ", violations));
+        }
+
+        invoiceService.priceForPersistence(invoice);
+
+        if (numberMissing) {
+            // Checked against the database with the rest of its chunk, and renumbered there if already taken
+            LocalDate invoiceDate = invoice.getInvoiceDate() != null ? invoice.getInvoiceDate().toLocalDate() : LocalDate.now();
+            String invoiceNo;
+            do {
+                invoiceNo = invoiceNumberAllocator.nextInvoiceNumber(invoiceDate);
+            } while (!seenNumbers.add(invoiceNo));
+            invoice.setInvoiceNo(invoiceNo);
+            return true;
+        }
+        if (!seenNumbers.add(invoice.getInvoiceNo())) {
+            throw new RuntimeException("Duplicate invoice number in batch: " + invoice.getInvoiceNo());
+        }
+        return false;
+    }
+
+    private void persistChunk(List<PendingInvoice> chunk, TransactionTemplate transaction, InvoiceBatchResult result,
+                              Set<String> seenNumbers) {
+        List<PendingInvoice> accepted = rejectExistingNumbers(chunk, result, seenNumbers);
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            transaction.executeWithoutResult(status -> insert(accepted));
+            for (PendingInvoice pending : accepted) {
+                result.addCreated(pending.index, pending.invoice.getInvoiceNo(), pending.invoice.getId());
+            }
+        } catch (Exception chunkFailure) {
+            // One bad row rolls back its whole chunk; retry row by row so only that row is reported
+            for (PendingInvoice pending : accepted) {
+                resetIds(pending.invoice);
+                try {
+                    transaction.executeWithoutResult(status -> insert(List.of(pending)));
+                    result.addCreated(pending.index, pending.invoice.getInvoiceNo(), pending.invoice.getId());
+                } catch (Exception e) {
+                    resetIds(pending.invoice);
+                    result.addFailed(pending.index, pending.invoice.getInvoiceNo(), messageOf(e));
+                }
+            }
+        }
+    }
+
+    // One IN query per chunk instead of an exists check per invoice. A number the client sent that is
+    // taken fails its invoice; one allocated here is replaced, as single creation does.
+    private List<PendingInvoice> rejectExistingNumbers(List<PendingInvoice> chunk, InvoiceBatchResult result,
+                                                       Set<String> seenNumbers) {
+        Set<String> existing = new HashSet<>(invoiceRepository.findExistingInvoiceNos(
+            chunk.stream().map(pending -> pending.invoice.getInvoiceNo()).collect(Collectors.toList())));
+
+        List<PendingInvoice> accepted = new ArrayList<>(chunk.size());
+        for (PendingInvoice pending : chunk) {
+            if (!existing.contains(pending.invoice.getInvoiceNo())) {
+                accepted.add(pending);
+            } else if (pending.numbered) {
+                String invoiceNo;
+                do {
+                    invoiceNo = invoiceService.allocateUnusedInvoiceNumber(pending.invoice);
+                } while (!seenNumbers.add(invoiceNo));
+                pending.invoice.setInvoiceNo(invoiceNo);
+                accepted.add(pending);
+            } else {
+                result.addFailed(pending.index, pending.invoice.getInvoiceNo(),
+                    "Invoice number already exists: " + pending.invoice.getInvoiceNo());
+            }
+        }
+        return accepted;
+    }
+
+    private void insert(List<PendingInvoice> invoices) {
+        // Send a whole chunk per JDBC batch instead of the global hibernate.jdbc.batch_size
+        entityManager.unwrap(Session.class).setJdbcBatchSize(chunkSize);
+        List<Invoice> persisted = new ArrayList<>(invoices.size());
+        for (PendingInvoice pending : invoices) {
+            persisted.add(pending.invoice);
+        }
+        // One customer lookup for all the chunk's mobile numbers
+        customerHistoryService.link(persisted);
+        for (PendingInvoice pending : invoices) {
+            entityManager.persist(pending.invoice);
+            // Before the flush, so the movement inserts go out in the same batches as the invoices
+            stockLedger.recordChange(StockMovement.Reason.SALE, InvoiceService.STOCK_SOURCE, pending.invoice.getId(),
+                Map.of(), InvoiceService.stockOf(pending.invoice));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        revenueRollupService.recordCreated(persisted);
+        customerHistoryService.recordCreated(persisted);
+        invoiceStatisticsCache.invalidate();
+        businessMetrics.invoicesCreated(persisted, "batch");
+    }
+
+    // Ids handed out inside a rolled back transaction must not be reused by persist
+    private static void resetIds(Invoice invoice) {
+        invoice.setId(null);
+        for (InvoiceItem item : invoice.getItems()) {
+            item.setId(null);
+        }
+    }
+
+    private static String messageOf(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    private static final class PendingInvoice {
+        private final int index;
+        private final Invoice invoice;
+        private final boolean numbered;
+
+        private PendingInvoice(int index, Invoice invoice, boolean numbered) {
+            this.index = index;
+            this.invoice = invoice;
+            this.numbered = numbered;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.customermanagement.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.customermanagement.dto.InvoiceExportRow;
+import com.example.customermanagement.repository.InvoiceRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes invoices and their line items straight from a database cursor to an
+ * output stream, one invoice at a time, so memory use does not grow with the
+ * size of the export.
+ */
+@Service
+public class InvoiceExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private static final String CSV_HEADER = "invoice_no,invoice_date,customer_name,customer_mobile,customer_address,"
+            + "payment_status,invoice_total,item_name,item_description,quantity,unit_price,cgst_rate,sgst_rate,"
+            + "cgst_amount,sgst_amount,tax_amount,line_total";
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public static Format parseFormat(String format) {
+        try {
+            return Format.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + format + " (expected ndjson or csv)");
+        }
+    }
+
+    // Runs on the response-writing thread; the transaction keeps the server-side cursor open until the last row
+    @Transactional(readOnly = true)
+    public void export(Format format, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        try (Stream<InvoiceExportRow> rows = invoiceRepository.streamExportRows(from, to)) {
+            if (format == Format.CSV) {
+                writeCsv(rows.iterator(), out);
+            } else {
+                writeNdjson(rows.iterator(), out);
+            }
+        }
+    }
+
+    // One JSON object per invoice per line, with its items nested
+    private void writeNdjson(Iterator<InvoiceExportRow> rows, OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Lines are terminated explicitly, so no extra separator between root values
+        json.setRootValueSeparator(null);
+
+        Long currentInvoiceId = null;
+        while (rows.hasNext()) {
+            InvoiceExportRow row = rows.next();
+            if (!row.getInvoiceId().equals(currentInvoiceId)) {
+                if (currentInvoiceId != null) {
+                    endInvoice(json);
+                }
+                startInvoice(json, row);
+                currentInvoiceId = row.getInvoiceId();
+            }
+            if (row.getItemId() != null) {
+                writeItem(json, row);
+            }
+        }
+        if (currentInvoiceId != null) {
+            endInvoice(json);
+        }
+        json.flush();
+    }
+
+    private void startInvoice(JsonGenerator json, InvoiceExportRow row) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", row.getInvoiceId());
+        json.writeStringField("invoiceNo", row.getInvoiceNo());
+        json.writeStringField("customerName", row.getCustomerName());
+        json.writeStringField("customerMobile", row.getCustomerMobile());
+        json.writeStringField("customerAddress", row.getCustomerAddress());
+        json.writeStringField("invoiceDate", String.valueOf(row.getInvoiceDate()));
+        json.writeNumberField("totalAmount", row.getTotalAmount());
+        json.writeStringField("paymentStatus", String.valueOf(row.getPaymentStatus()));
+        json.writeArrayFieldStart("items");
+    }
+
+    private void writeItem(JsonGenerator json, InvoiceExportRow row) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", row.getItemId());
+        json.writeStringField("itemName", row.getItemName());
+        json.writeStringField("itemDescription", row.getItemDescription());
+        json.writeNumberField("quantity", row.getQuantity());
+        json.writeNumberField("unitPrice", row.getUnitPrice());
+        json.writeNumberField("cgstRate", row.getCgstRate());
+        json.writeNumberField("sgstRate", row.getSgstRate());
+        json.writeNumberField("cgstAmount", row.getCgstAmount());
+        json.writeNumberField("sgstAmount", row.getSgstAmount());
+        json.writeNumberField("taxAmount", row.getTaxAmount());
+        json.writeNumberField("totalPrice", row.getTotalPrice());
+        json.writeEndObject();
+    }
+
+    private void endInvoice(JsonGenerator json) throws IOException {
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    // One CSV row per line item, with the invoice columns repeated
+    private void writeCsv(Iterator<InvoiceExportRow> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        while (rows.hasNext()) {
+            InvoiceExportRow row = rows.next();
+            writeCsvField(writer, row.getInvoiceNo(), false);
+            writeCsvField(writer, row.getInvoiceDate(), true);
+            writeCsvField(writer, row.getCustomerName(), true);
+            writeCsvField(writer, row.getCustomerMobile(), true);
+            writeCsvField(writer, row.getCustomerAddress(), true);
+            writeCsvField(writer, row.getPaymentStatus(), true);
+            writeCsvField(writer, row.getTotalAmount(), true);
+            writeCsvField(writer, row.getItemName(), true);
+            writeCsvField(writer, row.getItemDescription(), true);
+            writeCsvField(writer, row.getQuantity(), true);
+            writeCsvField(writer, row.getUnitPrice(), true);
+            writeCsvField(writer, row.getCgstRate(), true);
+            writeCsvField(writer, row.getSgstRate(), true);
+            writeCsvField(writer, row.getCgstAmount(), true);
+            writeCsvField(writer, row.getSgstAmount(), true);
+            writeCsvField(writer, row.getTaxAmount(), true);
+            writeCsvField(writer, row.getTotalPrice(), true);
+            writer.write("\r\n");
+        }
+        writer.flush();
+    }
+
+    private void writeCsvField(Writer writer, Object value, boolean separator) throws IOException {
+        if (separator) {
+            writer.write(',');
+        }
+        if (value == null) {
+            return;
+        }
+        String text = value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.customermanagement.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.customermanagement.config.CoordinationDatabase;
+
+/**
+ * Hands out invoice numbers from blocks reserved in the invoice_number_series
+ * table. Each node reserves a block of numbers in one short transaction on
+ * the CoordinationDatabase pool and then serves them from memory, so
+ * concurrent requests never see the same number. Numbers left in a block
+ * when a node stops are skipped, which leaves gaps but never duplicates.
+ */
+@Component
+public class InvoiceNumberAllocator {
+
+    // Reserves a block of numbers for a series and returns the first one
+    public interface BlockSource {
+        long reserve(String seriesKey, int blockSize);
+    }
+
+    // The row lock is held for this one statement; returns the first number of the block
+    private static final String RESERVE_BLOCK =
+        "UPDATE invoice_number_series SET next_value = next_value + ?, updated_at = CURRENT_TIMESTAMP " +
+        "WHERE series_key = ? RETURNING next_value - ?";
+
+    // Another node creating the same series first is fine; this insert then does nothing
+    private static final String CREATE_SERIES =
+        "INSERT INTO invoice_number_series (series_key, next_value, updated_at) " +
+        "SELECT ?, COALESCE(MAX(CAST(SUBSTRING(invoice_no FROM CHAR_LENGTH(?) + 1) AS BIGINT)), 0) + 1, CURRENT_TIMESTAMP " +
+        "FROM invoices WHERE invoice_no LIKE ? || '%' AND SUBSTRING(invoice_no FROM CHAR_LENGTH(?) + 1) ~ '^[0-9]{1,9}$' " +
+        "ON CONFLICT (series_key) DO NOTHING";
+
+    @Value("${app.invoice.number.prefix:INV}")
+    private String prefix;
+
+    @Value("${app.invoice.number.block-size:50}")
+    private int blockSize;
+
+    // When enabled, numbers restart every financial year (April-March), e.g. INV/2026-27/000123
+    @Value("${app.invoice.number.financial-year-series:false}")
+    private boolean financialYearSeries;
+
+    @Autowired
+    private CoordinationDatabase coordinationDatabase;
+
+    private final ConcurrentHashMap<String, SeriesState> seriesStates = new ConcurrentHashMap<>();
+
+    private BlockSource blockSource = this::reserveFromDatabase;
+
+    public InvoiceNumberAllocator() {
+    }
+
+    // Standalone allocator backed by a custom block source (benchmarks, tooling)
+    public InvoiceNumberAllocator(String prefix, int blockSize, boolean financialYearSeries, BlockSource blockSource) {
+        this.prefix = prefix;
+        this.blockSize = blockSize;
+        this.financialYearSeries = financialYearSeries;
+        this.blockSource = blockSource;
+    }
+
+    public String nextInvoiceNumber() {
+        return nextInvoiceNumber(LocalDate.now());
+    }
+
+    public String nextInvoiceNumber(LocalDate invoiceDate) {
+        String seriesPrefix = seriesPrefix(invoiceDate);
+        long number = seriesStates.computeIfAbsent(seriesPrefix, SeriesState::new).next();
+        return String.format("%s%06d", seriesPrefix, number);
+    }
+
+    // INV for the single legacy series, INV/2026-27/ for per-financial-year series
+    String seriesPrefix(LocalDate date) {
+        if (!financialYearSeries) {
+            return prefix;
+        }
+        int startYear = date.getMonthValue() >= 4 ? date.getYear() : date.getYear() - 1;
+        return String.format("%s/%d-%02d/", prefix, startYear, (startYear + 1) % 100);
+    }
+
+    // Runs on the coordination pool: the caller usually holds a main-pool connection, and so may every
+    // thread queued behind reserveLock, so the block must not need a second one from the same pool
+    private long reserveFromDatabase(String seriesPrefix, int size) {
+        JdbcTemplate jdbc = coordinationDatabase.getJdbcTemplate();
+        Long first = coordinationDatabase.getTransactionTemplate().execute(status -> {
+            List<Long> reserved = jdbc.queryForList(RESERVE_BLOCK, Long.class, size, seriesPrefix, size);
+            if (!reserved.isEmpty()) {
+                return reserved.get(0);
+            }
+            // New series continue after the highest number already issued under that prefix
+            jdbc.update(CREATE_SERIES, seriesPrefix, seriesPrefix, seriesPrefix, seriesPrefix);
+            return jdbc.queryForObject(RESERVE_BLOCK, Long.class, size, seriesPrefix, size);
+        });
+        if (first == null) {
+            throw new IllegalStateException("Invoice number series missing: " + seriesPrefix);
+        }
+        return first;
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+
+    private final class SeriesState {
+        private final String seriesPrefix;
+        private final ReentrantLock reserveLock = new ReentrantLock();
+        private volatile Block block = new Block(0, 0);
+
+        private SeriesState(String seriesPrefix) {
+            this.seriesPrefix = seriesPrefix;
+        }
+
+        private long next() {
+            while (true) {
+                Block current = block;
+                long value = current.next.getAndIncrement();
+                if (value < current.end) {
+                    return value;
+                }
+                // Block exhausted: one thread reserves the next block while the others wait here.
+                // A lock rather than a monitor, so a virtual thread waiting on the database does not pin its carrier.
+                reserveLock.lock();
+                try {
+                    if (block == current) {
+                        long start = blockSource.reserve(seriesPrefix, blockSize);
+                        block = new Block(start, start + blockSize);
+                    }
+                } finally {
+                    reserveLock.unlock();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.customermanagement.service;
+
+import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.format.DateTimeFormatter;
+
+import com.example.customermanagement.model.Invoice;
+import com.example.customermanagement.model.InvoiceItem;
+import com.lowagie.text.Document;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+
+// Lays an invoice out as a PDF page, matching the print view in SearchInvoice.jsx. Stateless, so
+// render workers share it freely.
+final class InvoicePdfRenderer {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("d/M/yyyy");
+
+    private static final Font TITLE = new Font(Font.HELVETICA, 16, Font.BOLD);
+    private static final Font HEADING = new Font(Font.HELVETICA, 12, Font.BOLD);
+    private static final Font BODY = new Font(Font.HELVETICA, 10);
+    private static final Font BOLD = new Font(Font.HELVETICA, 10, Font.BOLD);
+
+    private static final Color HEADER_BACKGROUND = new Color(0xf8, 0xf9, 0xfa);
+    private static final Color BORDER = new Color(0xdd, 0xdd, 0xdd);
+
+    private static final String[] COLUMNS =
+        { "Item Name", "Quantity", "Unit Price", "CGST %", "SGST %", "Tax Amount", "Total" };
+    private static final float[] WIDTHS = { 3.6f, 1.6f, 1.8f, 1.3f, 1.3f, 1.8f, 2f };
+
+    private InvoicePdfRenderer() {
+    }
+
+    static byte[] render(Invoice invoice) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 * 1024);
+        Document document = new Document(PageSize.A4, 36, 36, 36, 36);
+        PdfWriter.getInstance(document, out);
+        document.addTitle("Invoice #" + invoice.getInvoiceNo());
+        document.open();
+
+        document.add(new Paragraph("Invoice #" + invoice.getInvoiceNo(), TITLE));
+        document.add(new Paragraph("Date: " + (invoice.getInvoiceDate() != null
+            ? invoice.getInvoiceDate().format(DATE) : "N/A"), BODY));
+
+        Paragraph customer = new Paragraph();
+        customer.setSpacingBefore(14);
+        customer.add(new Phrase("Customer Details\n", HEADING));
+        customer.add(new Phrase("Name: " + orNa(invoice.getCustomerName()) + "\n", BODY));
+        customer.add(new Phrase("Mobile: " + orNa(invoice.getCustomerMobile()) + "\n", BODY));
+        customer.add(new Phrase("Address: " + orNa(invoice.getCustomerAddress()), BODY));
+        document.add(customer);
+
+        PdfPTable table = new PdfPTable(WIDTHS);
+        table.setWidthPercentage(100);
+        table.setSpacingBefore(14);
+        table.setHeaderRows(1);
+        for (String column : COLUMNS) {
+            PdfPCell cell = cell(column, BOLD);
+            cell.setBackgroundColor(HEADER_BACKGROUND);
+            table.addCell(cell);
+        }
+        BigDecimal totalTax = BigDecimal.ZERO;
+        for (InvoiceItem item : invoice.getItems()) {
+            table.addCell(cell(item.getItemName(), BODY));
+            table.addCell(cell(String.valueOf(item.getQuantity()), BODY));
+            table.addCell(cell(money(item.getUnitPrice()), BODY));
+            table.addCell(cell(percent(item.getCgstRate()), BODY));
+            table.addCell(cell(percent(item.getSgstRate()), BODY));
+            table.addCell(cell(money(item.getTaxAmount()), BODY));
+            table.addCell(cell(money(item.getTotalPrice()), BODY));
+            if (item.getTaxAmount() != null) {
+                totalTax = totalTax.add(item.getTaxAmount());
+            }
+        }
+        document.add(table);
+
+        BigDecimal total = invoice.getTotalAmount() != null ? invoice.getTotalAmount() : BigDecimal.ZERO;
+        Paragraph totals = new Paragraph();
+        totals.setAlignment(Element.ALIGN_RIGHT);
+        totals.setSpacingBefore(14);
+        totals.add(new Phrase("Subtotal: ", BOLD));
+        totals.add(new Phrase(money(total.subtract(totalTax)) + "\n", BODY));
+        totals.add(new Phrase("Total Tax: ", BOLD));
+        totals.add(new Phrase(money(totalTax) + "\n", BODY));
+        totals.add(new Phrase("Grand Total: ", BOLD));
+        totals.add(new Phrase(money(total), BODY));
+        document.add(totals);
+
+        document.close();
+        return out.toByteArray();
+    }
+
+    private static PdfPCell cell(String text, Font font) {
+        PdfPCell cell = new PdfPCell(new Phrase(text != null ? text : "", font));
+        cell.setBorderColor(BORDER);
+        cell.setPadding(6);
+        return cell;
+    }
+
+    // The standard Helvetica encoding has no rupee sign
+    private static String money(BigDecimal amount) {
+        return "Rs. " + (amount != null ? amount : BigDecimal.ZERO).setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static String percent(BigDecimal rate) {
+        return (rate != null ? rate.stripTrailingZeros().toPlainString() : "0") + "%";
+    }
+
+    private static String orNa(String value) {
+        return value != null && !value.isBlank() ? value : "N/A";
+    }
+}
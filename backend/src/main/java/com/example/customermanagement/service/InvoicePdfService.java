@@ -0,0 +1,443 @@
+package com.example.customermanagement.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.customermanagement.dto.InvoicePdfKey;
+import com.example.customermanagement.exception.PdfRenderBusyException;
+import com.example.customermanagement.model.Invoice;
+import com.example.customermanagement.repository.InvoiceRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Server-side invoice PDFs. Rendering runs on app.invoice.pdf.workers
+ * threads behind a queue of app.invoice.pdf.queue-capacity tasks; when the
+ * queue is full a single-invoice request is turned away with 503 instead of
+ * piling up, and a bundle waits for room before requesting its next entry.
+ * Two requests for the same invoice version share one render.
+ *
+ * Rendered bytes are cached by invoice id plus updatedAt (to the
+ * millisecond, as in the ETags), so an edit changes the key and no
+ * invalidation is needed: a memory LRU bounded by app.invoice.pdf.cache.max-bytes
+ * in front of a directory of {id}-{updatedAtMillis}.pdf files that survives
+ * restarts. Writing a version deletes that invoice's older files; files
+ * unread for app.invoice.pdf.cache.disk-max-age (deleted invoices, mostly)
+ * are swept hourly. An empty app.invoice.pdf.cache.dir turns the disk tier off.
+ */
+@Service
+public class InvoicePdfService {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoicePdfService.class);
+
+    @Value("${app.invoice.pdf.workers:2}")
+    private int workers;
+
+    @Value("${app.invoice.pdf.queue-capacity:64}")
+    private int queueCapacity;
+
+    // How long a request waits for its render before giving up with 503
+    @Value("${app.invoice.pdf.render-timeout:PT30S}")
+    private Duration renderTimeout;
+
+    @Value("${app.invoice.pdf.retry-after:PT2S}")
+    private Duration retryAfter;
+
+    @Value("${app.invoice.pdf.bundle-max:500}")
+    private int bundleMax;
+
+    @Value("${app.invoice.pdf.cache.max-bytes:33554432}")
+    private long cacheMaxBytes;
+
+    @Value("${app.invoice.pdf.cache.dir:${java.io.tmpdir}/invoice-pdf-cache}")
+    private String cacheDir;
+
+    @Value("${app.invoice.pdf.cache.disk-max-age:P7D}")
+    private Duration diskMaxAge;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    private ThreadPoolExecutor renderers;
+
+    // One permit per running or queued render
+    private Semaphore renderSlots;
+
+    private Path diskDir;
+
+    // Access-ordered, so iteration starts at the least recently used entry; guarded by itself
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(256, 0.75f, true);
+    private long memoryBytes;
+
+    private final Map<String, CompletableFuture<byte[]>> rendering = new ConcurrentHashMap<>();
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong renders = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // Bounded by renderSlots, not by the queue: a finishing render releases its slot before its
+        // worker is back taking from the queue, so a queue of exactly that size could still reject
+        renderers = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "invoice-pdf-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        renderSlots = new Semaphore(workers + queueCapacity);
+
+        if (!cacheDir.isBlank()) {
+            try {
+                diskDir = Files.createDirectories(Paths.get(cacheDir));
+            } catch (IOException e) {
+                log.warn("Invoice PDF disk cache disabled, cannot create {}: {}", cacheDir, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        renderers.shutdown();
+    }
+
+    public int getBundleMax() {
+        return bundleMax;
+    }
+
+    // Cache keys for the given invoices, in one query; unknown ids are absent from the map
+    public Map<Long, InvoicePdfKey> findKeys(Collection<Long> ids) {
+        return invoiceRepository.findPdfKeysByIdIn(ids).stream()
+            .collect(Collectors.toMap(InvoicePdfKey::getId, Function.identity()));
+    }
+
+    public InvoicePdfKey findKey(Long id) {
+        return findKeys(List.of(id)).get(id);
+    }
+
+    public byte[] getPdf(InvoicePdfKey key) {
+        byte[] cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        return await(submit(key, false));
+    }
+
+    // Writes one entry per invoice in the given order. Up to twice the worker count are
+    // requested ahead of the entry being written, so rendering overlaps the zip output.
+    // The status and headers are already sent by then, so an invoice that cannot be
+    // rendered becomes a short .txt entry saying so and the zip is still finished
+    public void writeBundle(List<InvoicePdfKey> keys, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // The PDFs are deflated inside already
+        zip.setLevel(Deflater.BEST_SPEED);
+        Set<String> names = new HashSet<>();
+        Deque<CompletableFuture<byte[]>> window = new ArrayDeque<>();
+        int requested = 0;
+        for (InvoicePdfKey key : keys) {
+            while (requested < keys.size() && window.size() < workers * 2) {
+                window.add(fetchForBundle(keys.get(requested++)));
+            }
+            String name = entryName(key, names);
+            byte[] pdf;
+            try {
+                pdf = awaitEntry(window.poll());
+            } catch (RuntimeException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                log.warn("Invoice {} left out of a PDF bundle: {}", key.getId(), e.getMessage());
+                zip.putNextEntry(new ZipEntry(name.substring(0, name.length() - ".pdf".length()) + ".error.txt"));
+                zip.write(("Invoice " + key.getId() + " could not be rendered: " + e.getMessage() + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+                continue;
+            }
+            zip.putNextEntry(new ZipEntry(name));
+            zip.write(pdf);
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    public static String fileName(InvoicePdfKey key) {
+        String invoiceNo = key.getInvoiceNo() != null ? key.getInvoiceNo().replaceAll("[^A-Za-z0-9._-]", "_") : "";
+        return (invoiceNo.isEmpty() ? "invoice-" + key.getId() : invoiceNo) + ".pdf";
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("workers", workers);
+        stats.put("activeRenders", renderers.getActiveCount());
+        stats.put("queued", renderers.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        synchronized (memory) {
+            stats.put("memoryEntries", memory.size());
+            stats.put("memoryBytes", memoryBytes);
+        }
+        stats.put("memoryMaxBytes", cacheMaxBytes);
+        stats.put("diskCache", diskDir != null ? diskDir.toString() : null);
+        stats.put("memoryHits", memoryHits.get());
+        stats.put("diskHits", diskHits.get());
+        stats.put("renders", renders.get());
+        stats.put("rejected", rejected.get());
+        return stats;
+    }
+
+    // Deletes cached files nobody has read for diskMaxAge, and temp files left by a crash
+    @Scheduled(initialDelayString = "PT5M", fixedDelayString = "PT1H")
+    public void sweepDisk() {
+        if (diskDir == null) {
+            return;
+        }
+        FileTime cutoff = FileTime.fromMillis(System.currentTimeMillis() - diskMaxAge.toMillis());
+        int removed = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(diskDir)) {
+            for (Path file : files) {
+                try {
+                    if (Files.getLastModifiedTime(file).compareTo(cutoff) < 0 && Files.deleteIfExists(file)) {
+                        removed++;
+                    }
+                } catch (IOException e) {
+                    // Removed concurrently or unreadable; the next sweep retries
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Invoice PDF disk cache sweep failed: {}", e.getMessage());
+        }
+        if (removed > 0) {
+            log.info("Removed {} invoice PDFs unused for {}", removed, diskMaxAge);
+        }
+    }
+
+    private byte[] lookup(InvoicePdfKey key) {
+        String cacheKey = cacheKey(key.getId(), key.getUpdatedAt());
+        synchronized (memory) {
+            byte[] pdf = memory.get(cacheKey);
+            if (pdf != null) {
+                memoryHits.incrementAndGet();
+                return pdf;
+            }
+        }
+        if (diskDir == null) {
+            return null;
+        }
+        Path file = diskDir.resolve(cacheKey + ".pdf");
+        try {
+            byte[] pdf = Files.readAllBytes(file);
+            // Last use, for the sweep
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            diskHits.incrementAndGet();
+            remember(cacheKey, pdf);
+            return pdf;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Cannot read cached invoice PDF {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    // Starts a render unless one for the same version is already running. With a full
+    // queue, waitForRoom blocks until a render finishes instead of turning the caller away
+    private CompletableFuture<byte[]> submit(InvoicePdfKey key, boolean waitForRoom) {
+        String cacheKey = cacheKey(key.getId(), key.getUpdatedAt());
+        CompletableFuture<byte[]> running = rendering.get(cacheKey);
+        if (running != null) {
+            return running;
+        }
+        if (waitForRoom) {
+            renderSlots.acquireUninterruptibly();
+        } else if (!renderSlots.tryAcquire()) {
+            rejected.incrementAndGet();
+            throw new PdfRenderBusyException("Invoice PDF rendering is at capacity, retry shortly",
+                Math.max(1, retryAfter.toSeconds()));
+        }
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        running = rendering.putIfAbsent(cacheKey, future);
+        if (running != null) {
+            renderSlots.release();
+            return running;
+        }
+        try {
+            renderers.execute(() -> {
+                try {
+                    future.complete(render(key.getId()));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    rendering.remove(cacheKey, future);
+                    renderSlots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The queue is unbounded, so only after shutdown
+            rendering.remove(cacheKey, future);
+            renderSlots.release();
+            throw new PdfRenderBusyException("Invoice PDF rendering is shutting down, retry shortly",
+                Math.max(1, retryAfter.toSeconds()));
+        }
+        return future;
+    }
+
+    // A bundle already holds its request open, so it waits for room in the queue; every
+    // render still runs on the bounded pool however many bundles are being written
+    private CompletableFuture<byte[]> fetchForBundle(InvoicePdfKey key) {
+        byte[] cached = lookup(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        try {
+            return submit(key, true);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Loads the current invoice and stores the bytes under its own updatedAt, which is newer
+    // than the requested key if the invoice was edited in between
+    private byte[] render(Long id) {
+        Invoice invoice = invoiceService.getInvoiceById(id);
+        byte[] pdf = InvoicePdfRenderer.render(invoice);
+        renders.incrementAndGet();
+        String cacheKey = cacheKey(invoice.getId(), invoice.getUpdatedAt());
+        remember(cacheKey, pdf);
+        store(invoice.getId(), cacheKey, pdf);
+        return pdf;
+    }
+
+    private void remember(String cacheKey, byte[] pdf) {
+        if (pdf.length > cacheMaxBytes) {
+            return;
+        }
+        synchronized (memory) {
+            byte[] previous = memory.put(cacheKey, pdf);
+            memoryBytes += pdf.length - (previous != null ? previous.length : 0);
+            Iterator<byte[]> eldest = memory.values().iterator();
+            while (memoryBytes > cacheMaxBytes && eldest.hasNext()) {
+                memoryBytes -= eldest.next().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    // Written to a temp file and moved into place, so a reader never sees a partial PDF
+    private void store(Long id, String cacheKey, byte[] pdf) {
+        if (diskDir == null) {
+            return;
+        }
+        Path file = diskDir.resolve(cacheKey + ".pdf");
+        try {
+            Path temp = Files.createTempFile(diskDir, cacheKey + "-", ".tmp");
+            Files.write(temp, pdf);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            try (DirectoryStream<Path> versions = Files.newDirectoryStream(diskDir, id + "-*.pdf")) {
+                for (Path version : versions) {
+                    if (!version.equals(file)) {
+                        Files.deleteIfExists(version);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Cannot write cached invoice PDF {}: {}", file, e.getMessage());
+        }
+    }
+
+    private byte[] await(CompletableFuture<byte[]> future) {
+        try {
+            return future.get(renderTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new PdfRenderBusyException("Invoice PDF rendering timed out, retry shortly",
+                Math.max(1, retryAfter.toSeconds()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for an invoice PDF", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Invoice PDF rendering failed", e.getCause());
+        }
+    }
+
+    // No timeout for bundle entries: the response is already committed, and each render
+    // is bounded by the pool rather than by how long this request waits
+    private byte[] awaitEntry(CompletableFuture<byte[]> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for an invoice PDF", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Invoice PDF rendering failed", e.getCause());
+        }
+    }
+
+    // Same millisecond precision as the ETags: a fresh save carries nanoseconds, a row read back microseconds
+    private static String cacheKey(Long id, LocalDateTime updatedAt) {
+        long millis = updatedAt != null ? updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+        return id + "-" + millis;
+    }
+
+    private static String entryName(InvoicePdfKey key, Set<String> names) {
+        String name = fileName(key);
+        if (!names.add(name)) {
+            name = name.substring(0, name.length() - ".pdf".length()) + "-" + key.getId() + ".pdf";
+            names.add(name);
+        }
+        return name;
+    }
+}
@@ -1,19 +1,38 @@
 package com.example.customermanagement.service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.customermanagement.dto.CursorPage;
+import com.example.customermanagement.dto.InvoiceCursor;
+import com.example.customermanagement.dto.InvoiceSearchCursor;
+import com.example.customermanagement.dto.InvoiceSearchHit;
+import com.example.customermanagement.dto.InvoiceSummary;
+import com.example.customermanagement.dto.PaymentStatusAggregate;
+import com.example.customermanagement.dto.ResourceVersion;
+import com.example.customermanagement.exception.InsufficientStockException;
 import com.example.customermanagement.model.Invoice;
 import com.example.customermanagement.model.InvoiceItem;
+import com.example.customermanagement.model.StockMovement;
+import com.example.customermanagement.pricing.GstCalculator;
 import com.example.customermanagement.repository.InvoiceRepository;
 
 import jakarta.validation.ConstraintViolationException;
@@ -22,18 +41,50 @@ import jakarta.validation.ConstraintViolationException;
 @Transactional
 public class InvoiceService {
     
+    private static final int MAX_NUMBER_ATTEMPTS = 10;
+    private static final int MIN_SUBSTRING_TERM_LENGTH = 3;
+    static final String STOCK_SOURCE = "invoice";
+    
     @Autowired
     private InvoiceRepository invoiceRepository;
     
-    // Get all invoices
-    public List<Invoice> getAllInvoices() {
-        return invoiceRepository.findAllByOrderByInvoiceDateDesc().stream()
-            .map(invoice -> {
-                // Force initialization of items collection
-                invoice.getItems().size();
-                return invoice;
-            })
-            .collect(Collectors.toList());
+    @Autowired
+    private InvoiceNumberAllocator invoiceNumberAllocator;
+    
+    @Autowired
+    private InvoiceStatisticsCache invoiceStatisticsCache;
+    
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+    
+    @Autowired
+    private BusinessMetrics businessMetrics;
+    
+    @Autowired
+    private StockLedger stockLedger;
+    
+    @Autowired
+    private CustomerHistoryService customerHistoryService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${app.invoice.default-page-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${app.invoice.max-page-size:200}")
+    private int maxPageSize;
+    
+    @Value("${app.invoice.search.max-results:50}")
+    private int searchMaxResults;
+    
+    // Get one keyset page of invoices, newest first
+    public CursorPage<InvoiceSummary> getAllInvoices(String cursor, Integer limit) {
+        InvoiceCursor position = InvoiceCursor.decode(cursor);
+        int pageSize = resolvePageSize(limit);
+        PageRequest window = PageRequest.of(0, pageSize + 1);
+        return toPage(position == null ? invoiceRepository.findFirstPage(window)
+            : invoiceRepository.findPage(position.getInvoiceDate(), position.getId(), window), pageSize);
     }
     
     // Get invoice by ID
@@ -42,6 +93,23 @@ public class InvoiceService {
                 .orElseThrow(() -> new RuntimeException("Invoice not found with id: " + id));
     }
     
+    // Validators for conditional GETs: null when the invoice does not exist
+    @Transactional(readOnly = true)
+    public LocalDateTime getInvoiceLastModified(Long id) {
+        return invoiceRepository.findUpdatedAtById(id).orElse(null);
+    }
+    
+    @Transactional(readOnly = true)
+    public LocalDateTime getInvoiceLastModified(String invoiceNo) {
+        return invoiceRepository.findUpdatedAtByInvoiceNo(invoiceNo).orElse(null);
+    }
+    
+    // Changes whenever an invoice is created, updated or deleted; the list endpoints share it
+    @Transactional(readOnly = true)
+    public ResourceVersion getInvoicesVersion() {
+        return new ResourceVersion(revenueRollupService.getInvoiceCount(), invoiceRepository.findLastUpdatedAt());
+    }
+    
     // Get invoice by invoice number
     public Invoice getInvoiceByNumber(String invoiceNo) {
         return invoiceRepository.findByInvoiceNo(invoiceNo)
@@ -53,7 +121,7 @@ public class InvoiceService {
         try {
             // Auto-generate invoice number if not provided
             if (invoice.getInvoiceNo() == null || invoice.getInvoiceNo().trim().isEmpty()) {
-                invoice.setInvoiceNo(generateNextInvoiceNumber());
+                invoice.setInvoiceNo(allocateUnusedInvoiceNumber(invoice));
             }
             
             // Validate invoice number uniqueness
@@ -61,27 +129,22 @@ public class InvoiceService {
                 throw new RuntimeException("Invoice number already exists: " + invoice.getInvoiceNo());
             }
             
-            // Calculate and set tax amounts for each item
-            if (invoice.getItems() != null && !invoice.getItems().isEmpty()) {
-                for (InvoiceItem item : invoice.getItems()) {
-                    calculateItemTotals(item);
-                    item.setInvoice(invoice);
-                }
-                
-                // Recalculate total amount using the calculateTotalAmount method
-                invoice.calculateTotalAmount();
-            } else {
-                // If no items, throw error
-                throw new IllegalArgumentException("Invoice must contain at least one item");
-            }
-            
-            // Validate before saving
-            invoice.validateForPersistence();
+            priceForPersistence(invoice);
+            customerHistoryService.link(invoice);
             
-            return invoiceRepository.save(invoice);
+            Invoice savedInvoice = invoiceRepository.save(invoice);
+            revenueRollupService.recordCreated(savedInvoice);
+            customerHistoryService.recordCreated(savedInvoice);
+            stockLedger.recordChange(StockMovement.Reason.SALE, STOCK_SOURCE, savedInvoice.getId(),
+                Map.of(), stockOf(savedInvoice));
+            invoiceStatisticsCache.invalidate();
+            businessMetrics.invoiceCreated(savedInvoice);
+            return savedInvoice;
             
         } catch (ConstraintViolationException e) {
             throw new RuntimeException("Validation failed: " + extractValidationMessages(e));
+        } catch (InsufficientStockException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Error creating invoice: " + e.getMessage(), e);
         }
@@ -91,6 +154,17 @@ public class InvoiceService {
     public Invoice updateInvoice(Long id, Invoice invoiceDetails) {
         try {
             Invoice existingInvoice = getInvoiceById(id);
+            RevenueRollupService.RevenueContribution previous = RevenueRollupService.contributionOf(existingInvoice);
+            Map<Long, Long> previousStock = stockOf(existingInvoice);
+            CustomerHistoryService.CustomerContribution previousCustomer = CustomerHistoryService.contributionOf(existingInvoice);
+            
+            // An explicit customer wins; otherwise the link follows a changed mobile number
+            if (invoiceDetails.getCustomerId() != null) {
+                existingInvoice.setCustomerId(invoiceDetails.getCustomerId());
+            } else if (!Objects.equals(CustomerHistoryService.normalizePhone(existingInvoice.getCustomerMobile()),
+                                       CustomerHistoryService.normalizePhone(invoiceDetails.getCustomerMobile()))) {
+                existingInvoice.setCustomerId(customerHistoryService.findCustomerId(invoiceDetails.getCustomerMobile()));
+            }
             
             // Update basic fields
             existingInvoice.setCustomerName(invoiceDetails.getCustomerName());
@@ -99,29 +173,44 @@ public class InvoiceService {
             existingInvoice.setInvoiceDate(invoiceDetails.getInvoiceDate());
             existingInvoice.setPaymentStatus(invoiceDetails.getPaymentStatus());
             
-            // Update items
-            if (invoiceDetails.getItems() != null && !invoiceDetails.getItems().isEmpty()) {
-                // Clear existing items
-                existingInvoice.clearItems();
-                
-                // Add new items
-                for (InvoiceItem item : invoiceDetails.getItems()) {
-                    calculateItemTotals(item);
-                    existingInvoice.addItem(item);
-                }
-                
-                // Total will be calculated automatically by addItem method
-            } else {
+            if (invoiceDetails.getVersion() != null && !invoiceDetails.getVersion().equals(existingInvoice.getVersion())) {
+                throw new OptimisticLockingFailureException("Invoice " + id + " has changed since version "
+                    + invoiceDetails.getVersion() + "; current version is " + existingInvoice.getVersion());
+            }
+            
+            // Update items: merged by id, so only added, changed and removed lines are written
+            if (invoiceDetails.getItems() == null || invoiceDetails.getItems().isEmpty()) {
                 throw new IllegalArgumentException("Invoice must contain at least one item");
             }
+            for (InvoiceItem item : invoiceDetails.getItems()) {
+                calculateItemTotals(item);
+            }
+            LineItemMerge merge = LineItemMerge.apply("invoice " + id, existingInvoice.getItems(),
+                invoiceDetails.getItems(), InvoiceItem::getId, InvoiceItem::updateFrom,
+                existingInvoice::addItem, existingInvoice::removeItem);
+            existingInvoice.calculateTotalAmount();
+            businessMetrics.lineItemsMerged("invoice", merge);
+            
+            // Item-only edits can leave the invoice row clean and skip @PreUpdate; the ETag relies on updatedAt
+            if (merge.touched() > 0) {
+                existingInvoice.setUpdatedAt(LocalDateTime.now());
+            }
             
             // Validate before saving
             existingInvoice.validateForPersistence();
             
-            return invoiceRepository.save(existingInvoice);
+            Invoice savedInvoice = invoiceRepository.save(existingInvoice);
+            revenueRollupService.recordChanged(previous, savedInvoice);
+            customerHistoryService.recordChanged(previousCustomer, savedInvoice);
+            stockLedger.recordChange(StockMovement.Reason.SALE, STOCK_SOURCE, id, previousStock, stockOf(savedInvoice));
+            invoiceStatisticsCache.invalidate();
+            businessMetrics.paymentStatusChanged(previous.getPaymentStatus(), savedInvoice.getPaymentStatus());
+            return savedInvoice;
             
         } catch (ConstraintViolationException e) {
             throw new RuntimeException("Validation failed: " + extractValidationMessages(e));
+        } catch (OptimisticLockingFailureException | InsufficientStockException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Error updating invoice: " + e.getMessage(), e);
         }
@@ -130,55 +219,106 @@ public class InvoiceService {
     // Delete invoice
     public void deleteInvoice(Long id) {
         Invoice invoice = getInvoiceById(id);
+        Map<Long, Long> returnedStock = stockOf(invoice);
         invoiceRepository.delete(invoice);
+        revenueRollupService.recordDeleted(invoice);
+        customerHistoryService.recordDeleted(invoice);
+        stockLedger.recordChange(StockMovement.Reason.SALE, STOCK_SOURCE, id, returnedStock, Map.of());
+        invoiceStatisticsCache.invalidate();
+        businessMetrics.invoiceDeleted();
     }
     
-    // Search invoices
-    public List<Invoice> searchInvoices(String searchTerm) {
-        return invoiceRepository.searchInvoices(searchTerm).stream()
-            .map(invoice -> {
-                // Force initialization of items collection
-                invoice.getItems().size();
-                return invoice;
-            })
-            .collect(Collectors.toList());
+    // Search invoices by number, customer name or mobile. Ranked exact > prefix > substring match, then
+    // newest first; pages hold at most app.invoice.search.max-results and continue from the cursor.
+    // Terms shorter than MIN_SUBSTRING_TERM_LENGTH match only at the start of a value: trigrams cannot
+    // index shorter substrings, and "%ab%" over every invoice would be a full scan per keystroke.
+    @Transactional(readOnly = true)
+    public CursorPage<InvoiceSummary> searchInvoices(String searchTerm, String cursor, Integer limit) {
+        InvoiceSearchCursor position = InvoiceSearchCursor.decode(cursor);
+        String term = searchTerm == null ? "" : searchTerm.trim().toLowerCase(Locale.ROOT);
+        if (term.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+        int pageSize = limit == null || limit <= 0 ? searchMaxResults : Math.min(limit, searchMaxResults);
+        
+        String escaped = escapeLike(term);
+        String prefix = escaped + "%";
+        String pattern = term.length() < MIN_SUBSTRING_TERM_LENGTH ? prefix : "%" + escaped + "%";
+        List<InvoiceSearchHit> hits = position == null
+            ? invoiceRepository.searchFirstPage(term, pattern, prefix, pageSize + 1)
+            : invoiceRepository.searchPage(term, pattern, prefix, position.getMatchRank(),
+                position.getInvoiceDate(), position.getId(), pageSize + 1);
+        String nextCursor = null;
+        if (hits.size() > pageSize) {
+            hits = hits.subList(0, pageSize);
+            InvoiceSearchHit last = hits.get(pageSize - 1);
+            nextCursor = new InvoiceSearchCursor(last.getMatchRank(), last.getInvoiceDate(), last.getId()).encode();
+        }
+        if (hits.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+        
+        // Summaries of this page's invoices only, put back into ranking order
+        Map<Long, InvoiceSummary> byId = new HashMap<>();
+        for (InvoiceSummary summary : invoiceRepository.findSummariesByIdIn(
+                hits.stream().map(InvoiceSearchHit::getId).collect(Collectors.toList()))) {
+            byId.put(summary.getId(), summary);
+        }
+        List<InvoiceSummary> ranked = new ArrayList<>(hits.size());
+        for (InvoiceSearchHit hit : hits) {
+            InvoiceSummary summary = byId.get(hit.getId());
+            if (summary != null) {
+                ranked.add(summary);
+            }
+        }
+        return new CursorPage<>(ranked, nextCursor);
     }
     
     // Get invoices by customer name
-    public List<Invoice> getInvoicesByCustomerName(String customerName) {
-        return invoiceRepository.findByCustomerNameContainingIgnoreCase(customerName);
+    public CursorPage<InvoiceSummary> getInvoicesByCustomerName(String customerName, String cursor, Integer limit) {
+        InvoiceCursor position = InvoiceCursor.decode(cursor);
+        int pageSize = resolvePageSize(limit);
+        PageRequest window = PageRequest.of(0, pageSize + 1);
+        return toPage(position == null ? invoiceRepository.findFirstPageByCustomerName(customerName, window)
+            : invoiceRepository.findPageByCustomerName(customerName, position.getInvoiceDate(), position.getId(), window),
+            pageSize);
     }
     
     // Get invoices by mobile
-    public List<Invoice> getInvoicesByMobile(String mobile) {
-        return invoiceRepository.findByCustomerMobile(mobile);
+    public CursorPage<InvoiceSummary> getInvoicesByMobile(String mobile, String cursor, Integer limit) {
+        InvoiceCursor position = InvoiceCursor.decode(cursor);
+        int pageSize = resolvePageSize(limit);
+        PageRequest window = PageRequest.of(0, pageSize + 1);
+        return toPage(position == null ? invoiceRepository.findFirstPageByCustomerMobile(mobile, window)
+            : invoiceRepository.findPageByCustomerMobile(mobile, position.getInvoiceDate(), position.getId(), window),
+            pageSize);
     }
     
     // Get invoices by date range
-    public List<Invoice> getInvoicesByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return invoiceRepository.findByInvoiceDateBetween(startDate, endDate);
+    public CursorPage<InvoiceSummary> getInvoicesByDateRange(LocalDateTime startDate, LocalDateTime endDate,
+                                                      String cursor, Integer limit) {
+        InvoiceCursor position = InvoiceCursor.decode(cursor);
+        int pageSize = resolvePageSize(limit);
+        PageRequest window = PageRequest.of(0, pageSize + 1);
+        return toPage(position == null ? invoiceRepository.findFirstPageByInvoiceDateBetween(startDate, endDate, window)
+            : invoiceRepository.findPageByInvoiceDateBetween(
+                startDate, endDate, position.getInvoiceDate(), position.getId(), window), pageSize);
     }
     
     // Get recent invoices (last 30 days)
-    public List<Invoice> getRecentInvoices() {
+    public CursorPage<InvoiceSummary> getRecentInvoices(String cursor, Integer limit) {
         LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-        return invoiceRepository.findRecentInvoices(thirtyDaysAgo);
+        InvoiceCursor position = InvoiceCursor.decode(cursor);
+        int pageSize = resolvePageSize(limit);
+        PageRequest window = PageRequest.of(0, pageSize + 1);
+        return toPage(position == null ? invoiceRepository.findFirstPageByInvoiceDateFrom(thirtyDaysAgo, window)
+            : invoiceRepository.findPageByInvoiceDateFrom(
+                thirtyDaysAgo, position.getInvoiceDate(), position.getId(), window), pageSize);
     }
     
     // Generate next invoice number
     public String generateNextInvoiceNumber() {
-        String latestInvoiceNo = invoiceRepository.findLatestInvoiceNumber().orElse("INV000000");
-        
-        try {
-            // Extract number part from invoice number (assuming format: INV######)
-            String numberPart = latestInvoiceNo.substring(3);
-            int nextNumber = Integer.parseInt(numberPart) + 1;
-            return String.format("INV%06d", nextNumber);
-        } catch (Exception e) {
-            // If parsing fails, generate based on current date
-            String dateTime = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmm"));
-            return "INV" + dateTime;
-        }
+        return invoiceNumberAllocator.nextInvoiceNumber();
     }
     
     // Check if invoice number exists
@@ -204,72 +344,154 @@ public class InvoiceService {
     // Update payment status
     public Invoice updatePaymentStatus(Long id, Invoice.PaymentStatus paymentStatus) {
         Invoice invoice = getInvoiceById(id);
+        RevenueRollupService.RevenueContribution previous = RevenueRollupService.contributionOf(invoice);
+        CustomerHistoryService.CustomerContribution previousCustomer = CustomerHistoryService.contributionOf(invoice);
         invoice.setPaymentStatus(paymentStatus);
-        return invoiceRepository.save(invoice);
+        Invoice savedInvoice = invoiceRepository.save(invoice);
+        revenueRollupService.recordChanged(previous, savedInvoice);
+        customerHistoryService.recordChanged(previousCustomer, savedInvoice);
+        invoiceStatisticsCache.invalidate();
+        businessMetrics.paymentStatusChanged(previous.getPaymentStatus(), savedInvoice.getPaymentStatus());
+        return savedInvoice;
     }
     
     // ADDED: Method required by controller (different signature)
     public Invoice updateInvoiceStatus(Long id, String status) {
         Invoice invoice = getInvoiceById(id);
+        RevenueRollupService.RevenueContribution previous = RevenueRollupService.contributionOf(invoice);
+        CustomerHistoryService.CustomerContribution previousCustomer = CustomerHistoryService.contributionOf(invoice);
         try {
             Invoice.PaymentStatus paymentStatus = Invoice.PaymentStatus.valueOf(status.toUpperCase());
             invoice.setPaymentStatus(paymentStatus);
-            return invoiceRepository.save(invoice);
+            Invoice savedInvoice = invoiceRepository.save(invoice);
+            revenueRollupService.recordChanged(previous, savedInvoice);
+            customerHistoryService.recordChanged(previousCustomer, savedInvoice);
+            invoiceStatisticsCache.invalidate();
+            businessMetrics.paymentStatusChanged(previous.getPaymentStatus(), savedInvoice.getPaymentStatus());
+            return savedInvoice;
         } catch (IllegalArgumentException e) {
             throw new RuntimeException("Invalid payment status: " + status);
         }
     }
     
-    // Get revenue statistics
+    // Get revenue statistics (read from the revenue_daily rollup)
     public Double getTotalRevenue() {
-        return invoiceRepository.getTotalRevenue().orElse(0.0);
+        return revenueRollupService.getPaidRevenue();
     }
     
     public Double getMonthlyRevenue(int year, int month) {
-        return invoiceRepository.getMonthlyRevenue(year, month).orElse(0.0);
+        return revenueRollupService.getPaidRevenue(year, month);
     }
     
     // ADDED: Method required by controller
+    // Served from a short-lived snapshot; a miss costs one grouped query instead of loading every invoice.
+    // Hits and threads waiting for another's recompute take no connection; only the recompute opens a transaction.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, Object> getInvoiceStatistics() {
-        Map<String, Object> statistics = new HashMap<>();
-        
-        // Total invoices count
-        Long totalInvoices = invoiceRepository.count();
-        statistics.put("totalInvoices", totalInvoices);
+        return invoiceStatisticsCache.get(this::computeInvoiceStatistics);
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> getInvoiceStatisticsMetrics() {
+        return invoiceStatisticsCache.metrics();
+    }
+    
+    // Helper method to fold the per-status aggregate rows into the statistics response
+    private Map<String, Object> computeInvoiceStatistics() {
+        long totalInvoices = 0;
+        long recentInvoices = 0;
+        double paidRevenue = 0.0;
+        Map<Invoice.PaymentStatus, Long> countsByStatus = new HashMap<>();
         
-        // Total revenue
-        Double totalRevenue = getTotalRevenue();
-        statistics.put("totalRevenue", totalRevenue);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        List<PaymentStatusAggregate> rows =
+            transaction.execute(status -> invoiceRepository.aggregateByPaymentStatus(LocalDateTime.now().minusDays(30)));
         
-        // Count by payment status using existing repository methods
-        try {
-            List<Invoice> paidInvoices = invoiceRepository.findByPaymentStatus(Invoice.PaymentStatus.PAID);
-            List<Invoice> pendingInvoices = invoiceRepository.findByPaymentStatus(Invoice.PaymentStatus.PENDING);
-            List<Invoice> overdueInvoices = invoiceRepository.findByPaymentStatus(Invoice.PaymentStatus.OVERDUE);
-            
-            statistics.put("paidInvoices", (long) paidInvoices.size());
-            statistics.put("pendingInvoices", (long) pendingInvoices.size());
-            statistics.put("overdueInvoices", (long) overdueInvoices.size());
-        } catch (Exception e) {
-            // If repository methods don't exist, provide default values
-            statistics.put("paidInvoices", 0L);
-            statistics.put("pendingInvoices", 0L);
-            statistics.put("overdueInvoices", 0L);
+        for (PaymentStatusAggregate row : rows) {
+            long count = row.getInvoiceCount() != null ? row.getInvoiceCount() : 0L;
+            totalInvoices += count;
+            recentInvoices += row.getRecentCount() != null ? row.getRecentCount() : 0L;
+            if (row.getPaymentStatus() != null) {
+                countsByStatus.merge(row.getPaymentStatus(), count, Long::sum);
+            }
+            if (row.getPaymentStatus() == Invoice.PaymentStatus.PAID && row.getTotalAmount() != null) {
+                paidRevenue += row.getTotalAmount().doubleValue();
+            }
         }
         
-        // Recent invoices count (last 30 days)
-        try {
-            List<Invoice> recentInvoices = getRecentInvoices();
-            statistics.put("recentInvoicesCount", (long) recentInvoices.size());
-        } catch (Exception e) {
-            statistics.put("recentInvoicesCount", 0L);
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("totalInvoices", totalInvoices);
+        statistics.put("totalRevenue", paidRevenue);
+        statistics.put("paidInvoices", countsByStatus.getOrDefault(Invoice.PaymentStatus.PAID, 0L));
+        statistics.put("pendingInvoices", countsByStatus.getOrDefault(Invoice.PaymentStatus.PENDING, 0L));
+        statistics.put("overdueInvoices", countsByStatus.getOrDefault(Invoice.PaymentStatus.OVERDUE, 0L));
+        statistics.put("recentInvoicesCount", recentInvoices);
+        return statistics;
+    }
+    
+    // Prices every item, links it to the invoice and validates the result; shared with batch ingestion
+    void priceForPersistence(Invoice invoice) {
+        // Calculate and set tax amounts for each item
+        if (invoice.getItems() != null && !invoice.getItems().isEmpty()) {
+            // One pass: each line is priced once and its total is added as it goes
+            long totalPaise = 0;
+            for (InvoiceItem item : invoice.getItems()) {
+                totalPaise += calculateItemTotals(item);
+                item.setInvoice(invoice);
+            }
+            invoice.setTotalAmount(GstCalculator.toAmount(totalPaise));
+        } else {
+            // If no items, throw error
+            throw new IllegalArgumentException("Invoice must contain at least one item");
         }
         
-        return statistics;
+        // Validate before saving
+        invoice.validateForPersistence();
     }
     
-    // Helper method to calculate item totals
-    private void calculateItemTotals(InvoiceItem item) {
+    // Helper method to skip allocated numbers that were already typed in by hand
+    String allocateUnusedInvoiceNumber(Invoice invoice) {
+        LocalDate invoiceDate = invoice.getInvoiceDate() != null ? invoice.getInvoiceDate().toLocalDate() : LocalDate.now();
+        for (int attempt = 0; attempt < MAX_NUMBER_ATTEMPTS; attempt++) {
+            String invoiceNo = invoiceNumberAllocator.nextInvoiceNumber(invoiceDate);
+            if (!invoiceRepository.existsByInvoiceNo(invoiceNo)) {
+                return invoiceNo;
+            }
+        }
+        throw new IllegalStateException("Could not allocate an unused invoice number");
+    }
+    
+    // Helper method to make user input literal inside a LIKE pattern
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+    
+    // Helper method to clamp the requested page size
+    private int resolvePageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(limit, maxPageSize);
+    }
+    
+    // Helper method to trim the look-ahead row and derive the next cursor
+    private CursorPage<InvoiceSummary> toPage(List<InvoiceSummary> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<InvoiceSummary> page = rows.subList(0, pageSize);
+        InvoiceSummary last = page.get(pageSize - 1);
+        return new CursorPage<>(page, new InvoiceCursor(last.getInvoiceDate(), last.getId()).encode());
+    }
+    
+    // Units sold per product by an invoice's lines
+    static Map<Long, Long> stockOf(Invoice invoice) {
+        return StockLedger.quantitiesByProduct(invoice.getItems(), InvoiceItem::getProductId, InvoiceItem::getQuantity);
+    }
+
+    // Helper method to validate and price one line; returns its total in paise
+    static long calculateItemTotals(InvoiceItem item) {
         // Validate item inputs
         if (item.getUnitPrice() == null || item.getUnitPrice().compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Item unit price must be greater than 0");
@@ -284,30 +506,7 @@ public class InvoiceService {
             throw new IllegalArgumentException("Item name is required");
         }
         
-        BigDecimal subtotal = item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-        
-        BigDecimal cgstAmount = BigDecimal.ZERO;
-        BigDecimal sgstAmount = BigDecimal.ZERO;
-        
-        if (item.getCgstRate() != null && item.getCgstRate().compareTo(BigDecimal.ZERO) > 0) {
-            cgstAmount = subtotal.multiply(item.getCgstRate()).divide(BigDecimal.valueOf(100));
-            item.setCgstAmount(cgstAmount);
-        } else {
-            item.setCgstAmount(BigDecimal.ZERO);
-        }
-        
-        if (item.getSgstRate() != null && item.getSgstRate().compareTo(BigDecimal.ZERO) > 0) {
-            sgstAmount = subtotal.multiply(item.getSgstRate()).divide(BigDecimal.valueOf(100));
-            item.setSgstAmount(sgstAmount);
-        } else {
-            item.setSgstAmount(BigDecimal.ZERO);
-        }
-        
-        BigDecimal taxAmount = cgstAmount.add(sgstAmount);
-        item.setTaxAmount(taxAmount);
-        
-        BigDecimal totalPrice = subtotal.add(taxAmount);
-        item.setTotalPrice(totalPrice);
+        return item.applyPricing();
     }
     
     // Helper method to extract validation messages
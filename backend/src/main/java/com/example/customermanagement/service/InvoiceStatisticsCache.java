@@ -0,0 +1,133 @@
+package com.example.customermanagement.service;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Holds the last computed invoice statistics for at most
+ * app.invoice.stats.max-staleness. Invoice writes drop the snapshot once
+ * their transaction commits, so readers never cache pre-commit numbers.
+ */
+@Component
+public class InvoiceStatisticsCache {
+
+    @Value("${app.invoice.stats.max-staleness:PT30S}")
+    private Duration maxStaleness;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    // Held across the statistics query; a monitor would pin a virtual thread to its carrier
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot;
+    private volatile long lastLoadNanos;
+
+    public Map<String, Object> get(Supplier<Map<String, Object>> loader) {
+        Snapshot current = snapshot;
+        if (isFresh(current)) {
+            hits.increment();
+            return current.statistics;
+        }
+
+        // Only one thread recomputes; the rest wait and reuse its result
+        loadLock.lock();
+        try {
+            current = snapshot;
+            if (isFresh(current)) {
+                hits.increment();
+                return current.statistics;
+            }
+            misses.increment();
+
+            long loadGeneration = generation.get();
+            long start = System.nanoTime();
+            Map<String, Object> statistics = Collections.unmodifiableMap(loader.get());
+            long elapsed = System.nanoTime() - start;
+            loadNanos.add(elapsed);
+            lastLoadNanos = elapsed;
+
+            // A write that committed while we were querying makes this result stale already
+            if (generation.get() == loadGeneration) {
+                snapshot = new Snapshot(statistics, loadGeneration, System.nanoTime());
+            }
+            return statistics;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict();
+                }
+            });
+        }
+        evict();
+    }
+
+    public Map<String, Object> metrics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("hits", hitCount);
+        metrics.put("misses", missCount);
+        metrics.put("hitRatio", total > 0 ? (double) hitCount / total : 0.0);
+        metrics.put("averageQueryMillis", missCount > 0 ? loadNanos.sum() / missCount / 1_000_000.0 : 0.0);
+        metrics.put("lastQueryMillis", lastLoadNanos / 1_000_000.0);
+        metrics.put("maxStalenessSeconds", maxStaleness.getSeconds());
+        return metrics;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getLoadNanos() {
+        return loadNanos.sum();
+    }
+
+    private void evict() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private boolean isFresh(Snapshot current) {
+        return current != null
+            && current.generation == generation.get()
+            && System.nanoTime() - current.loadedAtNanos < maxStaleness.toNanos();
+    }
+
+    private static final class Snapshot {
+        private final Map<String, Object> statistics;
+        private final long generation;
+        private final long loadedAtNanos;
+
+        private Snapshot(Map<String, Object> statistics, long generation, long loadedAtNanos) {
+            this.statistics = statistics;
+            this.generation = generation;
+            this.loadedAtNanos = loadedAtNanos;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.customermanagement.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Applies an edited list of line items to the lines an invoice already has,
+ * matching them by id. Lines without an id are added, matched lines are
+ * updated in place and lines left out of the edit are removed (orphan
+ * removal deletes their rows). Hibernate writes only the matched lines whose
+ * values changed, so editing one line touches one row instead of deleting
+ * and reinserting all of them.
+ */
+final class LineItemMerge {
+
+    private int inserted;
+    private int updated;
+    private int deleted;
+
+    private LineItemMerge() {
+    }
+
+    /**
+     * @param update copies an incoming line onto the managed one and returns whether anything changed
+     */
+    static <T> LineItemMerge apply(String owner, List<T> current, List<T> incoming, Function<T, Long> idOf,
+                                   BiPredicate<T, T> update, Consumer<T> add, Consumer<T> remove) {
+        Map<Long, T> unmatched = new LinkedHashMap<>();
+        for (T line : current) {
+            unmatched.put(idOf.apply(line), line);
+        }
+
+        LineItemMerge merge = new LineItemMerge();
+        Set<Long> seen = new HashSet<>();
+        List<T> added = new ArrayList<>();
+        for (T line : incoming) {
+            Long id = idOf.apply(line);
+            if (id == null) {
+                added.add(line);
+                continue;
+            }
+            if (!seen.add(id)) {
+                throw new IllegalArgumentException("Item " + id + " appears more than once");
+            }
+            T existing = unmatched.remove(id);
+            if (existing == null) {
+                throw new IllegalArgumentException("Item " + id + " is not a line of " + owner);
+            }
+            if (update.test(existing, line)) {
+                merge.updated++;
+            }
+        }
+        for (T line : unmatched.values()) {
+            remove.accept(line);
+            merge.deleted++;
+        }
+        for (T line : added) {
+            add.accept(line);
+            merge.inserted++;
+        }
+        return merge;
+    }
+
+    int getInserted() { return inserted; }
+    int getUpdated() { return updated; }
+    int getDeleted() { return deleted; }
+
+    int touched() {
+        return inserted + updated + deleted;
+    }
+}
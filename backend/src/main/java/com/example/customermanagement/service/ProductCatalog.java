@@ -0,0 +1,324 @@
+package com.example.customermanagement.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.customermanagement.dto.ResourceVersion;
+import com.example.customermanagement.model.Product;
+import com.example.customermanagement.repository.ProductRepository;
+
+/**
+ * In-process product catalog. Readers get an immutable snapshot (products in
+ * id order plus a trigram index over name and category) without touching the
+ * database; writes go to the database first and then swap in a new snapshot.
+ * The snapshot is also reloaded from the database once it is older than
+ * app.product.catalog.max-age, to pick up writes made by other instances.
+ *
+ * Products in the snapshot are shared between requests and must not be
+ * modified; updates load their own copy through the repository.
+ */
+@Component
+public class ProductCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCatalog.class);
+
+    private static final int GRAM = 3;
+    private static final int[] NO_POSTINGS = new int[0];
+
+    @Value("${app.product.catalog.max-age:PT5M}")
+    private Duration maxAge;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder databaseLoads = new LongAdder();
+    private final LongAdder searches = new LongAdder();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("Product catalog warm-up failed, it will load on first use: {}", e.getMessage());
+        }
+    }
+
+    public List<Product> getAll() {
+        return current().products;
+    }
+
+    public Optional<Product> get(Long id) {
+        return Optional.ofNullable(current().byId.get(id));
+    }
+
+    // Count and newest updatedAt of the snapshot, for collection ETags
+    public ResourceVersion version() {
+        Snapshot current = current();
+        return new ResourceVersion(current.products.size(), current.lastModified);
+    }
+
+    // Case-insensitive substring match on name or category, in id order
+    public List<Product> search(String term) {
+        searches.increment();
+        Snapshot current = current();
+        String needle = term == null ? "" : term.toLowerCase(Locale.ROOT);
+        if (needle.isEmpty()) {
+            return current.products;
+        }
+
+        List<Product> matches = new ArrayList<>();
+        if (needle.length() < GRAM) {
+            // Too short for a trigram; the catalog is small enough to scan
+            for (int i = 0; i < current.products.size(); i++) {
+                if (current.matches(i, needle)) {
+                    matches.add(current.products.get(i));
+                }
+            }
+            return matches;
+        }
+
+        for (int position : current.candidates(needle)) {
+            // Every trigram being present does not guarantee the substring is; confirm it
+            if (current.matches(position, needle)) {
+                matches.add(current.products.get(position));
+            }
+        }
+        return matches;
+    }
+
+    // Called after the product row is committed
+    public void put(Product product) {
+        writeLock.lock();
+        try {
+            Map<Long, Product> next = new LinkedHashMap<>(current().byId);
+            next.put(product.getId(), product);
+            install(new ArrayList<>(next.values()));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Called after the product row is deleted
+    public void remove(Long id) {
+        writeLock.lock();
+        try {
+            Map<Long, Product> next = new LinkedHashMap<>(current().byId);
+            if (next.remove(id) != null) {
+                install(new ArrayList<>(next.values()));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void reload() {
+        writeLock.lock();
+        try {
+            long start = System.nanoTime();
+            List<Product> products = productRepository.findAll();
+            databaseLoads.increment();
+            Snapshot installed = install(products);
+            log.info("Product catalog loaded {} products in {} ms (index built in {} ms)",
+                installed.products.size(), (System.nanoTime() - start) / 1_000_000, installed.buildNanos / 1_000_000);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Snapshot current = snapshot.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loaded", current != null);
+        if (current != null) {
+            stats.put("products", current.products.size());
+            stats.put("indexedTrigrams", current.index.size());
+            stats.put("postingEntries", current.postingEntries);
+            stats.put("estimatedBytes", current.estimatedBytes);
+            stats.put("lastRebuildMillis", current.buildNanos / 1_000_000.0);
+            stats.put("builtAt", current.builtAt.toString());
+        }
+        stats.put("rebuilds", rebuilds.sum());
+        stats.put("databaseLoads", databaseLoads.sum());
+        stats.put("searches", searches.sum());
+        stats.put("maxAgeSeconds", maxAge.getSeconds());
+        return stats;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            reload();
+            return snapshot.get();
+        }
+        // Refresh a stale snapshot once; everyone else keeps reading the old one meanwhile
+        if (System.nanoTime() - current.builtAtNanos > maxAge.toNanos() && writeLock.tryLock()) {
+            try {
+                if (snapshot.get() == current) {
+                    reload();
+                }
+            } catch (Exception e) {
+                log.warn("Product catalog refresh failed, serving the previous snapshot: {}", e.getMessage());
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        return snapshot.get();
+    }
+
+    private Snapshot install(List<Product> products) {
+        Snapshot built = Snapshot.build(products);
+        snapshot.set(built);
+        rebuilds.increment();
+        return built;
+    }
+
+    private static final class Snapshot {
+        private final List<Product> products;
+        private final Map<Long, Product> byId;
+        private final String[] names;
+        private final String[] categories;
+        private final Map<String, int[]> index;
+        private final long postingEntries;
+        private final long estimatedBytes;
+        private final long buildNanos;
+        private final long builtAtNanos;
+        private final LocalDateTime builtAt;
+        private final LocalDateTime lastModified;
+
+        private Snapshot(List<Product> products, Map<Long, Product> byId, String[] names, String[] categories,
+                         Map<String, int[]> index, long postingEntries, long estimatedBytes, long buildNanos,
+                         LocalDateTime lastModified) {
+            this.products = products;
+            this.byId = byId;
+            this.names = names;
+            this.categories = categories;
+            this.index = index;
+            this.postingEntries = postingEntries;
+            this.estimatedBytes = estimatedBytes;
+            this.buildNanos = buildNanos;
+            this.builtAtNanos = System.nanoTime();
+            this.builtAt = LocalDateTime.now();
+            this.lastModified = lastModified;
+        }
+
+        private static Snapshot build(List<Product> source) {
+            long start = System.nanoTime();
+            List<Product> products = new ArrayList<>(source);
+            products.sort(Comparator.comparing(Product::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+
+            int size = products.size();
+            Map<Long, Product> byId = new LinkedHashMap<>(size * 2);
+            String[] names = new String[size];
+            String[] categories = new String[size];
+            Map<String, List<Integer>> postings = new HashMap<>();
+            long estimatedBytes = 0;
+            LocalDateTime lastModified = null;
+
+            for (int i = 0; i < size; i++) {
+                Product product = products.get(i);
+                byId.put(product.getId(), product);
+                if (product.getUpdatedAt() != null
+                        && (lastModified == null || product.getUpdatedAt().isAfter(lastModified))) {
+                    lastModified = product.getUpdatedAt();
+                }
+                names[i] = lower(product.getName());
+                categories[i] = lower(product.getCategory());
+                addGrams(postings, names[i], i);
+                addGrams(postings, categories[i], i);
+                // Entity with its strings, BigDecimal and timestamps, plus the lower-cased copies held here
+                estimatedBytes += 160 + stringBytes(product.getName()) + stringBytes(product.getCategory())
+                    + stringBytes(product.getDescription()) + stringBytes(names[i]) + stringBytes(categories[i]);
+            }
+
+            Map<String, int[]> index = new HashMap<>(postings.size() * 2);
+            long postingEntries = 0;
+            for (Map.Entry<String, List<Integer>> entry : postings.entrySet()) {
+                int[] positions = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+                index.put(entry.getKey(), positions);
+                postingEntries += positions.length;
+                estimatedBytes += 48 + stringBytes(entry.getKey()) + 16 + 4L * positions.length;
+            }
+
+            return new Snapshot(Collections.unmodifiableList(products), Collections.unmodifiableMap(byId),
+                names, categories, Collections.unmodifiableMap(index), postingEntries, estimatedBytes,
+                System.nanoTime() - start, lastModified);
+        }
+
+        // Positions whose name or category contain every trigram of the needle
+        private int[] candidates(String needle) {
+            int[] result = null;
+            for (int i = 0; i + GRAM <= needle.length(); i++) {
+                int[] postings = index.getOrDefault(needle.substring(i, i + GRAM), NO_POSTINGS);
+                result = result == null ? postings : intersect(result, postings);
+                if (result.length == 0) {
+                    break;
+                }
+            }
+            return result == null ? NO_POSTINGS : result;
+        }
+
+        private boolean matches(int position, String needle) {
+            return names[position].contains(needle) || categories[position].contains(needle);
+        }
+
+        private static void addGrams(Map<String, List<Integer>> postings, String value, int position) {
+            for (int i = 0; i + GRAM <= value.length(); i++) {
+                List<Integer> list = postings.computeIfAbsent(value.substring(i, i + GRAM), key -> new ArrayList<>());
+                // Positions arrive in ascending order, so a repeat can only be the last entry
+                if (list.isEmpty() || list.get(list.size() - 1) != position) {
+                    list.add(position);
+                }
+            }
+        }
+
+        // Both inputs are sorted ascending
+        private static int[] intersect(int[] a, int[] b) {
+            int[] out = new int[Math.min(a.length, b.length)];
+            int i = 0, j = 0, n = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    out[n++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+            return n == out.length ? out : Arrays.copyOf(out, n);
+        }
+
+        private static String lower(String value) {
+            return value == null ? "" : value.toLowerCase(Locale.ROOT);
+        }
+
+        private static long stringBytes(String value) {
+            return value == null ? 0 : 40 + value.length();
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.customermanagement.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
+import com.example.customermanagement.dto.ResourceVersion;
 import com.example.customermanagement.model.Product;
 import com.example.customermanagement.repository.ProductRepository;
 
@@ -13,34 +17,70 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    // Reads are served from the in-memory catalog
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return productCatalog.getAll();
     }
 
     public Product getProductById(Long id) {
-        return productRepository.findById(id)
+        return productCatalog.get(id)
             .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
     }
 
+    public boolean productExists(Long id) {
+        return productCatalog.get(id).isPresent();
+    }
+
+    // Validators for conditional GETs, also answered from the catalog
+    public LocalDateTime getProductLastModified(Long id) {
+        return productCatalog.get(id).map(Product::getUpdatedAt).orElse(null);
+    }
+
+    public ResourceVersion getProductsVersion() {
+        return productCatalog.version();
+    }
+
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        productCatalog.put(saved);
+        return saved;
     }
 
     public Product updateProduct(Long id, Product productDetails) {
-        Product product = getProductById(id);
+        Product product = loadProduct(id);
+        if (productDetails.getVersion() != null && !productDetails.getVersion().equals(product.getVersion())) {
+            throw new OptimisticLockingFailureException("Product " + id + " has changed since version "
+                + productDetails.getVersion() + "; current version is " + product.getVersion());
+        }
         product.setName(productDetails.getName());
         product.setCategory(productDetails.getCategory());
         product.setUnitPrice(productDetails.getUnitPrice());
         product.setDescription(productDetails.getDescription());
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        productCatalog.put(saved);
+        return saved;
     }
 
     public void deleteProduct(Long id) {
-        Product product = getProductById(id);
+        Product product = loadProduct(id);
         productRepository.delete(product);
+        productCatalog.remove(id);
     }
 
     public List<Product> searchProducts(String term) {
-        return productRepository.searchProducts(term);
+        return productCatalog.search(term);
+    }
+
+    public Map<String, Object> getCatalogStats() {
+        return productCatalog.stats();
+    }
+
+    // Writes work on a fresh database copy; catalog instances are shared and stay untouched
+    private Product loadProduct(Long id) {
+        return productRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
     }
-}
\ No newline at end of file
+}
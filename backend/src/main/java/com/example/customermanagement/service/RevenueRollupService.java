@@ -0,0 +1,273 @@
+package com.example.customermanagement.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.customermanagement.dto.RevenueBucket;
+import com.example.customermanagement.dto.RevenueBucketRow;
+import com.example.customermanagement.model.Invoice;
+import com.example.customermanagement.model.RevenueDaily;
+import com.example.customermanagement.repository.InvoiceRepository;
+import com.example.customermanagement.repository.RevenueDailyRepository;
+
+/**
+ * Maintains the revenue_daily rollup. Invoice writes apply signed deltas in
+ * the same transaction, so revenue queries read a few rows per day instead
+ * of scanning invoices. The deltas are collected per transaction and applied
+ * just before it commits: every invoice created today updates the same
+ * (today, PENDING) row, and applying the delta as the invoice is saved would
+ * hold that row lock through the rest of the transaction (customer totals,
+ * stock claims), queueing all of the day's invoice writes behind each other.
+ * A write that touches several rollup rows updates them in (day, status)
+ * order, so two such writes sharing rows queue behind each other instead of
+ * deadlocking.
+ */
+@Service
+@Transactional
+public class RevenueRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(RevenueRollupService.class);
+
+    public enum Bucket { DAY, WEEK, MONTH }
+
+    private static final Comparator<RevenueDaily.Key> LOCK_ORDER =
+        Comparator.comparing(RevenueDaily.Key::getDay).thenComparing(RevenueDaily.Key::getPaymentStatus);
+
+    // Rollup rows are locked before customer_totals rows (CustomerHistoryService) at commit, in every transaction
+    static final int DELTAS_ORDER = 0;
+
+    @Autowired
+    private RevenueDailyRepository revenueDailyRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Snapshot of the rollup-relevant fields, taken before an invoice is modified
+    public static RevenueContribution contributionOf(Invoice invoice) {
+        return new RevenueContribution(invoice.getInvoiceDate(), invoice.getPaymentStatus(), invoice.getTotalAmount());
+    }
+
+    public void recordCreated(Invoice invoice) {
+        Deltas deltas = new Deltas();
+        deltas.add(contributionOf(invoice), 1);
+        applyBeforeCommit(deltas);
+    }
+
+    // Folds a chunk of new invoices into one delta per day and status
+    public void recordCreated(Collection<Invoice> invoices) {
+        Deltas deltas = new Deltas();
+        for (Invoice invoice : invoices) {
+            deltas.add(contributionOf(invoice), 1);
+        }
+        applyBeforeCommit(deltas);
+    }
+
+    public void recordDeleted(Invoice invoice) {
+        Deltas deltas = new Deltas();
+        deltas.add(contributionOf(invoice), -1);
+        applyBeforeCommit(deltas);
+    }
+
+    // A moved date or a new status takes the invoice out of one row and into another; both in lock order
+    public void recordChanged(RevenueContribution before, Invoice after) {
+        RevenueContribution current = contributionOf(after);
+        if (before.equals(current)) {
+            return;
+        }
+        Deltas deltas = new Deltas();
+        deltas.add(before, -1);
+        deltas.add(current, 1);
+        applyBeforeCommit(deltas);
+    }
+
+    // Recomputes the whole rollup from invoices
+    public Map<String, Object> rebuild() {
+        long start = System.nanoTime();
+        revenueDailyRepository.lockInvoicesForRebuild();
+        int removed = revenueDailyRepository.deleteAllRows();
+        int inserted = revenueDailyRepository.insertFromInvoices();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("rowsRemoved", removed);
+        result.put("rowsInserted", inserted);
+        result.put("elapsedMillis", (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    // Same figure as COUNT(*) on invoices, since every invoice write updates the rollup in its transaction
+    @Transactional(readOnly = true)
+    public long getInvoiceCount() {
+        return revenueDailyRepository.countInvoices();
+    }
+
+    @Transactional(readOnly = true)
+    public Double getPaidRevenue() {
+        return revenueDailyRepository.sumAmountByStatus(Invoice.PaymentStatus.PAID.name()).doubleValue();
+    }
+
+    @Transactional(readOnly = true)
+    public Double getPaidRevenue(int year, int month) {
+        LocalDate from = LocalDate.of(year, month, 1);
+        return revenueDailyRepository.sumAmountByStatusBetween(
+            Invoice.PaymentStatus.PAID.name(), from, from.plusMonths(1)).doubleValue();
+    }
+
+    // Revenue per day, week (starting Monday) or month between from and to, both inclusive
+    @Transactional(readOnly = true)
+    public List<RevenueBucket> getRevenue(Bucket bucket, LocalDate from, LocalDate to) {
+        List<RevenueBucket> buckets = new ArrayList<>();
+        RevenueBucket current = null;
+        for (RevenueBucketRow row : revenueDailyRepository.findBuckets(bucket.name().toLowerCase(), from, to)) {
+            if (current == null || !current.getPeriodStart().equals(row.getPeriodStart())) {
+                current = new RevenueBucket(row.getPeriodStart());
+                buckets.add(current);
+            }
+            current.add(row.getPaymentStatus(), row.getInvoiceCount(), row.getTotalAmount());
+        }
+        return buckets;
+    }
+
+    public static Bucket parseBucket(String value) {
+        try {
+            return Bucket.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid bucket: " + value + " (expected day, week or month)");
+        }
+    }
+
+    // First start against an existing database: fill the rollup once so the deltas have a base to add to
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (revenueDailyRepository.count() == 0 && invoiceRepository.count() > 0) {
+                    log.info("Revenue rollup is empty, rebuilding from invoices: {}", rebuild());
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Revenue rollup backfill failed, run POST /api/invoices/revenue/rebuild: {}", e.getMessage());
+        }
+    }
+
+    // Joins the transaction's pending deltas; without a transaction there is nothing to defer to
+    private void applyBeforeCommit(Deltas deltas) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deltas.apply();
+            return;
+        }
+        Deltas pending = (Deltas) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            TransactionSynchronizationManager.bindResource(this, deltas);
+            TransactionSynchronizationManager.registerSynchronization(deltas);
+        } else {
+            pending.merge(deltas);
+        }
+    }
+
+    // Signed count and amount per rollup row, applied in LOCK_ORDER
+    private final class Deltas implements TransactionSynchronization {
+        private final Map<RevenueDaily.Key, Long> counts = new TreeMap<>(LOCK_ORDER);
+        private final Map<RevenueDaily.Key, BigDecimal> amounts = new HashMap<>();
+
+        void add(RevenueContribution contribution, int sign) {
+            if (contribution.getInvoiceDate() == null || contribution.getPaymentStatus() == null) {
+                return;
+            }
+            RevenueDaily.Key key = new RevenueDaily.Key(contribution.getInvoiceDate().toLocalDate(),
+                contribution.getPaymentStatus().name());
+            BigDecimal amount = contribution.getTotalAmount() != null ? contribution.getTotalAmount() : BigDecimal.ZERO;
+            counts.merge(key, (long) sign, Long::sum);
+            amounts.merge(key, sign < 0 ? amount.negate() : amount, BigDecimal::add);
+        }
+
+        void merge(Deltas other) {
+            other.counts.forEach((key, count) -> counts.merge(key, count, Long::sum));
+            other.amounts.forEach((key, amount) -> amounts.merge(key, amount, BigDecimal::add));
+        }
+
+        // An invoice created and deleted in one transaction leaves nothing to write
+        void apply() {
+            counts.forEach((key, count) -> {
+                BigDecimal amount = amounts.get(key);
+                if (count != 0 || amount.signum() != 0) {
+                    revenueDailyRepository.applyDelta(key.getDay(), key.getPaymentStatus(), count, amount);
+                }
+            });
+        }
+
+        @Override
+        public int getOrder() {
+            return DELTAS_ORDER;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            apply();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(RevenueRollupService.this);
+        }
+    }
+
+    public static final class RevenueContribution {
+        private final LocalDateTime invoiceDate;
+        private final Invoice.PaymentStatus paymentStatus;
+        private final BigDecimal totalAmount;
+
+        private RevenueContribution(LocalDateTime invoiceDate, Invoice.PaymentStatus paymentStatus, BigDecimal totalAmount) {
+            this.invoiceDate = invoiceDate;
+            this.paymentStatus = paymentStatus;
+            this.totalAmount = totalAmount;
+        }
+
+        public LocalDateTime getInvoiceDate() { return invoiceDate; }
+        public Invoice.PaymentStatus getPaymentStatus() { return paymentStatus; }
+        public BigDecimal getTotalAmount() { return totalAmount; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof RevenueContribution)) return false;
+            RevenueContribution other = (RevenueContribution) o;
+            return paymentStatus == other.paymentStatus
+                && sameDay(invoiceDate, other.invoiceDate)
+                && (totalAmount == null ? other.totalAmount == null
+                    : other.totalAmount != null && totalAmount.compareTo(other.totalAmount) == 0);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(paymentStatus, invoiceDate != null ? invoiceDate.toLocalDate() : null);
+        }
+
+        private static boolean sameDay(LocalDateTime a, LocalDateTime b) {
+            return a == null ? b == null : b != null && a.toLocalDate().equals(b.toLocalDate());
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.customermanagement.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.customermanagement.dto.StockBalanceRow;
+import com.example.customermanagement.dto.StockLevel;
+import com.example.customermanagement.model.StockMovement;
+import com.example.customermanagement.repository.StockMovementRepository;
+
+/**
+ * Append-only stock ledger with per-product on-hand balances. Purchases,
+ * sales and adjustments are INSERTs into stock_movements in the writing
+ * transaction; no ledger row is ever updated. The one shared row a movement
+ * touches is its product's stock_available pool in StockReservations: sales
+ * claim from it in batches on the coordination pool, and purchases add to it
+ * just before their transaction commits, so neither holds the row lock for
+ * the rest of the writing transaction.
+ *
+ * On-hand quantities are held in memory, one LongAdder per product, and
+ * applied once the writing transaction commits. LongAdder spreads concurrent
+ * increments over striped cells, so a popular product does not turn into a
+ * single contended counter, and stock reads never touch the database. A
+ * commit only adds to counters loaded before it; counters loaded later read
+ * its movements from the ledger instead.
+ *
+ * A scheduled snapshot folds the movements above its high-water mark into
+ * stock_balances, so loading the counters reads one row per product plus the
+ * short ledger tail instead of summing the whole ledger. Movement rows are
+ * never updated; only the mark moves. ledger_seq is drawn at insert, not at
+ * commit, so a number can still commit after a higher one; the snapshot
+ * first waits, briefly, for the writers in flight to finish, and only folds
+ * numbers drawn before that.
+ * The counters include the writes made through this instance; with several
+ * instances, the others' movements appear here after the next restart.
+ * Sales are checked against the shared pool of StockReservations before
+ * they are written, so on-hand here reports stock and the pool guards it.
+ */
+@Component
+public class StockLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedger.class);
+
+    @Value("${app.stock.max-history:200}")
+    private int maxHistory;
+
+    @Value("${app.stock.snapshot-lock-timeout:PT0.2S}")
+    private Duration snapshotLockTimeout;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StockReservations stockReservations;
+
+    private final Map<Long, LongAdder> onHand = new ConcurrentHashMap<>();
+    // Write side held by the load; read side by commits of movements while the counters are not loaded
+    private final ReentrantReadWriteLock loadLock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    // Once the schema upgrade has run; requests arriving earlier load the counters on first use
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            ensureLoaded();
+        } catch (Exception e) {
+            log.warn("Stock balances not loaded at startup, they will load on first use: {}", e.getMessage());
+        }
+    }
+
+    // Quantity per product of a set of lines; lines without a product do not move stock
+    public static <T> Map<Long, Long> quantitiesByProduct(Collection<T> lines, Function<T, Long> productId,
+                                                          Function<T, Integer> quantity) {
+        Map<Long, Long> quantities = new HashMap<>();
+        if (lines != null) {
+            for (T line : lines) {
+                Long product = productId.apply(line);
+                Integer count = quantity.apply(line);
+                if (product != null && count != null) {
+                    quantities.merge(product, count.longValue(), Long::sum);
+                }
+            }
+        }
+        return quantities;
+    }
+
+    /**
+     * Records the stock effect of a document changing from one set of line
+     * quantities to another: empty before for a new invoice, empty after for
+     * a deleted one. Only products whose quantity differs get a movement.
+     * Must run inside the transaction that writes the document.
+     */
+    public void recordChange(StockMovement.Reason reason, String sourceType, Long sourceId,
+                             Map<Long, Long> before, Map<Long, Long> after) {
+        // Sorted, so transactions touching several products take their row locks in the same order
+        Set<Long> products = new TreeSet<>(before.keySet());
+        products.addAll(after.keySet());
+        List<StockMovement> movements = new ArrayList<>();
+        for (Long product : products) {
+            long change = after.getOrDefault(product, 0L) - before.getOrDefault(product, 0L);
+            if (change != 0) {
+                movements.add(new StockMovement(product, reason.getSign() * change, reason, sourceType, sourceId, null));
+            }
+        }
+        record(movements);
+    }
+
+    @Transactional
+    public StockMovement adjust(Long productId, long quantity, String note) {
+        StockMovement movement = new StockMovement(productId, quantity, StockMovement.Reason.ADJUSTMENT,
+            null, null, note);
+        record(List.of(movement));
+        return movement;
+    }
+
+    public void record(List<StockMovement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionTemplate.executeWithoutResult(status -> record(movements));
+            return;
+        }
+        for (StockMovement movement : movements) {
+            // Anything taking stock out, a reduced purchase or an adjustment downwards as well as a
+            // sale, claims it like a sale does, so the pool cannot be driven below zero
+            if (movement.getQuantity() < 0) {
+                stockReservations.reserve(movement.getProductId(), -movement.getQuantity());
+            } else if (movement.getReason() != StockMovement.Reason.SALE) {
+                stockReservations.addToPool(movement.getProductId(), movement.getQuantity());
+            } else {
+                stockReservations.release(movement.getProductId(), movement.getQuantity());
+            }
+        }
+        stockMovementRepository.saveAll(movements);
+        TransactionSynchronizationManager.registerSynchronization(new CountOnCommit(movements));
+    }
+
+    public long getOnHand(Long productId) {
+        ensureLoaded();
+        LongAdder counter = onHand.get(productId);
+        return counter != null ? counter.sum() : 0L;
+    }
+
+    // Every requested product, in request order; products that never moved are at zero
+    public List<StockLevel> getOnHand(Collection<Long> productIds) {
+        ensureLoaded();
+        List<StockLevel> levels = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            LongAdder counter = onHand.get(productId);
+            levels.add(new StockLevel(productId, counter != null ? counter.sum() : 0L));
+        }
+        return levels;
+    }
+
+    public List<StockLevel> getAll() {
+        ensureLoaded();
+        List<StockLevel> levels = new ArrayList<>(onHand.size());
+        onHand.forEach((productId, counter) -> levels.add(new StockLevel(productId, counter.sum())));
+        levels.sort((a, b) -> a.getProductId().compareTo(b.getProductId()));
+        return levels;
+    }
+
+    public List<StockMovement> getMovements(Long productId, Integer limit) {
+        int size = limit == null || limit <= 0 ? maxHistory : Math.min(limit, maxHistory);
+        return stockMovementRepository.findByProductIdOrderByIdDesc(productId, PageRequest.of(0, size));
+    }
+
+    @Scheduled(initialDelayString = "${app.stock.snapshot-interval:PT1M}",
+               fixedDelayString = "${app.stock.snapshot-interval:PT1M}")
+    public void snapshot() {
+        try {
+            long start = System.nanoTime();
+            // Every number up to this one is committed or rolled back. The table lock is held for this one
+            // read, and waited for at most the lock timeout: it gives up rather than queueing new movements
+            // behind a long-running writer, and the next run retries.
+            Long settled = transactionTemplate.execute(status -> {
+                jdbcTemplate.execute("SET LOCAL lock_timeout = '" + snapshotLockTimeout.toMillis() + "ms'");
+                stockMovementRepository.lockForSnapshot();
+                return stockMovementRepository.lastLedgerSeq();
+            });
+            // Reads the ledger without blocking its writers
+            Integer products = transactionTemplate.execute(status -> {
+                stockMovementRepository.lockBalancesForSnapshot();
+                return stockMovementRepository.foldIntoBalances(settled);
+            });
+            if (products != null && products > 0) {
+                log.debug("Stock snapshot updated {} product balances in {} ms",
+                    products, (System.nanoTime() - start) / 1_000_000);
+            }
+        } catch (Exception e) {
+            log.warn("Stock snapshot failed, the ledger tail keeps growing until the next one: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loaded", loaded);
+        stats.put("products", onHand.size());
+        stats.put("reservations", stockReservations.stats());
+        return stats;
+    }
+
+    private LongAdder counter(Long productId) {
+        return onHand.computeIfAbsent(productId, key -> new LongAdder());
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loadLock.writeLock().lock();
+        try {
+            if (!loaded) {
+                long start = System.nanoTime();
+                List<StockBalanceRow> rows = stockMovementRepository.loadBalances();
+                for (StockBalanceRow row : rows) {
+                    counter(row.getProductId()).add(row.getOnHand());
+                }
+                loaded = true;
+                log.info("Loaded stock balances for {} products in {} ms",
+                    rows.size(), (System.nanoTime() - start) / 1_000_000);
+            }
+        } finally {
+            loadLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a transaction's movements to the counters once it commits, if the
+     * counters were loaded before the commit. Otherwise the load reads them
+     * from the ledger, and adding them too would count them twice. While the
+     * counters are not loaded, the commit holds the read side of loadLock, so
+     * a load cannot start before the commit and finish after it.
+     */
+    private final class CountOnCommit implements TransactionSynchronization {
+        private final List<StockMovement> movements;
+        private boolean countersLoaded;
+        private boolean holdingLoad;
+
+        private CountOnCommit(List<StockMovement> movements) {
+            this.movements = movements;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!loaded) {
+                loadLock.readLock().lock();
+                holdingLoad = true;
+            }
+            countersLoaded = loaded;
+        }
+
+        @Override
+        public void afterCommit() {
+            if (countersLoaded) {
+                for (StockMovement movement : movements) {
+                    counter(movement.getProductId()).add(movement.getQuantity());
+                }
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (holdingLoad) {
+                holdingLoad = false;
+                loadLock.readLock().unlock();
+            }
+        }
+    }
+}
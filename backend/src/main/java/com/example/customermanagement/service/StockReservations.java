@@ -0,0 +1,306 @@
+package com.example.customermanagement.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.customermanagement.config.CoordinationDatabase;
+import com.example.customermanagement.exception.InsufficientStockException;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Guards sales against overselling. products.stock_available is the pool of
+ * units no node has claimed yet. A node claims units from it with a
+ * conditional decrement (UPDATE ... WHERE stock_available >= ?) in its own
+ * short transaction on the CoordinationDatabase pool, so the row lock is held
+ * for one statement rather than for the whole invoice transaction, the claim
+ * never waits for a second connection from the main pool, and the pool can
+ * never go below zero. Purchases and adjustments add to the pool in the
+ * transaction that records them, but only just before it commits, so their
+ * row lock is held for the commit rather than the whole transaction.
+ *
+ * Each node keeps the units it claimed in a per-product buffer and claims at
+ * least app.stock.reservation.quantum units at a time, so a hot product costs
+ * one round trip per quantum instead of one per sale; near a stock-out it
+ * claims exactly the shortfall. Claims that time out on the row lock are
+ * retried with exponential backoff and full jitter. Units of a rolled back
+ * sale return to the buffer, idle buffers and buffers above twice the
+ * quantum return to the pool, and so does everything at shutdown. A node
+ * that dies holds back at most its buffered units until they are corrected
+ * with a stock adjustment.
+ */
+@Component
+public class StockReservations {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReservations.class);
+
+    private static final String ADD_TO_POOL =
+        "UPDATE products SET stock_available = COALESCE(stock_available, 0) + ? WHERE id = ?";
+
+    // The shared pool of unclaimed units
+    public interface StockSource {
+        // Takes want units, or exactly need when fewer than want are left; 0 when not even need are
+        long claim(Long productId, long need, long want);
+
+        void release(Long productId, long units);
+    }
+
+    @Value("${app.stock.reservation.quantum:10}")
+    private int quantum;
+
+    @Value("${app.stock.reservation.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${app.stock.reservation.backoff:PT0.01S}")
+    private Duration backoff;
+
+    @Value("${app.stock.reservation.lock-timeout:PT0.2S}")
+    private Duration lockTimeout;
+
+    @Value("${app.stock.reservation.idle-return:PT30S}")
+    private Duration idleReturn;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CoordinationDatabase coordinationDatabase;
+
+    private final ConcurrentHashMap<Long, Buffer> buffers = new ConcurrentHashMap<>();
+
+    private StockSource stockSource = new StockSource() {
+        @Override
+        public long claim(Long productId, long need, long want) {
+            return claimFromDatabase(productId, need, want);
+        }
+
+        @Override
+        public void release(Long productId, long units) {
+            releaseToDatabase(productId, units);
+        }
+    };
+
+    public StockReservations() {
+    }
+
+    // Standalone reservations backed by a custom stock source (benchmarks, tooling)
+    public StockReservations(int quantum, int maxAttempts, Duration backoff, StockSource stockSource) {
+        this.quantum = quantum;
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+        this.stockSource = stockSource;
+    }
+
+    /**
+     * Takes units of a product for a sale, throwing InsufficientStockException
+     * when the pool cannot cover them. Inside a transaction the units come
+     * back to this node if it rolls back.
+     */
+    public void reserve(Long productId, long units) {
+        Buffer buffer = buffers.computeIfAbsent(productId, Buffer::new);
+        buffer.take(units);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        buffer.give(units);
+                    }
+                }
+            });
+        }
+    }
+
+    // Units a sale gives back (an edited or deleted invoice), available again once that change commits
+    public void release(Long productId, long units) {
+        Buffer buffer = buffers.computeIfAbsent(productId, Buffer::new);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    buffer.give(units);
+                }
+            });
+        } else {
+            buffer.give(units);
+        }
+    }
+
+    // Stock bought or adjusted upwards, added to the pool by the transaction that records it. The
+    // UPDATE is deferred to just before that transaction commits, so sellers claiming the product
+    // wait on its row lock for the commit only, not for the rest of the purchase transaction
+    public void addToPool(Long productId, long units) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            jdbcTemplate.update(ADD_TO_POOL, units, productId);
+            return;
+        }
+        PoolAdditions additions = (PoolAdditions) TransactionSynchronizationManager.getResource(this);
+        if (additions == null) {
+            additions = new PoolAdditions();
+            TransactionSynchronizationManager.bindResource(this, additions);
+            TransactionSynchronizationManager.registerSynchronization(additions);
+        }
+        additions.units.merge(productId, units, Long::sum);
+    }
+
+    @Scheduled(fixedDelayString = "${app.stock.reservation.idle-return:PT30S}")
+    public void returnIdle() {
+        long idleBefore = System.nanoTime() - idleReturn.toNanos();
+        // Buffers stay in the map: removing one could strand units a waiting thread is about to claim into it
+        buffers.values().forEach(buffer -> buffer.returnIfIdle(idleBefore));
+    }
+
+    @PreDestroy
+    public void returnAll() {
+        buffers.values().forEach(buffer -> buffer.returnIfIdle(Long.MAX_VALUE));
+    }
+
+    public Map<String, Object> stats() {
+        long held = 0;
+        int holding = 0;
+        for (Buffer buffer : buffers.values()) {
+            long units = buffer.units;
+            if (units > 0) {
+                held += units;
+                holding++;
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("quantum", quantum);
+        stats.put("productsBuffered", holding);
+        stats.put("unitsBuffered", held);
+        return stats;
+    }
+
+    private long claimWithRetry(Long productId, long need, long want) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return stockSource.claim(productId, need, want);
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                // Full jitter, so nodes that timed out on the same row do not come back in lockstep
+                long ceiling = backoff.toNanos() << (attempt - 1);
+                LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(ceiling + 1));
+            }
+        }
+    }
+
+    // Runs on the coordination pool: the caller holds a main-pool connection for its invoice
+    // transaction, and so may every seller of the product waiting on the buffer lock
+    private long claimFromDatabase(Long productId, long need, long want) {
+        JdbcTemplate jdbc = coordinationDatabase.getJdbcTemplate();
+        Long claimed = coordinationDatabase.getTransactionTemplate().execute(status -> {
+            jdbc.execute("SET LOCAL lock_timeout = '" + lockTimeout.toMillis() + "ms'");
+            String claim = "UPDATE products SET stock_available = stock_available - ? WHERE id = ? AND stock_available >= ?";
+            if (jdbc.update(claim, want, productId, want) == 1) {
+                return want;
+            }
+            return want > need && jdbc.update(claim, need, productId, need) == 1 ? need : 0L;
+        });
+        return claimed != null ? claimed : 0L;
+    }
+
+    private void releaseToDatabase(Long productId, long units) {
+        coordinationDatabase.getJdbcTemplate().update(ADD_TO_POOL, units, productId);
+    }
+
+    // One transaction's additions, applied in product order so two purchases lock rows in the same order
+    private final class PoolAdditions implements TransactionSynchronization {
+        private final Map<Long, Long> units = new TreeMap<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            units.forEach((productId, added) -> jdbcTemplate.update(ADD_TO_POOL, added, productId));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(StockReservations.this);
+        }
+    }
+
+    private final class Buffer {
+        private final Long productId;
+        // A lock rather than a monitor, so a virtual thread waiting on a claim does not pin its carrier
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long units;
+        private volatile long lastUsed = System.nanoTime();
+
+        private Buffer(Long productId) {
+            this.productId = productId;
+        }
+
+        private void take(long requested) {
+            lock.lock();
+            try {
+                lastUsed = System.nanoTime();
+                if (units < requested) {
+                    // One thread claims for the product while this node's other sellers of it wait here
+                    long shortfall = requested - units;
+                    long claimed = claimWithRetry(productId, shortfall, Math.max(shortfall, quantum));
+                    if (claimed < shortfall) {
+                        throw new InsufficientStockException(productId, requested);
+                    }
+                    units += claimed;
+                }
+                units -= requested;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void give(long returned) {
+            lock.lock();
+            try {
+                units += returned;
+                if (units > 2L * quantum) {
+                    release(units - quantum);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void returnIfIdle(long idleBefore) {
+            if (units == 0 || lastUsed > idleBefore || !lock.tryLock()) {
+                return;
+            }
+            try {
+                if (units > 0) {
+                    release(units);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Keeps the units buffered when the pool cannot be reached; the next give or idle pass retries
+        private void release(long excess) {
+            try {
+                stockSource.release(productId, excess);
+                units -= excess;
+            } catch (Exception e) {
+                log.warn("Could not return {} units of product {} to the stock pool: {}", excess, productId, e.getMessage());
+            }
+        }
+    }
+}
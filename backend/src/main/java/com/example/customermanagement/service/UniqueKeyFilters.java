@@ -0,0 +1,212 @@
+package com.example.customermanagement.service;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Bloom filters over the unique keys of customers and vendors, so uniqueness
+ * checks can skip the database for values that were never used. A value the
+ * filter has not seen is definitely free (as far as this instance knows); a
+ * possible hit is confirmed with one query. Filters are built from the
+ * tables after startup and rebuilt every app.uniqueness.rebuild-interval,
+ * which also drops deleted values and picks up other instances' writes.
+ * Values are added before they are written, so a rolled back write leaves
+ * at worst a false positive.
+ *
+ * The unique indexes stay the final arbiter: a value written by another
+ * instance since the last rebuild passes the filter and is rejected by the
+ * database, which callers map to the same duplicate errors. Answers shown
+ * to users before they write (mightContainRecent) only trust a filter built
+ * within app.uniqueness.max-answer-age, so they miss another instance's
+ * writes for at most that long.
+ */
+@Component
+public class UniqueKeyFilters {
+
+    private static final Logger log = LoggerFactory.getLogger(UniqueKeyFilters.class);
+
+    private static final Pattern VIOLATED_KEY = Pattern.compile("Key \\(([^)]+)\\)=");
+
+    public enum Key {
+        CUSTOMER_EMAIL("customers", "email"),
+        CUSTOMER_PHONE("customers", "phone"),
+        VENDOR_EMAIL("vendors", "email"),
+        VENDOR_PHONE("vendors", "phone"),
+        VENDOR_GST_NUMBER("vendors", "gst_number");
+
+        private final String table;
+        private final String column;
+
+        Key(String table, String column) {
+            this.table = table;
+            this.column = column;
+        }
+    }
+
+    @Value("${app.uniqueness.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    // Lower bound on filter capacity, so a small table still has room to grow before the next rebuild
+    @Value("${app.uniqueness.min-capacity:10000}")
+    private long minCapacity;
+
+    // Single-instance deployments can raise this to the rebuild interval: every write is already in the filter
+    @Value("${app.uniqueness.max-answer-age:PT1M}")
+    private Duration maxAnswerAge;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Map<Key, KeyFilter> filters = new EnumMap<>(Key.class);
+
+    public UniqueKeyFilters() {
+        for (Key key : Key.values()) {
+            filters.put(key, new KeyFilter());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${app.uniqueness.rebuild-interval:PT1H}",
+               fixedDelayString = "${app.uniqueness.rebuild-interval:PT1H}")
+    public void rebuild() {
+        for (Key key : Key.values()) {
+            try {
+                filters.get(key).rebuild(key);
+            } catch (Exception e) {
+                log.warn("Could not build the {} filter, checks go to the database until the next rebuild: {}",
+                    key, e.getMessage());
+            }
+        }
+    }
+
+    // False only when no row can have this value; true until the filter has been built
+    public boolean mightContain(Key key, String value) {
+        return value == null || filters.get(key).mightContain(value);
+    }
+
+    // As mightContain, but a filter built longer ago than app.uniqueness.max-answer-age answers true
+    public boolean mightContainRecent(Key key, String value) {
+        return value == null || filters.get(key).mightContain(value, maxAnswerAge.toNanos());
+    }
+
+    public void add(Key key, String value) {
+        if (value != null) {
+            filters.get(key).add(value);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        filters.forEach((key, filter) -> stats.put(key.name().toLowerCase(Locale.ROOT), filter.stats()));
+        return stats;
+    }
+
+    // Column named in a PostgreSQL unique violation ("Key (email)=(...) already exists"), or null
+    public static String violatedColumn(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        if (message == null) {
+            return null;
+        }
+        Matcher matcher = VIOLATED_KEY.matcher(message);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private final class KeyFilter {
+        private volatile BloomFilter current;
+        private volatile BloomFilter building;
+        private volatile long builtAt;
+        private final LongAdder definiteNegatives = new LongAdder();
+        private final LongAdder possiblePositives = new LongAdder();
+
+        private boolean mightContain(String value) {
+            return mightContain(value, Long.MAX_VALUE);
+        }
+
+        private boolean mightContain(String value, long maxAgeNanos) {
+            BloomFilter filter = current;
+            if (filter != null && System.nanoTime() - builtAt <= maxAgeNanos && !filter.mightContain(value)) {
+                definiteNegatives.increment();
+                return false;
+            }
+            possiblePositives.increment();
+            return true;
+        }
+
+        private void add(String value) {
+            BloomFilter filter = current;
+            if (filter != null) {
+                filter.put(value);
+            }
+            // A rebuild in progress must see this value too, it may have read the table before the write
+            BloomFilter next = building;
+            if (next != null) {
+                next.put(value);
+            }
+        }
+
+        private void rebuild(Key key) {
+            long start = System.nanoTime();
+            Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + key.table, Long.class);
+            BloomFilter next = BloomFilter.create(Math.max(minCapacity, 2 * (rows != null ? rows : 0)), falsePositiveRate);
+            // Taken before the table is read: other instances' writes after this moment may be missing
+            long readStart = System.nanoTime();
+            building = next;
+            try {
+                // In a transaction so the driver streams the rows in fetch-size batches
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                        "SELECT " + key.column + " FROM " + key.table + " WHERE " + key.column + " IS NOT NULL");
+                    statement.setFetchSize(1000);
+                    return statement;
+                }, (RowCallbackHandler) resultSet -> next.put(resultSet.getString(1))));
+                builtAt = readStart;
+                current = next;
+            } finally {
+                building = null;
+            }
+            log.info("Built {} filter over {} values ({} bits) in {} ms", key, next.getInsertions(),
+                next.getBitCount(), (System.nanoTime() - start) / 1_000_000);
+        }
+
+        private Map<String, Object> stats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            BloomFilter filter = current;
+            stats.put("loaded", filter != null);
+            if (filter != null) {
+                stats.put("values", filter.getInsertions());
+                stats.put("capacity", filter.getExpectedInsertions());
+                stats.put("estimatedFalsePositiveRate", filter.estimatedFalsePositiveRate());
+            }
+            stats.put("definiteNegatives", definiteNegatives.sum());
+            stats.put("possiblePositives", possiblePositives.sum());
+            return stats;
+        }
+    }
+}
@@ -1,28 +1,59 @@
 package com.example.customermanagement.service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.customermanagement.dto.CursorPage;
+import com.example.customermanagement.dto.PurchaseBucket;
+import com.example.customermanagement.dto.ResourceVersion;
+import com.example.customermanagement.dto.VendorInvoiceCursor;
 import com.example.customermanagement.dto.VendorInvoiceDTO;
+import com.example.customermanagement.dto.VendorInvoiceSearchCriteria;
+import com.example.customermanagement.dto.VendorInvoiceSort;
 import com.example.customermanagement.exception.ResourceNotFoundException;
 import com.example.customermanagement.mapper.VendorInvoiceMapper;
+import com.example.customermanagement.model.StockMovement;
 import com.example.customermanagement.model.VendorInvoice;
+import com.example.customermanagement.model.VendorInvoiceItem;
 import com.example.customermanagement.repository.VendorInvoiceRepository;
+import com.example.customermanagement.repository.VendorInvoiceSpecifications;
 
 @Service
 @Transactional
 public class VendorInvoiceService {
 
+    private static final String STOCK_SOURCE = "vendor_invoice";
+
     @Autowired
     private VendorInvoiceRepository vendorInvoiceRepository;
 
     @Autowired
     private VendorInvoiceMapper vendorInvoiceMapper;
 
+    @Autowired
+    private BusinessMetrics businessMetrics;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Value("${app.vendor.default-page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.vendor.max-page-size:100}")
+    private int maxPageSize;
+
     public List<VendorInvoiceDTO> getAllInvoices() {
         List<VendorInvoice> invoices = vendorInvoiceRepository.findAll();
         return vendorInvoiceMapper.toDTOList(invoices);
@@ -37,6 +68,17 @@ public class VendorInvoiceService {
         }
     }
 
+    // Validators for conditional GETs: null when the invoice does not exist
+    @Transactional(readOnly = true)
+    public LocalDateTime getInvoiceLastModified(Long id) {
+        return vendorInvoiceRepository.findUpdatedAtById(id).orElse(null);
+    }
+
+    @Transactional(readOnly = true)
+    public ResourceVersion getInvoicesVersion() {
+        return vendorInvoiceRepository.findVersion();
+    }
+
     public VendorInvoiceDTO getInvoiceByInvoiceNo(String invoiceNo) {
         Optional<VendorInvoice> invoice = vendorInvoiceRepository.findByInvoiceNo(invoiceNo);
         if (invoice.isPresent()) {
@@ -51,51 +93,160 @@ public class VendorInvoiceService {
         return vendorInvoiceMapper.toDTOList(invoices);
     }
 
-    public List<VendorInvoiceDTO> getInvoicesByVendorName(String vendorName) {
-        List<VendorInvoice> invoices = vendorInvoiceRepository.findByVendorNameContainingIgnoreCase(vendorName);
-        return vendorInvoiceMapper.toDTOList(invoices);
+    // One page of invoices matching every filter that is set: one query for the headers, one for their lines
+    @Transactional(readOnly = true)
+    public CursorPage<VendorInvoiceDTO> searchInvoices(VendorInvoiceSearchCriteria criteria, VendorInvoiceSort sort,
+                                                       String cursor, Integer limit) {
+        Specification<VendorInvoice> spec = VendorInvoiceSpecifications.matching(criteria);
+        VendorInvoiceCursor position = VendorInvoiceCursor.decode(cursor, sort);
+        if (position != null) {
+            spec = spec.and(VendorInvoiceSpecifications.after(sort, position.getKey(), position.getId()));
+        }
+        int pageSize = resolvePageSize(limit);
+        List<VendorInvoice> rows = vendorInvoiceRepository.findBy(spec,
+            query -> query.sortBy(sort.toSort()).limit(pageSize + 1).all());
+
+        List<VendorInvoice> page = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+        List<VendorInvoiceDTO> invoices = page.isEmpty() ? List.of() : withItems(page);
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(invoices, null);
+        }
+        VendorInvoice last = page.get(pageSize - 1);
+        return new CursorPage<>(invoices, new VendorInvoiceCursor(sort, sort.keyOf(last), last.getId()).encode());
     }
 
+    // Bounds are in any format dateTime accepts; a date without a time includes that whole day
     public List<VendorInvoiceDTO> getInvoicesByDateRange(String startDate, String endDate) {
-        List<VendorInvoice> invoices = vendorInvoiceRepository.findByDateTimeBetween(startDate, endDate);
+        LocalDateTime start = VendorInvoice.parseDateTime(startDate);
+        if (start == null) {
+            throw new IllegalArgumentException("Invalid start date: " + startDate);
+        }
+        LocalDateTime end;
+        LocalDate endDay = VendorInvoice.parseDate(endDate);
+        if (endDay != null) {
+            end = endDay.plusDays(1).atStartOfDay();
+        } else {
+            LocalDateTime endTime = VendorInvoice.parseDateTime(endDate);
+            if (endTime == null) {
+                throw new IllegalArgumentException("Invalid end date: " + endDate);
+            }
+            // dateTime has minute precision, so the end minute is included
+            end = endTime.plusMinutes(1);
+        }
+        List<VendorInvoice> invoices = vendorInvoiceRepository.findByInvoiceTimestampRange(start, end);
         return vendorInvoiceMapper.toDTOList(invoices);
     }
 
+    // Purchase totals per day, week or month, both dates inclusive
+    @Transactional(readOnly = true)
+    public List<PurchaseBucket> getPurchases(RevenueRollupService.Bucket bucket, LocalDate from, LocalDate to) {
+        return vendorInvoiceRepository.findPurchaseBuckets(bucket.name().toLowerCase(),
+            from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
+
     public VendorInvoiceDTO createInvoice(VendorInvoiceDTO invoiceDTO) {
         VendorInvoice vendorInvoice = vendorInvoiceMapper.toEntity(invoiceDTO);
         VendorInvoice savedInvoice = vendorInvoiceRepository.save(vendorInvoice);
+        stockLedger.recordChange(StockMovement.Reason.PURCHASE, STOCK_SOURCE, savedInvoice.getId(),
+            Map.of(), stockOf(savedInvoice));
+        businessMetrics.vendorInvoiceCreated();
         return vendorInvoiceMapper.toDTO(savedInvoice);
     }
 
     public VendorInvoiceDTO updateInvoice(Long id, VendorInvoiceDTO invoiceDTO) {
-        Optional<VendorInvoice> existingInvoice = vendorInvoiceRepository.findById(id);
-        if (existingInvoice.isPresent()) {
-            VendorInvoice vendorInvoice = vendorInvoiceMapper.toEntity(invoiceDTO);
-            vendorInvoice.setId(id);
-            VendorInvoice updatedInvoice = vendorInvoiceRepository.save(vendorInvoice);
-            return vendorInvoiceMapper.toDTO(updatedInvoice);
-        } else {
-            throw new ResourceNotFoundException("Vendor Invoice not found with id: " + id);
-        }
+        return applyChanges(id, invoiceDTO, false);
+    }
+
+    // Partial edit: only the fields present change. items, when present, is the full list of lines;
+    // a line with an id may itself be partial, a new line must be complete.
+    public VendorInvoiceDTO patchInvoice(Long id, VendorInvoiceDTO changes) {
+        return applyChanges(id, changes, true);
     }
 
     public void deleteInvoice(Long id) {
         Optional<VendorInvoice> invoice = vendorInvoiceRepository.findById(id);
         if (invoice.isPresent()) {
+            Map<Long, Long> returnedStock = stockOf(invoice.get());
             vendorInvoiceRepository.deleteById(id);
+            stockLedger.recordChange(StockMovement.Reason.PURCHASE, STOCK_SOURCE, id, returnedStock, Map.of());
         } else {
             throw new ResourceNotFoundException("Vendor Invoice not found with id: " + id);
         }
     }
 
-    public List<VendorInvoiceDTO> getInvoicesByInvoiceNo(String invoiceNo) {
-        Optional<VendorInvoice> invoiceOpt = vendorInvoiceRepository.findByInvoiceNo(invoiceNo);
-        List<VendorInvoice> invoices = invoiceOpt.map(List::of).orElse(List.of());
-        return vendorInvoiceMapper.toDTOList(invoices);
+    // Edits the managed invoice in place so Hibernate writes only what changed; lines are merged by id
+    private VendorInvoiceDTO applyChanges(Long id, VendorInvoiceDTO changes, boolean partial) {
+        VendorInvoice invoice = vendorInvoiceRepository.findByIdWithItems(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Vendor Invoice not found with id: " + id));
+        if (changes.getVersion() != null && !changes.getVersion().equals(invoice.getVersion())) {
+            throw new OptimisticLockingFailureException("Vendor invoice " + id + " has changed since version "
+                + changes.getVersion() + "; current version is " + invoice.getVersion());
+        }
+        Map<Long, Long> previousStock = stockOf(invoice);
+
+        if (!partial || changes.getInvoiceNo() != null) invoice.setInvoiceNo(changes.getInvoiceNo());
+        if (!partial || changes.getVendorId() != null) invoice.setVendorId(changes.getVendorId());
+        if (!partial || changes.getVendorName() != null) invoice.setVendorName(changes.getVendorName());
+        if (!partial || changes.getVendorAddress() != null) invoice.setVendorAddress(changes.getVendorAddress());
+        if (!partial || changes.getVendorPhone() != null) invoice.setVendorPhone(changes.getVendorPhone());
+        if (!partial || changes.getDateTime() != null) invoice.setDateTime(changes.getDateTime());
+        if (!partial || changes.getSubtotal() != null) invoice.setSubtotal(changes.getSubtotal());
+        if (!partial || changes.getTotalTax() != null) invoice.setTotalTax(changes.getTotalTax());
+        if (!partial || changes.getGrandTotal() != null) invoice.setGrandTotal(changes.getGrandTotal());
+
+        if (changes.getItems() != null) {
+            List<VendorInvoiceItem> lines = changes.getItems().stream()
+                .map(item -> vendorInvoiceMapper.toItemEntity(item, invoice))
+                .collect(Collectors.toList());
+            LineItemMerge merge = LineItemMerge.apply("vendor invoice " + id, invoice.getItems(), lines,
+                VendorInvoiceItem::getId,
+                (line, edit) -> line.updateFrom(edit, partial),
+                line -> {
+                    requireComplete(line);
+                    invoice.addItem(line);
+                },
+                invoice::removeItem);
+            if (merge.touched() > 0) {
+                // Line-only edits leave the header row clean; updatedAt and the version must still move
+                invoice.setUpdatedAt(LocalDateTime.now());
+            }
+            businessMetrics.lineItemsMerged("vendor_invoice", merge);
+            stockLedger.recordChange(StockMovement.Reason.PURCHASE, STOCK_SOURCE, id, previousStock, stockOf(invoice));
+        }
+
+        // Flushed here so the response carries the new version
+        return vendorInvoiceMapper.toDTO(vendorInvoiceRepository.saveAndFlush(invoice));
     }
 
-    public List<VendorInvoiceDTO> getInvoicesByMobile(String mobile) {
-        List<VendorInvoice> invoices = vendorInvoiceRepository.findByVendorPhone(mobile);
-        return vendorInvoiceMapper.toDTOList(invoices);
+    // Units received per product by a vendor invoice's lines
+    private static Map<Long, Long> stockOf(VendorInvoice invoice) {
+        return StockLedger.quantitiesByProduct(invoice.getItems(), VendorInvoiceItem::getProductId,
+            VendorInvoiceItem::getQuantity);
+    }
+
+    private static void requireComplete(VendorInvoiceItem line) {
+        if (line.getProductId() == null || line.getProductName() == null || line.getQuantity() == null
+                || line.getUnitPrice() == null || line.getCgstPercent() == null || line.getSgstPercent() == null
+                || line.getTotal() == null) {
+            throw new IllegalArgumentException("New lines need productId, productName, quantity, unitPrice, "
+                + "cgstPercent, sgstPercent and total");
+        }
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    // Fetches the lines of every invoice on the page together, keeping the page order
+    private List<VendorInvoiceDTO> withItems(List<VendorInvoice> page) {
+        List<Long> ids = page.stream().map(VendorInvoice::getId).collect(Collectors.toList());
+        Map<Long, VendorInvoice> loaded = vendorInvoiceRepository.findWithItemsByIdIn(ids).stream()
+            .collect(Collectors.toMap(VendorInvoice::getId, Function.identity()));
+        return ids.stream()
+            .map(id -> vendorInvoiceMapper.toDTO(loaded.get(id)))
+            .collect(Collectors.toList());
     }
 }
\ No newline at end of file
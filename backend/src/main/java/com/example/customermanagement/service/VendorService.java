@@ -1,8 +1,10 @@
 package com.example.customermanagement.service;
 
 import java.util.List;
+import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import com.example.customermanagement.exception.ResourceNotFoundException;
@@ -15,6 +17,9 @@ public class VendorService {
     @Autowired
     private VendorRepository vendorRepository;
 
+    @Autowired
+    private UniqueKeyFilters uniqueKeyFilters;
+
     public List<Vendor> getAllVendors() {
         return vendorRepository.findAll();
     }
@@ -25,23 +30,18 @@ public class VendorService {
     }
 
     public Vendor createVendor(Vendor vendor) {
-        validateVendorData(vendor);
-        return vendorRepository.save(vendor);
+        requireUnique(null, vendor.getEmail(), vendor.getPhone(), vendor.getGstNumber());
+        return saveUnique(vendor);
     }
 
     public Vendor updateVendor(Long id, Vendor vendorDetails) {
         Vendor vendor = getVendorById(id);
         
         // Only validate changed fields
-        if (!vendor.getEmail().equals(vendorDetails.getEmail())) {
-            validateEmail(vendorDetails.getEmail());
-        }
-        if (!vendor.getPhone().equals(vendorDetails.getPhone())) {
-            validatePhone(vendorDetails.getPhone());
-        }
-        if (!vendor.getGstNumber().equals(vendorDetails.getGstNumber())) {
-            validateGstNumber(vendorDetails.getGstNumber());
-        }
+        requireUnique(id,
+            Objects.equals(vendor.getEmail(), vendorDetails.getEmail()) ? null : vendorDetails.getEmail(),
+            Objects.equals(vendor.getPhone(), vendorDetails.getPhone()) ? null : vendorDetails.getPhone(),
+            Objects.equals(vendor.getGstNumber(), vendorDetails.getGstNumber()) ? null : vendorDetails.getGstNumber());
 
         vendor.setName(vendorDetails.getName());
         vendor.setEmail(vendorDetails.getEmail());
@@ -49,7 +49,7 @@ public class VendorService {
         vendor.setAddress(vendorDetails.getAddress());
         vendor.setGstNumber(vendorDetails.getGstNumber());
         
-        return vendorRepository.save(vendor);
+        return saveUnique(vendor);
     }
 
     public void deleteVendor(Long id) {
@@ -67,27 +67,50 @@ public class VendorService {
         return vendorRepository.searchVendors(searchTerm.trim());
     }
 
-    private void validateVendorData(Vendor vendor) {
-        validateEmail(vendor.getEmail());
-        validatePhone(vendor.getPhone());
-        validateGstNumber(vendor.getGstNumber());
-    }
-
-    private void validateEmail(String email) {
-        if (vendorRepository.existsByEmail(email)) {
-            throw new IllegalArgumentException("Email already exists: " + email);
+    // Three keys, at most one query: the filters rule out most values, the rest are confirmed together
+    private void requireUnique(Long id, String email, String phone, String gstNumber) {
+        boolean checkEmail = email != null && uniqueKeyFilters.mightContain(UniqueKeyFilters.Key.VENDOR_EMAIL, email);
+        boolean checkPhone = phone != null && uniqueKeyFilters.mightContain(UniqueKeyFilters.Key.VENDOR_PHONE, phone);
+        boolean checkGst = gstNumber != null
+            && uniqueKeyFilters.mightContain(UniqueKeyFilters.Key.VENDOR_GST_NUMBER, gstNumber);
+        if (!checkEmail && !checkPhone && !checkGst) {
+            return;
         }
-    }
-
-    private void validatePhone(String phone) {
-        if (vendorRepository.existsByPhone(phone)) {
-            throw new IllegalArgumentException("Phone number already exists: " + phone);
+        List<Vendor> matches = vendorRepository.findByAnyUniqueKey(checkEmail ? email : null,
+            checkPhone ? phone : null, checkGst ? gstNumber : null);
+        for (Vendor other : matches) {
+            if (other.getId().equals(id)) {
+                continue;
+            }
+            if (checkEmail && email.equals(other.getEmail())) {
+                throw new IllegalArgumentException("Email already exists: " + email);
+            }
+            if (checkPhone && phone.equals(other.getPhone())) {
+                throw new IllegalArgumentException("Phone number already exists: " + phone);
+            }
+            throw new IllegalArgumentException("GST number already exists: " + gstNumber);
         }
     }
 
-    private void validateGstNumber(String gstNumber) {
-        if (vendorRepository.existsByGstNumber(gstNumber)) {
-            throw new IllegalArgumentException("GST number already exists: " + gstNumber);
+    // The unique indexes settle races the check cannot see, e.g. writes from another instance
+    private Vendor saveUnique(Vendor vendor) {
+        uniqueKeyFilters.add(UniqueKeyFilters.Key.VENDOR_EMAIL, vendor.getEmail());
+        uniqueKeyFilters.add(UniqueKeyFilters.Key.VENDOR_PHONE, vendor.getPhone());
+        uniqueKeyFilters.add(UniqueKeyFilters.Key.VENDOR_GST_NUMBER, vendor.getGstNumber());
+        try {
+            return vendorRepository.save(vendor);
+        } catch (DataIntegrityViolationException e) {
+            String column = UniqueKeyFilters.violatedColumn(e);
+            if ("email".equals(column)) {
+                throw new IllegalArgumentException("Email already exists: " + vendor.getEmail());
+            }
+            if ("phone".equals(column)) {
+                throw new IllegalArgumentException("Phone number already exists: " + vendor.getPhone());
+            }
+            if ("gst_number".equals(column)) {
+                throw new IllegalArgumentException("GST number already exists: " + vendor.getGstNumber());
+            }
+            throw e;
         }
     }
 }
@@ -0,0 +1,122 @@
+package com.example.customermanagement.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.example.customermanagement.config.CustomerInvoiceBackfill;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * An invoice linked to its customer by CustomerInvoiceBackfill must stop
+ * answering 304 to the validators a client cached before the link, or the
+ * client keeps the unlinked copy and its next edit fails the version check.
+ * Runs against a real PostgreSQL in a throwaway schema, only when
+ * TEST_DATABASE_URL is set (TEST_DATABASE_USERNAME / TEST_DATABASE_PASSWORD,
+ * default postgres).
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class InvoiceLinkBackfillConditionalGetTest {
+
+    private final String schema = "link_backfill_test_" + System.nanoTime();
+    private final String username = System.getenv().getOrDefault("TEST_DATABASE_USERNAME", "postgres");
+    private final String password = System.getenv().getOrDefault("TEST_DATABASE_PASSWORD", "postgres");
+    private final JdbcTemplate admin = new JdbcTemplate(
+        new DriverManagerDataSource(System.getenv("TEST_DATABASE_URL"), username, password));
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createSchema() {
+        admin.execute("CREATE SCHEMA " + schema);
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getenv("TEST_DATABASE_URL"));
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setSchema(schema);
+        dataSource.setMaximumPoolSize(2);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE customers (id bigserial PRIMARY KEY, phone varchar(20))");
+        jdbcTemplate.execute("CREATE TABLE invoices (id bigserial PRIMARY KEY, customer_id bigint, " +
+            "customer_mobile varchar(20), invoice_date timestamp, payment_status varchar(20), " +
+            "total_amount numeric(10,2), version bigint, updated_at timestamp)");
+        jdbcTemplate.execute("CREATE TABLE customer_totals (customer_id bigint PRIMARY KEY, invoice_count bigint, " +
+            "lifetime_value numeric(12,2), outstanding_balance numeric(12,2), last_invoice_date timestamp)");
+    }
+
+    @AfterEach
+    void dropSchema() {
+        dataSource.close();
+        admin.execute("DROP SCHEMA " + schema + " CASCADE");
+    }
+
+    @Test
+    void linkingAnInvoiceChangesItsETag() {
+        Long customerId = jdbcTemplate.queryForObject(
+            "INSERT INTO customers (phone) VALUES ('9000000001') RETURNING id", Long.class);
+        Long invoiceId = jdbcTemplate.queryForObject(
+            "INSERT INTO invoices (customer_mobile, invoice_date, payment_status, total_amount, version, updated_at) " +
+            "VALUES ('+91 90000 00001', '2026-01-01 09:00', 'PENDING', 100.00, 0, '2026-01-01 10:00') RETURNING id",
+            Long.class);
+
+        MockHttpServletResponse before = new MockHttpServletResponse();
+        assertThat(ConditionalRequests.checkNotModified(request(null, before), "invoice", invoiceId, updatedAt(invoiceId)))
+            .isFalse();
+        String cachedETag = before.getHeader("ETag");
+
+        backfill();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT customer_id FROM invoices WHERE id = ?", Long.class, invoiceId))
+            .isEqualTo(customerId);
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM invoices WHERE id = ?", Long.class, invoiceId))
+            .isEqualTo(1L);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT invoice_count FROM customer_totals WHERE customer_id = ?", Long.class, customerId)).isEqualTo(1L);
+
+        // The client revalidates with the ETag it cached before the link: a full response, not 304
+        MockHttpServletResponse after = new MockHttpServletResponse();
+        assertThat(ConditionalRequests.checkNotModified(request(cachedETag, after), "invoice", invoiceId,
+            updatedAt(invoiceId))).isFalse();
+        assertThat(after.getStatus()).isEqualTo(200);
+        assertThat(after.getHeader("ETag")).isNotEqualTo(cachedETag);
+    }
+
+    private void backfill() {
+        CustomerInvoiceBackfill backfill = new CustomerInvoiceBackfill();
+        ReflectionTestUtils.setField(backfill, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(backfill, "transactionTemplate",
+            new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        ReflectionTestUtils.setField(backfill, "chunkSize", 500);
+        ReflectionTestUtils.setField(backfill, "pause", Duration.ZERO);
+        ReflectionTestUtils.setField(backfill, "maxAttempts", 5);
+        ReflectionTestUtils.setField(backfill, "retryBackoff", Duration.ofMillis(10));
+        ReflectionTestUtils.invokeMethod(backfill, "backfill");
+    }
+
+    // What InvoiceRepository.findUpdatedAtById reads for GET /api/invoices/{id}
+    private LocalDateTime updatedAt(Long invoiceId) {
+        return jdbcTemplate.queryForObject("SELECT updated_at FROM invoices WHERE id = ?", LocalDateTime.class, invoiceId);
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch, MockHttpServletResponse response) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/invoices");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return new ServletWebRequest(request, response);
+    }
+}
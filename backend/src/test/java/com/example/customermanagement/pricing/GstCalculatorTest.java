@@ -0,0 +1,144 @@
+package com.example.customermanagement.pricing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.example.customermanagement.model.InvoiceItem;
+
+/**
+ * Line pricing on paise and basis points against the BigDecimal pricing it
+ * replaced, where each stored column was the exact amount rounded by its
+ * numeric(10,2) column. CGST and SGST always match the old columns; tax and
+ * line total match whenever the exact tax falls on whole paise, and are
+ * otherwise within one paisa because the components are now rounded before
+ * they are added.
+ */
+class GstCalculatorTest {
+
+    private static final BigDecimal PAISA = new BigDecimal("0.01");
+
+    @ParameterizedTest
+    @CsvSource({
+        // unitPrice, quantity, cgstRate, sgstRate
+        "100.00,   1,   9,    9",
+        "250.00,   3,   2.5,  2.5",
+        "1000.00,  7,   14,   14",
+        "40.00,    1,   0.25, 0.25",
+        "999.99,   100, 9,    9",
+        "120.00,   1,   1.5,  1.5",
+        "1000.00,  1,   0.1,  0",
+        "75.50,    4,   0,    5",
+        "50.00,    2,   ,     9",
+        "0.01,     1,   0,    0",
+        "0.01,     1,   -5,   0",
+    })
+    void matchesThePreviousPricingWhenTaxFallsOnWholePaise(BigDecimal unitPrice, int quantity,
+                                                           BigDecimal cgstRate, BigDecimal sgstRate) {
+        InvoiceItem item = price(unitPrice, quantity, cgstRate, sgstRate);
+        BigDecimal[] previous = previousPricing(unitPrice, quantity, cgstRate, sgstRate);
+
+        assertThat(item.getCgstAmount()).isEqualByComparingTo(previous[0]);
+        assertThat(item.getSgstAmount()).isEqualByComparingTo(previous[1]);
+        assertThat(item.getTaxAmount()).isEqualByComparingTo(previous[2]);
+        assertThat(item.getTotalPrice()).isEqualByComparingTo(previous[3]);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        // unitPrice, quantity, cgstRate, sgstRate, cgst, sgst, tax, total
+        "10.50,  1, 9,    9,    0.95, 0.95, 1.90, 12.40",
+        "0.50,   1, 1,    1,    0.01, 0.01, 0.02, 0.52",
+        "0.05,   1, 10,   10,   0.01, 0.01, 0.02, 0.07",
+        "1.05,   1, 50,   50,   0.53, 0.53, 1.06, 2.11",
+        "1.50,   1, 1,    0,    0.02, 0.00, 0.02, 1.52",
+        "7.00,   1, 0.25, 0.25, 0.02, 0.02, 0.04, 7.04",
+        "33.33,  3, 2.5,  2.5,  2.50, 2.50, 5.00, 104.99",
+        "0.49,   1, 1,    1,    0.00, 0.00, 0.00, 0.49",
+        "0.50,   1, 0.99, 0,    0.00, 0.00, 0.00, 0.50",
+        "2.50,   1, 0.1,  0.1,  0.00, 0.00, 0.00, 2.50",
+        "10.005, 1, 0,    0,    0.00, 0.00, 0.00, 10.01",
+    })
+    void roundsEachComponentHalfUpAtThePaisa(BigDecimal unitPrice, int quantity, BigDecimal cgstRate,
+                                             BigDecimal sgstRate, BigDecimal cgst, BigDecimal sgst,
+                                             BigDecimal tax, BigDecimal total) {
+        InvoiceItem item = price(unitPrice, quantity, cgstRate, sgstRate);
+        BigDecimal[] previous = previousPricing(unitPrice, quantity, cgstRate, sgstRate);
+
+        assertThat(item.getCgstAmount()).isEqualByComparingTo(cgst).isEqualByComparingTo(previous[0]);
+        assertThat(item.getSgstAmount()).isEqualByComparingTo(sgst).isEqualByComparingTo(previous[1]);
+        assertThat(item.getTaxAmount()).isEqualByComparingTo(tax);
+        assertThat(item.getTotalPrice()).isEqualByComparingTo(total);
+        assertThat(item.getTaxAmount().subtract(previous[2]).abs()).isLessThanOrEqualTo(PAISA);
+        assertThat(item.getTotalPrice().subtract(previous[3]).abs()).isLessThanOrEqualTo(PAISA);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        // dividend, divisor, quotient
+        "15,   10, 2",
+        "14,   10, 1",
+        "-15,  10, -2",
+        "-14,  10, -1",
+        "0,    10, 0",
+        "4999, 10000, 0",
+        "5000, 10000, 1",
+    })
+    void dividesHalfAwayFromZero(long dividend, long divisor, long quotient) {
+        assertThat(GstCalculator.divideHalfUp(dividend, divisor)).isEqualTo(quotient);
+    }
+
+    @Test
+    void takesRatesToTheBasisPoint() {
+        assertThat(GstCalculator.toBasisPoints(new BigDecimal("2.5"))).isEqualTo(250);
+        assertThat(GstCalculator.toBasisPoints(new BigDecimal("0.125"))).isEqualTo(13);
+        assertThat(GstCalculator.toBasisPoints(new BigDecimal("0.124"))).isEqualTo(12);
+    }
+
+    @Test
+    void overflowThrowsInsteadOfWrapping() {
+        BigDecimal largestPrice = GstCalculator.toAmount(Long.MAX_VALUE);
+
+        assertThatThrownBy(() -> GstCalculator.lineSubtotal(largestPrice, 2)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> GstCalculator.lineSubtotal(new BigDecimal("10000000000"), Integer.MAX_VALUE))
+            .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> GstCalculator.tax(Long.MAX_VALUE / 100, new BigDecimal("28")))
+            .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> GstCalculator.toPaise(largestPrice.add(PAISA))).isInstanceOf(ArithmeticException.class);
+        assertThat(GstCalculator.lineSubtotal(largestPrice, 1)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    private static InvoiceItem price(BigDecimal unitPrice, int quantity, BigDecimal cgstRate, BigDecimal sgstRate) {
+        InvoiceItem item = new InvoiceItem();
+        item.setUnitPrice(unitPrice);
+        item.setQuantity(quantity);
+        item.setCgstRate(cgstRate);
+        item.setSgstRate(sgstRate);
+        item.applyPricing();
+        return item;
+    }
+
+    // The replaced pricing: exact BigDecimal math, each amount then rounded HALF_UP by its numeric(10,2) column
+    private static BigDecimal[] previousPricing(BigDecimal unitPrice, int quantity,
+                                                BigDecimal cgstRate, BigDecimal sgstRate) {
+        BigDecimal subtotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
+        BigDecimal cgst = cgstRate != null && cgstRate.signum() > 0
+            ? subtotal.multiply(cgstRate).divide(BigDecimal.valueOf(100)) : BigDecimal.ZERO;
+        BigDecimal sgst = sgstRate != null && sgstRate.signum() > 0
+            ? subtotal.multiply(sgstRate).divide(BigDecimal.valueOf(100)) : BigDecimal.ZERO;
+        BigDecimal tax = cgst.add(sgst);
+        return new BigDecimal[] {
+            column(cgst), column(sgst), column(tax), column(subtotal.add(tax))
+        };
+    }
+
+    private static BigDecimal column(BigDecimal exact) {
+        return exact.setScale(2, RoundingMode.HALF_UP);
+    }
+}
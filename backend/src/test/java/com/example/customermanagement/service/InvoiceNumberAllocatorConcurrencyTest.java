@@ -0,0 +1,129 @@
+package com.example.customermanagement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Several allocators stand in for several nodes, all reserving blocks from one
+ * shared counter that sleeps like a database round trip, while many threads
+ * per node draw numbers at once. Every number handed out must be unique, and
+ * the only numbers skipped are the unused rest of each node's current block.
+ * Throughput is measured by InvoiceNumberAllocatorBenchmark.
+ */
+class InvoiceNumberAllocatorConcurrencyTest {
+
+    private static final int NODES = 3;
+    private static final int THREADS_PER_NODE = 8;
+    private static final int NUMBERS_PER_THREAD = 20_000;
+    private static final int BLOCK_SIZE = 50;
+
+    @Test
+    void concurrentAllocationAcrossNodesNeverRepeatsANumber() throws Exception {
+        SharedCounter database = new SharedCounter();
+        Set<String> issued = allocateConcurrently(database, false, day -> LocalDate.of(2026, 10, 17));
+
+        assertThat(issued).hasSize(NODES * THREADS_PER_NODE * NUMBERS_PER_THREAD);
+        assertThat(issued).allMatch(number -> number.matches("INV\\d{6,}"));
+        assertGapsOnlyInOpenBlocks(database, issued);
+    }
+
+    @Test
+    void financialYearSeriesAreNumberedIndependently() throws Exception {
+        // Alternate between the last day of FY 2025-26 and the first day of FY 2026-27
+        SharedCounter database = new SharedCounter();
+        Set<String> issued = allocateConcurrently(database, true,
+            i -> i % 2 == 0 ? LocalDate.of(2026, 3, 31) : LocalDate.of(2026, 4, 1));
+
+        assertThat(issued).hasSize(NODES * THREADS_PER_NODE * NUMBERS_PER_THREAD);
+        long previousYear = issued.stream().filter(number -> number.startsWith("INV/2025-26/")).count();
+        long currentYear = issued.stream().filter(number -> number.startsWith("INV/2026-27/")).count();
+        assertThat(previousYear).isEqualTo(currentYear).isEqualTo(issued.size() / 2);
+        assertThat(issued).contains("INV/2025-26/000001", "INV/2026-27/000001");
+        assertGapsOnlyInOpenBlocks(database, issued);
+    }
+
+    // Per series: nothing beyond the reserved blocks, and at most one partly used block per node
+    private static void assertGapsOnlyInOpenBlocks(SharedCounter database, Set<String> issued) {
+        Map<String, List<Long>> bySeries = issued.stream().collect(Collectors.groupingBy(
+            number -> number.substring(0, number.length() - 6),
+            Collectors.mapping(number -> Long.parseLong(number.substring(number.length() - 6)), Collectors.toList())));
+        bySeries.forEach((series, numbers) -> {
+            long reservedThrough = database.next.get(series) - 1;
+            assertThat(numbers).allMatch(number -> number >= 1 && number <= reservedThrough);
+            assertThat(reservedThrough - numbers.size()).isLessThanOrEqualTo((long) NODES * (BLOCK_SIZE - 1));
+        });
+    }
+
+    private Set<String> allocateConcurrently(SharedCounter database, boolean financialYearSeries, DatePicker dates)
+            throws Exception {
+        List<InvoiceNumberAllocator> nodes = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            nodes.add(new InvoiceNumberAllocator("INV", BLOCK_SIZE, financialYearSeries, database::reserve));
+        }
+
+        Set<String> issued = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        ExecutorService threads = Executors.newFixedThreadPool(NODES * THREADS_PER_NODE);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (InvoiceNumberAllocator node : nodes) {
+                for (int t = 0; t < THREADS_PER_NODE; t++) {
+                    workers.add(threads.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < NUMBERS_PER_THREAD; i++) {
+                            if (!issued.add(node.nextInvoiceNumber(dates.pick(i)))) {
+                                duplicates.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertThat(duplicates).hasValue(0);
+        return issued;
+    }
+
+    private interface DatePicker {
+        LocalDate pick(int i);
+    }
+
+    // invoice_number_series: one counter per series, reserved under a row lock with a round trip's delay
+    private static final class SharedCounter {
+        private final ConcurrentHashMap<String, Long> next = new ConcurrentHashMap<>();
+
+        private long reserve(String seriesKey, int blockSize) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200));
+            long[] first = new long[1];
+            next.compute(seriesKey, (key, value) -> {
+                first[0] = value != null ? value : 1;
+                return first[0] + blockSize;
+            });
+            return first[0];
+        }
+    }
+}
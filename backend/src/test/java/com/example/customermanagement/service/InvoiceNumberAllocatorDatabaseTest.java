@@ -0,0 +1,125 @@
+package com.example.customermanagement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.customermanagement.config.CoordinationDatabase;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Runs RESERVE_BLOCK and CREATE_SERIES against a real PostgreSQL in a
+ * throwaway schema, with several allocators sharing one series row. Only
+ * runs when TEST_DATABASE_URL points at a database the test may create
+ * schemas in (TEST_DATABASE_USERNAME / TEST_DATABASE_PASSWORD, default postgres).
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class InvoiceNumberAllocatorDatabaseTest {
+
+    private static final int NODES = 3;
+    private static final int THREADS_PER_NODE = 8;
+    private static final int NUMBERS_PER_THREAD = 500;
+    private static final int BLOCK_SIZE = 50;
+
+    private final String schema = "allocator_test_" + System.nanoTime();
+    private final String username = System.getenv().getOrDefault("TEST_DATABASE_USERNAME", "postgres");
+    private final String password = System.getenv().getOrDefault("TEST_DATABASE_PASSWORD", "postgres");
+    private final JdbcTemplate admin = new JdbcTemplate(
+        new DriverManagerDataSource(System.getenv("TEST_DATABASE_URL"), username, password));
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createSchema() {
+        admin.execute("CREATE SCHEMA " + schema);
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getenv("TEST_DATABASE_URL"));
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setSchema(schema);
+        dataSource.setMaximumPoolSize(NODES + 1);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE invoices (id bigserial PRIMARY KEY, invoice_no varchar(255))");
+        jdbcTemplate.execute("CREATE TABLE invoice_number_series (series_key varchar(255) PRIMARY KEY, " +
+            "next_value bigint NOT NULL, updated_at timestamp)");
+        // Issued before the series table existed; the series must continue after the highest of these
+        jdbcTemplate.update("INSERT INTO invoices (invoice_no) VALUES ('INV000003'), ('INV000007'), ('INVOICE-X')");
+    }
+
+    @AfterEach
+    void dropSchema() {
+        dataSource.close();
+        admin.execute("DROP SCHEMA " + schema + " CASCADE");
+    }
+
+    @Test
+    void nodesSharingTheSeriesRowNeverRepeatANumber() throws Exception {
+        List<InvoiceNumberAllocator> nodes = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            nodes.add(allocator());
+        }
+
+        Set<String> issued = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(NODES * THREADS_PER_NODE);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> workers = new ArrayList<>();
+            for (InvoiceNumberAllocator node : nodes) {
+                for (int t = 0; t < THREADS_PER_NODE; t++) {
+                    workers.add(executor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < NUMBERS_PER_THREAD; i++) {
+                            issued.add(node.nextInvoiceNumber(LocalDate.of(2026, 10, 17)));
+                        }
+                        return null;
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(issued).hasSize(NODES * THREADS_PER_NODE * NUMBERS_PER_THREAD);
+        long reservedThrough = jdbcTemplate.queryForObject(
+            "SELECT next_value - 1 FROM invoice_number_series WHERE series_key = 'INV'", Long.class);
+        List<Long> numbers = issued.stream().map(number -> Long.parseLong(number.substring(3))).toList();
+        assertThat(numbers).allMatch(number -> number > 7 && number <= reservedThrough);
+        assertThat(reservedThrough - 7 - numbers.size()).isLessThanOrEqualTo((long) NODES * (BLOCK_SIZE - 1));
+    }
+
+    // One node; all of them reserve through the same small pool, as separate nodes would through their own
+    private InvoiceNumberAllocator allocator() {
+        CoordinationDatabase coordination = new CoordinationDatabase();
+        ReflectionTestUtils.setField(coordination, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(coordination, "transactionTemplate",
+            new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        InvoiceNumberAllocator allocator = new InvoiceNumberAllocator();
+        ReflectionTestUtils.setField(allocator, "prefix", "INV");
+        ReflectionTestUtils.setField(allocator, "blockSize", BLOCK_SIZE);
+        ReflectionTestUtils.setField(allocator, "coordinationDatabase", coordination);
+        return allocator;
+    }
+}
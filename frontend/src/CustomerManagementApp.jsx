@@ -11,6 +11,7 @@ import ProductModule from './components/ProductModule';
 import SearchInvoice from './components/SearchInvoice.jsx';
 import SearchProduct from './components/SearchProduct.jsx';
 import { useAuth } from './contexts/AuthContext';
+import { fetchAllPages } from './utils/pagination';
 import './CustomerManagementApp.css';
 
 const CUSTOMER_API = 'http://localhost:8080/api/customers';
@@ -44,8 +45,7 @@ export default function CustomerManagementApp() {
 
   const fetchInvoices = async () => {
     try {
-      const res = await fetch(INVOICE_API);
-      const data = await res.json();
+      const data = await fetchAllPages(INVOICE_API);
       setInvoices(data);
     } catch (err) {
       console.error('Error fetching invoices:', err);
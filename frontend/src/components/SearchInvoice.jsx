@@ -1,10 +1,18 @@
 import { useEffect, useState } from 'react';
+import { fetchAllPages, fetchPage } from '../utils/pagination';
+
+const SEARCH_API = 'http://localhost:8080/api/invoices/search';
+// Shorter search terms only match the start of an invoice number, name or mobile
+const MIN_SUBSTRING_TERM_LENGTH = 3;
 
 export default function SearchInvoice({ handleBack }) {
   const [searchTerm, setSearchTerm] = useState('');
   const [searchResults, setSearchResults] = useState([]);
+  // Set while a search has more ranked matches than it has shown; null for the full invoice list
+  const [searchMore, setSearchMore] = useState(null);
   const [hasSearched, setHasSearched] = useState(false);
   const [loading, setLoading] = useState(false);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [error, setError] = useState('');
   const [selectedInvoice, setSelectedInvoice] = useState(null);
   const [editingInvoice, setEditingInvoice] = useState(null);
@@ -19,25 +27,14 @@ export default function SearchInvoice({ handleBack }) {
     setLoading(true);
     setError('');
     try {
-      const response = await fetch('http://localhost:8080/api/invoices', {
-        method: 'GET',
+      const data = await fetchAllPages('http://localhost:8080/api/invoices', {
         headers: {
-          'Content-Type': 'application/json',
           'Accept': 'application/json'
         }
       });
 
-      if (!response.ok) {
-        const errorData = await response.json().catch(() => ({}));
-        throw new Error(errorData.message || 'Failed to fetch invoices');
-      }
-
-      const data = await response.json();
-      if (!Array.isArray(data)) {
-        throw new Error('Invalid data received from server');
-      }
-
       setSearchResults(data);
+      setSearchMore(null);
       setHasSearched(true);
     } catch (err) {
       console.error('Error fetching invoices:', err);
@@ -55,39 +52,58 @@ export default function SearchInvoice({ handleBack }) {
     
     try {
       const term = searchTerm.trim();
-      const url = term ? 
-        `http://localhost:8080/api/invoices/search?term=${encodeURIComponent(term)}` :
-        'http://localhost:8080/api/invoices';
+      if (!term) {
+        // No term lists every invoice, which comes back a page at a time
+        const data = await fetchAllPages('http://localhost:8080/api/invoices', {
+          headers: {
+            'Accept': 'application/json'
+          }
+        });
+        setSearchResults(data);
+        setSearchMore(null);
+        setHasSearched(true);
+        return;
+      }
 
-      const response = await fetch(url, {
-        method: 'GET',
+      // Search returns its best matches first, a page at a time; more are loaded on request
+      const page = await fetchPage(`${SEARCH_API}?term=${encodeURIComponent(term)}`, null, {
         headers: {
-          'Content-Type': 'application/json',
           'Accept': 'application/json'
         }
       });
 
-      if (!response.ok) {
-        const errorData = await response.json().catch(() => ({}));
-        throw new Error(errorData.message || 'Failed to fetch invoices');
-      }
-
-      const data = await response.json();
-      if (!Array.isArray(data)) {
-        throw new Error('Invalid data received from server');
-      }
-
-      setSearchResults(data);
+      setSearchResults(page.rows);
+      setSearchMore(page.nextCursor ? { term, cursor: page.nextCursor } : null);
       setHasSearched(true);
     } catch (err) {
       console.error('Search error:', err);
       setError(err.message || 'Failed to search invoices');
       setSearchResults([]);
+      setSearchMore(null);
     } finally {
       setLoading(false);
     }
   };
 
+  const handleLoadMore = async () => {
+    setLoadingMore(true);
+    setError('');
+    try {
+      const page = await fetchPage(`${SEARCH_API}?term=${encodeURIComponent(searchMore.term)}`, searchMore.cursor, {
+        headers: {
+          'Accept': 'application/json'
+        }
+      });
+      setSearchResults((previous) => [...previous, ...page.rows]);
+      setSearchMore(page.nextCursor ? { term: searchMore.term, cursor: page.nextCursor } : null);
+    } catch (err) {
+      console.error('Search error:', err);
+      setError(err.message || 'Failed to load more invoices');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   // Update the handleView function
   const handleView = async (invoice) => {
     try {
@@ -658,6 +674,11 @@ export default function SearchInvoice({ handleBack }) {
             onKeyPress={(e) => e.key === 'Enter' && handleSearch()}
             className="form-input"
           />
+          {searchTerm.trim().length > 0 && searchTerm.trim().length < MIN_SUBSTRING_TERM_LENGTH && (
+            <p className="helper-text">
+              Terms under {MIN_SUBSTRING_TERM_LENGTH} characters match only the start of a number, name or mobile.
+            </p>
+          )}
         </div>
         <div className="button-group">
           <button 
@@ -740,6 +761,13 @@ export default function SearchInvoice({ handleBack }) {
           ) : (
             <p className="empty-message">No invoices found.</p>
           )}
+          {searchMore && (
+            <div className="button-group">
+              <button onClick={handleLoadMore} className="btn btn-blue" disabled={loadingMore}>
+                {loadingMore ? 'Loading...' : 'Load more matches'}
+              </button>
+            </div>
+          )}
         </div>
       )}
 
@@ -1,12 +1,16 @@
 import { useEffect, useState } from 'react';
 import { useNavigate } from 'react-router-dom';
+import { fetchPage } from '../utils/pagination';
 
 export default function SearchVendorInvoice({ handleBack, onBack }) {
   const navigate = useNavigate();
   const [searchTerm, setSearchTerm] = useState('');
   const [searchResults, setSearchResults] = useState([]);
+  // Set while a search has more matches than it has shown; null for the full invoice list
+  const [searchMore, setSearchMore] = useState(null);
   const [hasSearched, setHasSearched] = useState(false);
   const [loading, setLoading] = useState(false);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [error, setError] = useState('');
   const [selectedInvoice, setSelectedInvoice] = useState(null);
   const [editingInvoice, setEditingInvoice] = useState(null);
@@ -35,55 +39,70 @@ export default function SearchVendorInvoice({ handleBack, onBack }) {
         throw new Error('Invalid data received from server');
       }
       setSearchResults(data);
+      setSearchMore(null);
       setHasSearched(true);
     } catch (err) {
       setError(err.message || 'Failed to fetch invoices');
       setSearchResults([]);
+      setSearchMore(null);
     } finally {
       setLoading(false);
     }
   };
 
   const handleSearch = async () => {
+    const term = searchTerm.trim();
+    if (!term) {
+      fetchAllInvoices();
+      return;
+    }
     setLoading(true);
     setError('');
     try {
-      const term = searchTerm.trim();
-      let url = 'https://ecommerce-lce3.onrender.com/api/vendor-invoices';
-      if (term) {
-        if (/^INV\d+$/i.test(term)) {
-          url = `https://ecommerce-lce3.onrender.com/api/vendor-invoices/search?vendorName=&invoiceNo=${encodeURIComponent(term)}`;
-        } else if (/^\d{10}$/.test(term)) {
-          url = `https://ecommerce-lce3.onrender.com/api/vendor-invoices/search?vendorName=&mobile=${encodeURIComponent(term)}`;
-        } else {
-          url = `https://ecommerce-lce3.onrender.com/api/vendor-invoices/search?vendorName=${encodeURIComponent(term)}`;
-        }
+      let url;
+      if (/^INV\d+$/i.test(term)) {
+        url = `https://ecommerce-lce3.onrender.com/api/vendor-invoices/search?vendorName=&invoiceNo=${encodeURIComponent(term)}`;
+      } else if (/^\d{10}$/.test(term)) {
+        url = `https://ecommerce-lce3.onrender.com/api/vendor-invoices/search?vendorName=&mobile=${encodeURIComponent(term)}`;
+      } else {
+        url = `https://ecommerce-lce3.onrender.com/api/vendor-invoices/search?vendorName=${encodeURIComponent(term)}`;
       }
-      const response = await fetch(url, {
-        method: 'GET',
+      // Search returns a page at a time; more are loaded on request
+      const page = await fetchPage(url, null, {
         headers: {
-          'Content-Type': 'application/json',
           'Accept': 'application/json'
         }
       });
-      if (!response.ok) {
-        const errorData = await response.json().catch(() => ({}));
-        throw new Error(errorData.message || 'Failed to fetch invoices');
-      }
-      const data = await response.json();
-      if (!Array.isArray(data)) {
-        throw new Error('Invalid data received from server');
-      }
-      setSearchResults(data);
+      setSearchResults(page.rows);
+      setSearchMore(page.nextCursor ? { url, cursor: page.nextCursor } : null);
       setHasSearched(true);
     } catch (err) {
       setError(err.message || 'Failed to search invoices');
       setSearchResults([]);
+      setSearchMore(null);
     } finally {
       setLoading(false);
     }
   };
 
+  const handleLoadMore = async () => {
+    setLoadingMore(true);
+    setError('');
+    try {
+      const page = await fetchPage(searchMore.url, searchMore.cursor, {
+        headers: {
+          'Accept': 'application/json'
+        }
+      });
+      setSearchResults((previous) => [...previous, ...page.rows]);
+      setSearchMore(page.nextCursor ? { url: searchMore.url, cursor: page.nextCursor } : null);
+    } catch (err) {
+      setError(err.message || 'Failed to load more invoices');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleView = async (invoice) => {
     try {
       const response = await fetch(`https://ecommerce-lce3.onrender.com/api/vendor-invoices/${invoice.id}`, {
@@ -712,6 +731,13 @@ export default function SearchVendorInvoice({ handleBack, onBack }) {
           ) : (
             <p className="empty-message">No invoices found.</p>
           )}
+          {searchMore && (
+            <div className="button-group">
+              <button onClick={handleLoadMore} className="btn btn-blue" disabled={loadingMore}>
+                {loadingMore ? 'Loading...' : 'Load more matches'}
+              </button>
+            </div>
+          )}
         </div>
       )}
       {selectedInvoice && (
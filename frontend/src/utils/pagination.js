@@ -0,0 +1,39 @@
+// List endpoints return one page per response, with the cursor for the next page in the
+// X-Next-Cursor header (absent on the last page). fetchAllPages follows the cursors and
+// returns every row, for screens that still show the whole list at once.
+export const NEXT_CURSOR_HEADER = 'X-Next-Cursor';
+
+const PAGE_SIZE = 200;
+
+// One page: its rows and the cursor for the next one (null on the last page)
+export const fetchPage = async (url, cursor, options = {}) => {
+  const pageUrl = new URL(url);
+  if (cursor) {
+    pageUrl.searchParams.set('cursor', cursor);
+  }
+
+  const response = await fetch(pageUrl, options);
+  if (!response.ok) {
+    const errorData = await response.json().catch(() => ({}));
+    throw new Error(errorData.message || errorData.error || `HTTP error! status: ${response.status}`);
+  }
+
+  const rows = await response.json();
+  if (!Array.isArray(rows)) {
+    throw new Error('Invalid data received from server');
+  }
+  return { rows, nextCursor: response.headers.get(NEXT_CURSOR_HEADER) };
+};
+
+export const fetchAllPages = async (url, options = {}) => {
+  const pageUrl = new URL(url);
+  pageUrl.searchParams.set('limit', PAGE_SIZE);
+  const rows = [];
+  let cursor = null;
+  do {
+    const page = await fetchPage(pageUrl, cursor, options);
+    rows.push(...page.rows);
+    cursor = page.nextCursor;
+  } while (cursor);
+  return rows;
+};